@@ -33,6 +33,6 @@ public class GrouseAbstractSyntaxTree extends GrouseApplication {
 		Scanner scanner     = LexicalAnalyzer.make(filename);
 		ParseNode syntaxTree    = Parser.parse(scanner);
 		
-		out.print(syntaxTree);
+		ParseTreePrinter.print(syntaxTree, out);
 	}
 }
@@ -48,6 +48,9 @@ public class GrouseApplication {
 	protected static boolean endsWithSeparator(String filePath) {
 		return (!filePath.endsWith(File.separator));
 	}
+	protected static String outputDirectory() {
+		return outputDirectory;
+	}
 	protected static String outputFilename(String filename) {
 		return outputDirectory + basename(filename) + ".asm";
 	}
@@ -3,29 +3,46 @@ package applications;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import asmCodeGenerator.ASMCodeGenerator;
 import asmCodeGenerator.codeStorage.ASMCodeFragment;
+import inputHandler.MappedSourceBuffer;
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.AstCache;
 import parseTree.ParseNode;
 import parser.Parser;
 import semanticAnalyzer.SemanticAnalyzer;
 import tokens.Tokens;
+import utilities.CompilationContext;
 import utilities.Debug;
 
 public class GrouseCompiler extends GrouseApplication {
+	public static final String CACHE_OPTION = "-astcache";
 	private static Debug debug = new Debug();
 	
-	/** Compiles a Grouse file.
+	/** Compiles a Grouse file.  With CACHE_OPTION before the filename, decorated trees are
+	 *  kept in the AstCache beside the output directory.
 	 * @param args
 	 * @throws FileNotFoundException 
 	 */
 	public static void main(String[] args) throws FileNotFoundException {
+		boolean useCache = args.length > 0 && args[0].equals(CACHE_OPTION);
+		if(useCache) {
+			args = Arrays.copyOfRange(args, 1, args.length);
+		}
 		checkArguments(args, className());
 		
 		Tokens.setPrintLevel(Tokens.Level.FULL);
-		compile(args[0]);
+		compile(args[0], CompilationContext.current(), useCache);
 	}
 	
 	/** analyzes a file specified by filename.
@@ -33,16 +50,110 @@ public class GrouseCompiler extends GrouseApplication {
 	 * @throws FileNotFoundException 
 	 */
 	public static void compile(String filename) throws FileNotFoundException {
-		Scanner scanner         = LexicalAnalyzer.make(filename);
-		ParseNode syntaxTree    = Parser.parse(scanner);
+		compile(filename, CompilationContext.current());
+	}
+	/** analyzes a file with the names, labels and error count of the given context.
+	 *  Compilations in different contexts may run at the same time.
+	 */
+	public static void compile(String filename, CompilationContext context) throws FileNotFoundException {
+		compile(filename, context, false);
+	}
+	/** analyzes a file in the given context, reading and storing its decorated tree in the
+	 *  AstCache beside the output directory if useCache is true.
+	 */
+	public static void compile(String filename, CompilationContext context, boolean useCache) throws FileNotFoundException {
+		FileNotFoundException failure = context.call(() -> {
+			try {
+				compileInContext(filename, useCache);
+				return null;
+			}
+			catch(FileNotFoundException e) {
+				return e;
+			}
+		});
+		if(failure != null) {
+			throw failure;
+		}
+	}
+	private static void compileInContext(String filename, boolean useCache) throws FileNotFoundException {
+		ParseNode decoratedTree = useCache ? cachedTree(filename) : analyzedTree(filename);
+		
+		debug.out("~~Generate code starting~~");
+		generateCodeIfNoErrors(filename, decoratedTree);
+	}
+	// an unchanged source that compiled without errors before has its decorated tree in the AstCache.
+	private static ParseNode cachedTree(String filename) throws FileNotFoundException {
+		AstCache cache          = AstCache.nextTo(outputDirectory());
+		String key              = cache.keyOf(filename);
+		ParseNode decoratedTree = cache.lookup(key, filename);
+		
+		if(decoratedTree == null) {
+			decoratedTree = analyzedTree(filename);
+			if(!thereAreErrors()) {
+				cache.store(key, decoratedTree, filename);
+			}
+		}
+		return decoratedTree;
+	}
+	private static ParseNode analyzedTree(String filename) throws FileNotFoundException {
+		MappedSourceBuffer source = MappedSourceBuffer.fromFilename(filename);
+		Scanner scanner         = LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation());
+		ParseNode syntaxTree    = Parser.parse(TokenBuffer.forSource(source, scanner));
 		
 		debug.out("~~Semantic Analyzer starting~~");
 		ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
 
 		//debug.out(decoratedTree.toString()); // TODO: zPARSE TREE
 		
-		debug.out("~~Generate code starting~~");
-		generateCodeIfNoErrors(filename, decoratedTree);
+		return decoratedTree;
+	}
+	
+	/** compiles several files on threadCount threads, each file in a fresh CompilationContext,
+	 *  without the AstCache.
+	 * @return the context each file was compiled in, in the order of filenames.
+	 */
+	public static List<CompilationContext> compileAll(List<String> filenames, int threadCount)
+			throws FileNotFoundException {
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		List<CompilationContext> contexts = new ArrayList<CompilationContext>();
+		List<Future<?>> compilations = new ArrayList<Future<?>>();
+		
+		try {
+			for(String filename: filenames) {
+				CompilationContext context = new CompilationContext();
+				contexts.add(context);
+				compilations.add(pool.submit(() -> {
+					compile(filename, context);
+					return null;
+				}));
+			}
+			for(Future<?> compilation: compilations) {
+				awaitCompilation(compilation);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		return contexts;
+	}
+	private static void awaitCompilation(Future<?> compilation) throws FileNotFoundException {
+		try {
+			compilation.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("compilation interrupted", e);
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof FileNotFoundException) {
+				throw (FileNotFoundException)cause;
+			}
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			throw new IllegalStateException(cause);
+		}
 	}
 
 	private static void generateCodeIfNoErrors(String filename, ParseNode decoratedTree)
@@ -87,6 +198,6 @@ public class GrouseCompiler extends GrouseApplication {
 	}
 
 	private static boolean thereAreErrors() {
-		return logging.GrouseLogger.hasErrors();
+		return CompilationContext.current().hasErrors();
 	}
 }
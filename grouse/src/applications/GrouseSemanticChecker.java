@@ -37,6 +37,6 @@ public class GrouseSemanticChecker extends GrouseApplication {
 		ParseNode syntaxTree    = Parser.parse(scanner);
 		ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
 		
-		out.print(decoratedTree);
+		ParseTreePrinter.print(decoratedTree, out);
 	}
 }
@@ -8,6 +8,7 @@ import tokens.Tokens;
 
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenArray;
 
 public class GrouseTokenPrinter extends GrouseApplication {
 	/** Prints tokens from a Grouse file.
@@ -35,6 +36,22 @@ public class GrouseTokenPrinter extends GrouseApplication {
 		}
 		printNextToken(out, scanner);		// prints NullToken
 	}
+	
+	/** prints the same tokens as scanFile, but lexes the whole file into a
+	 * TokenArray first.  Lexical errors are therefore all reported before
+	 * any token is printed.
+	 * @param filename the name of the file to be listed.
+	 * @param out the PrintStream to list to.
+	 */
+	public static void scanFileAsTokenArray(String filename, PrintStream out) {
+		printTokens(out, TokenArray.fromFile(filename));
+	}
+	
+	public static void printTokens(PrintStream out, TokenArray tokens) {
+		for(int i = 0; i < tokens.size(); i++) {
+			out.println(tokens.token(i).toString());
+		}
+	}
 
 	private static void printNextToken(PrintStream out, Scanner scanner) {
 		Token token = scanner.next();
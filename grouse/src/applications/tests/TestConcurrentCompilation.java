@@ -0,0 +1,72 @@
+package applications.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import asmCodeGenerator.ASMCodeGenerator;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import parseTree.ParseNode;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import utilities.CompilationContext;
+
+public class TestConcurrentCompilation extends TestCase {
+	private static final String[] FILENAMES = {
+		FixtureDefinitions.AST_INPUT_FILENAME,
+		"input/grouse-0/coins.grouse",
+		"input/grouse-0/fewerCoins.grouse",
+		"input/grouse-0/moreCoins.grouse",
+		"input/grouse-0/printTest.grouse",
+	};
+	private static final int ROUNDS = 4;
+	
+	public void testConcurrentCompilationsMatchSequential() throws Exception {
+		List<String> expected = new ArrayList<String>();
+		for(String filename: FILENAMES) {
+			expected.add(compiledCode(filename, new CompilationContext()));
+		}
+		
+		ExecutorService pool = Executors.newFixedThreadPool(FILENAMES.length);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for(int round = 0; round < ROUNDS; round++) {
+				for(String filename: FILENAMES) {
+					results.add(pool.submit(() -> compiledCode(filename, new CompilationContext())));
+				}
+			}
+			for(int i = 0; i < results.size(); i++) {
+				assertEquals(FILENAMES[i % FILENAMES.length], expected.get(i % FILENAMES.length), results.get(i).get());
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	public void testContextsAreSeparate() {
+		CompilationContext first = new CompilationContext();
+		CompilationContext second = new CompilationContext();
+		
+		first.call(() -> first.getNameTable().intern("onlyInFirst"));
+		assertTrue(first.getNameTable().size() > second.getNameTable().size());
+		assertNotSame(first.getLabeller(), second.getLabeller());
+		assertSame(first.getNullScope(), first.getNullScope());
+		assertNotSame(first.getNullScope(), second.getNullScope());
+		
+		assertSame(first, first.call(() -> CompilationContext.current()));
+		assertNotSame(first, CompilationContext.current());
+	}
+	
+	private static String compiledCode(String filename, CompilationContext context) {
+		return context.call(() -> {
+			ParseNode syntaxTree = Parser.parse(LexicalAnalyzer.make(filename));
+			ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
+			assertFalse(filename, context.hasErrors());
+			return ASMCodeGenerator.generate(decoratedTree).toString();
+		});
+	}
+}
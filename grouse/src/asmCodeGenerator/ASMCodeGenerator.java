@@ -27,6 +27,7 @@ import parseTree.nodeTypes.DiagStatementNode;
 import parseTree.nodeTypes.FloatConstantNode;
 import parseTree.nodeTypes.ForEverNode;
 import parseTree.nodeTypes.ForStatementNode;
+import parseTree.nodeTypes.FunctionDefinitionNode;
 import parseTree.nodeTypes.IdentifierNode;
 import parseTree.nodeTypes.IfStatementNode;
 import parseTree.nodeTypes.IntegerConstantNode;
@@ -44,16 +45,18 @@ import semanticAnalyzer.types.PrimitiveType;
 import semanticAnalyzer.types.Type;
 import symbolTable.Binding;
 import symbolTable.Scope;
+import utilities.CompilationContext;
 import utilities.Debug;
 import static asmCodeGenerator.codeStorage.ASMCodeFragment.CodeType.*;
 import static asmCodeGenerator.codeStorage.ASMOpcode.*;
 
 // do not call the code generator if any errors have occurred during analysis.
 public class ASMCodeGenerator {
-	private static Labeller labeller = new Labeller();
 	private static Debug debug = new Debug();
 	
 	ParseNode root;
+	private CompilationContext context;
+	private Labeller labeller;
 
 	public static ASMCodeFragment generate(ParseNode syntaxTree) {
 		ASMCodeGenerator codeGenerator = new ASMCodeGenerator(syntaxTree);
@@ -61,15 +64,29 @@ public class ASMCodeGenerator {
 	}
 	
 	public ASMCodeGenerator(ParseNode root) {
+		this(root, CompilationContext.current());
+	}
+	public ASMCodeGenerator(ParseNode root, CompilationContext context) {
 		super();
 		this.root = root;
+		this.context = context;
+		this.labeller = context.getLabeller();
 	}
 	
+	// the labeller of the current compilation
 	public static Labeller getLabeller() {
-		return labeller;
+		return CompilationContext.current().getLabeller();
+	}
+	
+	// the label of the subroutine for a function; function names are unique in a program.
+	public static String functionLabel(String functionName) {
+		return "-function-" + functionName;
 	}
 	
 	public ASMCodeFragment makeASM() {
+		return context.call(this::makeASMInContext);
+	}
+	private ASMCodeFragment makeASMInContext() {
 		ASMCodeFragment code = new ASMCodeFragment(GENERATES_VOID);
 
 		code.append( MemoryManager.codeForInitialization() );
@@ -92,28 +109,29 @@ public class ASMCodeGenerator {
 		return code;
 	}
 	
+	// the functions' subroutines go after the main program, off its path.
 	private ASMCodeFragment programASM() {
+		CodeVisitor visitor = new CodeVisitor();
+		root.accept(visitor);
+		
 		ASMCodeFragment code = new ASMCodeFragment(GENERATES_VOID);
 		
 		code.add(    Label, RunTime.MAIN_PROGRAM_LABEL);
-		code.append( programCode());
+		code.append( visitor.removeRootCode(root));
 		code.add(    Halt );
+		code.append( visitor.removeSubroutineCode());
 		
 		return code;
 	}
-	
-	private ASMCodeFragment programCode() {
-		CodeVisitor visitor = new CodeVisitor();
-		root.accept(visitor);
-		return visitor.removeRootCode(root);
-	}
 
 	private class CodeVisitor extends ParseNodeVisitor.Default {
 		private Map<ParseNode, ASMCodeFragment> codeMap;
+		private ASMCodeFragment subroutineCode;
 		ASMCodeFragment code;
 		
 		public CodeVisitor() {
 			codeMap = new HashMap<ParseNode, ASMCodeFragment>();
+			subroutineCode = new ASMCodeFragment(GENERATES_VOID);
 		}
 
 		////////////////////////////////////////////////////////////////////
@@ -150,6 +168,13 @@ public class ASMCodeGenerator {
 			return getAndRemoveCode(tree);
 		}
 	    
+	    public  ASMCodeFragment removeSubroutineCode() {
+			ASMCodeFragment result = subroutineCode;
+			
+			subroutineCode = new ASMCodeFragment(GENERATES_VOID);
+			return result;
+		}
+	    
 		private ASMCodeFragment removeValueCode(ParseNode node) {
 			ASMCodeFragment frag = getAndRemoveCode(node);
 			makeFragmentValueCode(frag, node);
@@ -217,6 +242,20 @@ public class ASMCodeGenerator {
 			}
 		}
 		
+		// a function's body runs in a frame on the stack, sized for its parameters, named
+		// results and locals.  Its code is a subroutine, so it adds nothing to the program's path.
+		public void visitLeave(FunctionDefinitionNode node) {
+			newVoidCode(node);
+			
+			String functionName = node.child(0).getToken().getLexeme();
+			int frameSize = RunTime.FRAME_LINKAGE_SIZE + node.getScope().getAllocatedSize();
+			
+			subroutineCode.add(Label, functionLabel(functionName));
+			RunTime.enterFrame(subroutineCode, frameSize);
+			subroutineCode.append(removeVoidCode(node.child(3)));
+			RunTime.leaveFrame(subroutineCode);
+		}
+		
 		public void visitLeave(MainBlockNode node) {
 			newVoidCode(node);
 			
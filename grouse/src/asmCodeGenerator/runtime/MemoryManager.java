@@ -4,8 +4,8 @@ import static asmCodeGenerator.Macros.*;
 import static asmCodeGenerator.codeStorage.ASMCodeFragment.CodeType.*;
 import static asmCodeGenerator.codeStorage.ASMOpcode.*;
 
-import asmCodeGenerator.Labeller;
 import asmCodeGenerator.codeStorage.ASMCodeFragment;
+import utilities.CompilationContext;
 
 public class MemoryManager {
 	// Debug Mode. DEBUGGING Adds debug code and executes insertDebugMain when the program is initiailzed.
@@ -25,7 +25,7 @@ public class MemoryManager {
 	
 	// Main memory manager variables.
 	private static final String MEM_MANAGER_HEAP_START_PTR =   "$heap-start-ptr";
-	private static final String MEM_MANAGER_HEAP_END_PTR =     "$heap-after-ptr";
+	static final String MEM_MANAGER_HEAP_END_PTR =             "$heap-after-ptr";	// the stack must stay above it
 	private static final String MEM_MANAGER_FIRST_FREE_BLOCK = "$heap-first-free";
 	private static final String MEM_MANAGER_HEAP =             "$heap-memory";
 	
@@ -100,7 +100,6 @@ public class MemoryManager {
 	// the only tunable parameter.
 	private static final int MEM_MANAGER_WASTE_TOLERANCE = MMGR_TWICE_TAG_SIZE + 8;
 
-	static Labeller labeller = new Labeller();
 
 	// this code should reside on the executable pathway before the application.
 	public static ASMCodeFragment codeForInitialization() {
@@ -918,7 +917,7 @@ public class MemoryManager {
 		return frag;
 	}
 	public static void debugPrintString(ASMCodeFragment code, String string) {
-		String stringLabel = labeller.newLabel("debug-pstring", "");
+		String stringLabel = CompilationContext.current().getRunTimeLabeller().newLabel("debug-pstring", "");
 		code.add(DLabel, stringLabel);
 		code.add(DataS, string);
 		code.add(PushD, stringLabel);
@@ -1,4 +1,5 @@
 package asmCodeGenerator.runtime;
+import static asmCodeGenerator.Macros.*;
 import static asmCodeGenerator.codeStorage.ASMCodeFragment.CodeType.*;
 import static asmCodeGenerator.codeStorage.ASMOpcode.*;
 import asmCodeGenerator.codeStorage.ASMCodeFragment;
@@ -16,12 +17,25 @@ public class RunTime {
 	public static final String GLOBAL_MEMORY_BLOCK    = "$global-memory-block";
 	public static final String USABLE_MEMORY_START    = "$usable-memory-start";
 	public static final String MAIN_PROGRAM_LABEL     = "$$main";
+	public static final String FRAME_POINTER          = "$frame-pointer";
+	public static final String STACK_POINTER          = "$stack-pointer";
+	
+	// A subroutine's frame lies below its frame pointer, and the stack grows down from the
+	// top of memory.  The frame starts with its linkage: the caller's frame pointer, then
+	// the return address.  The parameters, named results and locals follow, at the offsets
+	// given by the function's scope.  A caller stores the arguments at those offsets from
+	// its own stack pointer, which becomes the frame pointer, before the Call.
+	public static final int DYNAMIC_LINK_OFFSET       = -4;
+	public static final int RETURN_ADDRESS_OFFSET     = -8;
+	public static final int FRAME_LINKAGE_SIZE        = 8;
 	
 	public static final String GENERAL_RUNTIME_ERROR = "$$general-runtime-error";
 	public static final String NUMBER_DIVIDE_BY_ZERO_RUNTIME_ERROR = "$$i-divide-by-zero";
+	public static final String STACK_OVERFLOW_RUNTIME_ERROR = "$$stack-overflow";
 
 	private ASMCodeFragment environmentASM() {
 		ASMCodeFragment result = new ASMCodeFragment(GENERATES_VOID);
+		result.append(stackPointers());
 		result.append(jumpToMain());
 		result.append(stringsForPrintf());
 		result.append(runtimeErrors());
@@ -29,6 +43,18 @@ public class RunTime {
 		return result;
 	}
 	
+	private ASMCodeFragment stackPointers() {
+		ASMCodeFragment frag = new ASMCodeFragment(GENERATES_VOID);
+		declareI(frag, FRAME_POINTER);
+		declareI(frag, STACK_POINTER);
+		
+		frag.add(Memtop);						// the stack is empty: both point past its top
+		frag.add(Duplicate);
+		storeITo(frag, FRAME_POINTER);
+		storeITo(frag, STACK_POINTER);
+		return frag;
+	}
+	
 	private ASMCodeFragment jumpToMain() {
 		ASMCodeFragment frag = new ASMCodeFragment(GENERATES_VOID);
 		frag.add(Jump, MAIN_PROGRAM_LABEL);
@@ -66,6 +92,7 @@ public class RunTime {
 		
 		generalRuntimeError(frag);
 		numberDivideByZeroError(frag);
+		stackOverflowError(frag);
 		
 		return frag;
 	}
@@ -94,6 +121,61 @@ public class RunTime {
 		frag.add(Jump, GENERAL_RUNTIME_ERROR);
 	}
 	
+	private void stackOverflowError(ASMCodeFragment frag) {
+		String stackOverflowMessage = "$errors-stack-overflow";
+		
+		frag.add(DLabel, stackOverflowMessage);
+		frag.add(DataS, "stack overflows into the heap");
+		
+		frag.add(Label, STACK_OVERFLOW_RUNTIME_ERROR);
+		frag.add(PushD, stackOverflowMessage);
+		frag.add(Jump, GENERAL_RUNTIME_ERROR);
+	}
+	
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// subroutine frames
+	
+	/** [... returnAddress] -> [...]
+	 *  The prologue of a subroutine: pushes a frame of frameSize bytes, linkage included.
+	 *  The heap grows up toward the stack, so a frame that would reach below the end of the
+	 *  heap is a stack overflow, reported before anything is written.
+	 */
+	public static void enterFrame(ASMCodeFragment frag, int frameSize) {
+		loadIFrom(frag, STACK_POINTER);			// [... ret (sp - frameSize - heapEnd)]
+		frag.add(PushI, frameSize);
+		frag.add(Subtract);
+		loadIFrom(frag, MemoryManager.MEM_MANAGER_HEAP_END_PTR);
+		frag.add(Subtract);
+		frag.add(JumpNeg, STACK_OVERFLOW_RUNTIME_ERROR);	// [... ret]
+		
+		loadIFrom(frag, FRAME_POINTER);			// [... ret fp]
+		loadIFrom(frag, STACK_POINTER);			// [... ret fp sp]
+		writeIOffset(frag, DYNAMIC_LINK_OFFSET);	// [... ret]
+		loadIFrom(frag, STACK_POINTER);
+		writeIOffset(frag, RETURN_ADDRESS_OFFSET);	// [...]
+		
+		loadIFrom(frag, STACK_POINTER);			// fp <- sp
+		storeITo(frag, FRAME_POINTER);
+		frag.add(PushI, -frameSize);				// sp <- sp - frameSize
+		addITo(frag, STACK_POINTER);
+	}
+	
+	/** [...] -> [...]
+	 *  The epilogue of a subroutine: pops its frame and returns to its caller.
+	 */
+	public static void leaveFrame(ASMCodeFragment frag) {
+		loadIFrom(frag, FRAME_POINTER);			// [... ret]
+		readIOffset(frag, RETURN_ADDRESS_OFFSET);
+		
+		loadIFrom(frag, FRAME_POINTER);			// sp <- fp
+		storeITo(frag, STACK_POINTER);
+		loadIFrom(frag, FRAME_POINTER);			// fp <- caller's fp
+		readIOffset(frag, DYNAMIC_LINK_OFFSET);
+		storeITo(frag, FRAME_POINTER);
+		
+		frag.add(Return);
+	}
 	
 	public static ASMCodeFragment getEnvironment() {
 		RunTime rt = new RunTime();
@@ -0,0 +1,145 @@
+package asmCodeGenerator.tests;
+
+import static asmCodeGenerator.codeStorage.ASMCodeFragment.CodeType.GENERATES_VOID;
+import static asmCodeGenerator.codeStorage.ASMOpcode.*;
+import static parser.tests.ParserFixtures.analyze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import asmCodeGenerator.ASMCodeGenerator;
+import asmCodeGenerator.codeStorage.ASMCodeFragment;
+import asmCodeGenerator.runtime.MemoryManager;
+import asmCodeGenerator.runtime.RunTime;
+import junit.framework.TestCase;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.IdentifierNode;
+import symbolTable.MemoryAccessMethod;
+import symbolTable.MemoryLocation;
+import symbolTable.Scope;
+import utilities.CompilationContext;
+
+public class TestFrameAllocation extends TestCase {
+	private static final String SIMULATOR = "ASM_Emulator/ASM_Simulator.jar";
+	private static final int SIMULATOR_SECONDS = 30;
+	private static final int OVERSIZED_FRAME = 1 << 30;
+	private static final String PROGRAM =
+			"func f(int a, float b) -> (int r) {\n" +
+			"  var x := a;\n" +
+			"  print x, b;\n" +
+			"}\n" +
+			"main {\n" +
+			"  imm z := 5;\n" +
+			"  print z;\n" +
+			"}\n";
+	
+	private static MemoryLocation locationOf(ParseNode identifier) {
+		return ((IdentifierNode) identifier).getBinding().getMemoryLocation();
+	}
+	
+	// parameters, then named results, then locals, each below the one before and all below the linkage.
+	public void testFunctionVariablesLiveInTheFrame() {
+		new CompilationContext().run(() -> {
+			ParseNode function = analyze(PROGRAM).child(0);
+			MemoryLocation a = locationOf(function.child(1).child(0).child(1));
+			MemoryLocation b = locationOf(function.child(1).child(1).child(1));
+			MemoryLocation r = locationOf(function.child(2).child(0).child(1));
+			MemoryLocation x = locationOf(function.child(3).child(0).child(0));
+			
+			assertEquals(MemoryAccessMethod.INDIRECT_ACCESS_BASE, a.getAccessor());
+			assertEquals(RunTime.FRAME_POINTER, a.getBaseAddress());
+			assertEquals(-RunTime.FRAME_LINKAGE_SIZE - 4, a.getOffset());
+			assertEquals(a.getOffset() - 8, b.getOffset());
+			assertEquals(b.getOffset() - 4, r.getOffset());
+			assertEquals(r.getOffset() - 4, x.getOffset());
+			assertEquals(RunTime.FRAME_POINTER, x.getBaseAddress());
+			assertEquals(20, function.getScope().getAllocatedSize());
+		});
+	}
+	
+	// the global block holds the main block's variables and the function's name, not its frame.
+	public void testFramesAreNotInTheGlobalBlock() {
+		new CompilationContext().run(() -> {
+			Scope programScope = analyze(PROGRAM).getScope();
+			
+			assertEquals(8, programScope.getAllocatedSize());
+		});
+	}
+	
+	public void testFunctionIsASubroutineAfterTheMainProgram() {
+		new CompilationContext().run(() -> {
+			String code = ASMCodeGenerator.generate(analyze(PROGRAM)).toString();
+			int main = code.indexOf(RunTime.MAIN_PROGRAM_LABEL + " ");
+			int function = code.indexOf(ASMCodeGenerator.functionLabel("f") + " ");
+			
+			assertTrue(code.contains("Memtop"));
+			assertTrue(main >= 0);
+			assertTrue(function > main);
+			assertTrue(code.indexOf("Halt", main) < function);
+			assertTrue(code.indexOf("Return", function) > function);
+		});
+	}
+	
+	// the stack grows down toward the heap, and a frame that would reach into it stops the program.
+	public void testOversizedFrameIsAStackOverflow() throws Exception {
+		assertEquals("returned", simulate(callingAFrameOf(RunTime.FRAME_LINKAGE_SIZE + 16)));
+		assertEquals("Runtime error: stack overflows into the heap", simulate(callingAFrameOf(OVERSIZED_FRAME)));
+	}
+	
+	// a main program that calls a subroutine with a frame of frameSize bytes.  The memory
+	// manager's subroutines use opcodes the simulator lacks, so of the code after the
+	// application only the label where the heap starts is included.
+	private static ASMCodeFragment callingAFrameOf(int frameSize) {
+		ASMCodeFragment code = new ASMCodeFragment(GENERATES_VOID);
+		code.append(MemoryManager.codeForInitialization());
+		code.append(RunTime.getEnvironment());
+		code.add(DLabel, RunTime.GLOBAL_MEMORY_BLOCK);
+		code.add(DataZ, 4);
+		
+		code.add(Label, RunTime.MAIN_PROGRAM_LABEL);
+		code.add(Call, "-frame");
+		code.add(PushD, "$returned");
+		code.add(Printf);
+		code.add(Halt);
+		code.add(DLabel, "$returned");
+		code.add(DataS, "returned");
+		
+		code.add(Label, "-frame");
+		RunTime.enterFrame(code, frameSize);
+		RunTime.leaveFrame(code);
+		code.add(DLabel, "$heap-memory");
+		return code;
+	}
+	
+	private static String simulate(ASMCodeFragment code) throws IOException, InterruptedException {
+		File program = File.createTempFile("frame", ".asm");
+		try {
+			try (PrintStream out = new PrintStream(program)) {
+				out.print(code);
+			}
+			File output = File.createTempFile("frame", ".out");
+			try {
+				String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+				Process simulator = new ProcessBuilder(java, "-cp", SIMULATOR, "asm.application.Main", "-CLI", program.getPath())
+						.redirectErrorStream(true)
+						.redirectOutput(output)
+						.start();
+				if (!simulator.waitFor(SIMULATOR_SECONDS, TimeUnit.SECONDS)) {
+					simulator.destroyForcibly();
+					fail("the simulator did not finish");
+				}
+				return new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8).trim();
+			}
+			finally {
+				output.delete();
+			}
+		}
+		finally {
+			program.delete();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenArray;
+import parseTree.AstArena;
+import parseTree.ParseNode;
+import parser.Parser;
+
+/** Compares the memory kept by a tree of ParseNodes with that kept by the same tree in an
+ *  AstArena, and times storing a tree in an arena and rebuilding it.  The TokenArray the
+ *  program was parsed from is kept in both cases and is not counted.  Costs are per node.
+ * <p>
+ *  usage: AstArenaBenchmark [grouse source file]
+ *  Without a file, a program of a little over a million nodes is used.
+ */
+public class AstArenaBenchmark {
+	private static final String SAMPLE_STATEMENTS =
+			"\timm a := ((x + y * 3) - z / 2) * (w + 1);\n" +
+			"\tprint a, b, 12.5, 'c', \"string\" nl;\n" +
+			"\tif (a < b) { let a := a + 1; } else { let b := b - 1; }\n";
+	private static final int SAMPLE_REPETITIONS = 30_000;
+	
+	public static void main(String[] args) {
+		MappedSourceBuffer source = args.length > 0 ?
+				MappedSourceBuffer.fromFilename(args[0]) :
+				MappedSourceBuffer.fromString("sample", "main {\n" + Benchmark.repeated(SAMPLE_STATEMENTS, SAMPLE_REPETITIONS) + "}\n");
+		TokenArray tokens = TokenArray.fromScanner(LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation()), source);
+		
+		long beforeTree = usedMemory();
+		ParseNode tree = Parser.parse(tokens);
+		long treeBytes = usedMemory() - beforeTree;
+		
+		AstArena arena = AstArena.fromTree(tree, tokens);
+		int nodes = arena.size();
+		System.out.println(nodes + " nodes");
+		Benchmark.measure("AstArena.fromTree", nodes, () -> {
+			return AstArena.fromTree(tree, tokens).size();
+		}, System.out);
+		Benchmark.measure("AstArena.toParseTree", nodes, () -> {
+			return arena.toParseTree().nChildren();
+		}, System.out);
+		
+		long beforeArena = usedMemory();
+		AstArena kept = AstArena.fromTree(Parser.parse(tokens), tokens);
+		long arenaBytes = usedMemory() - beforeArena;
+		
+		System.out.printf("%-44s %12.1f bytes/node%n", "tree of ParseNodes", treeBytes / (double)nodes);
+		System.out.printf("%-44s %12.1f bytes/node%n", "AstArena", arenaBytes / (double)kept.size());
+		System.out.println("(sink " + (Benchmark.sink() + tree.nChildren()) + ")");
+	}
+	
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
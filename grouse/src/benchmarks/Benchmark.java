@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.io.PrintStream;
+
+/** A small timing harness for the micro-benchmarks in this package.
+ * <p>
+ *  A benchmark is a Round: a piece of work that performs a known number of operations and
+ *  returns a value depending on all of them, so that the work cannot be optimized away.
+ *  measure() runs the round a few times untimed to let the JIT compile it, then times
+ *  several more runs and reports the best and mean cost of one operation.
+ */
+public class Benchmark {
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int TIMED_ROUNDS = 10;
+	private static long sink = 0;
+	
+	public interface Round {
+		long run();
+	}
+	
+	/** Time a round.
+	 * @param name label printed with the result.
+	 * @param operationsPerRound the number of operations one run of the round performs.
+	 * @param round the work.
+	 * @param out where the result is printed.
+	 * @return the best time per operation, in nanoseconds.
+	 */
+	public static double measure(String name, long operationsPerRound, Round round, PrintStream out) {
+		for(int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink += round.run();
+		}
+		
+		long best = Long.MAX_VALUE;
+		long total = 0;
+		for(int i = 0; i < TIMED_ROUNDS; i++) {
+			long startTime = System.nanoTime();
+			sink += round.run();
+			long elapsed = System.nanoTime() - startTime;
+			
+			best = Math.min(best, elapsed);
+			total += elapsed;
+		}
+		
+		double bestPerOperation = best / (double)operationsPerRound;
+		double meanPerOperation = total / (double)(operationsPerRound * TIMED_ROUNDS);
+		out.printf("%-44s %12.2f ns/op best %12.2f ns/op mean%n", name, bestPerOperation, meanPerOperation);
+		return bestPerOperation;
+	}
+	
+	/** A value depending on every round run so far; print it to keep the rounds honest. */
+	public static long sink() {
+		return sink;
+	}
+	
+	/** Make sample input: a string repeated. */
+	public static String repeated(String string, int times) {
+		StringBuilder builder = new StringBuilder(string.length() * times);
+		for(int i = 0; i < times; i++) {
+			builder.append(string);
+		}
+		return builder.toString();
+	}
+}
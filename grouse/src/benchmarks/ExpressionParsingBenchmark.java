@@ -0,0 +1,35 @@
+package benchmarks;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenArray;
+import parser.Parser;
+
+/** Measures the Parser on expression-heavy input.  The source is lexed once into a TokenArray,
+ *  so that only parsing is timed.  Costs are per token.
+ * <p>
+ *  usage: ExpressionParsingBenchmark [grouse source file]
+ *  Without a file, a program of long arithmetic, comparison and boolean expressions is used.
+ */
+public class ExpressionParsingBenchmark {
+	private static final String SAMPLE_STATEMENTS =
+			"\timm a := ((x + y * 3) - z / 2) * (w + 1) - 7 * (x - y) + z * z;\n" +
+			"\timm b := x + 1 < y * 2 && !flag || (z - w) * 3 >= x / 4;\n" +
+			"\timm c := 1 + 2 + 3 + 4 + 5 + 6 + 7 + 8 + 9 * 10 * 11 * 12 - x - y - z;\n" +
+			"\tprint (x + y) * (y + z) * (z + x), a - b / (c + 1), x == y nl;\n";
+	private static final int SAMPLE_REPETITIONS = 20_000;
+	
+	public static void main(String[] args) {
+		MappedSourceBuffer source = args.length > 0 ?
+				MappedSourceBuffer.fromFilename(args[0]) :
+				MappedSourceBuffer.fromString("sample", "main {\n" + Benchmark.repeated(SAMPLE_STATEMENTS, SAMPLE_REPETITIONS) + "}\n");
+		TokenArray tokens = TokenArray.fromScanner(LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation()), source);
+		
+		System.out.println(tokens.size() + " tokens");
+		Benchmark.measure("Parser on expressions", tokens.size(), () -> {
+			return Parser.parse(tokens).nChildren();
+		}, System.out);
+		System.out.println("(sink " + Benchmark.sink() + ")");
+	}
+}
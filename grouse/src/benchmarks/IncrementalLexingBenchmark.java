@@ -0,0 +1,39 @@
+package benchmarks;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.IncrementalLexer;
+
+/** Compares lexing a large source from scratch with relexing it after a one-line edit,
+ *  using the IncrementalLexer snapshot of the unedited source.  Costs are per source character.
+ * <p>
+ *  usage: IncrementalLexingBenchmark
+ *  A sample program is repeated to a little over 10MB, and a line in its middle is edited.
+ */
+public class IncrementalLexingBenchmark {
+	private static final String SAMPLE_SOURCE =
+			"\t// running totals\n" +
+			"\timm count~1 := 10 * (total + 3) - 4;\n" +
+			"\timm greeting := \"hello, world\";\n" +
+			"\timm ratio := 12.5 + 2.25;\n" +
+			"\tprint count~1, greeting, 'c', ratio nl;\n";
+	private static final int SAMPLE_LENGTH = 10 * 1024 * 1024 + 1;
+	
+	public static void main(String[] args) {
+		int repetitions = SAMPLE_LENGTH / SAMPLE_SOURCE.length() + 1;
+		String half = Benchmark.repeated(SAMPLE_SOURCE, repetitions / 2);
+		MappedSourceBuffer source = MappedSourceBuffer.fromString("sample", "main {\n" + half + half + "}\n");
+		MappedSourceBuffer edited = MappedSourceBuffer.fromString("sample", "main {\n" + half + "\timm edit := 1;\n" + half + "}\n");
+		IncrementalLexer snapshot = IncrementalLexer.lex(source);
+		
+		System.out.println(source.length() + " characters");
+		Benchmark.measure("IncrementalLexer.lex (from scratch)", source.length(), () -> {
+			return IncrementalLexer.lex(edited).getTokens().size();
+		}, System.out);
+		Benchmark.measure("IncrementalLexer.relex (one line edited)", source.length(), () -> {
+			return snapshot.relex(edited).getTokens().size();
+		}, System.out);
+		System.out.println("relexed " + snapshot.relex(edited).getLexedLength() + " characters");
+		System.out.println("(sink " + Benchmark.sink() + ")");
+	}
+}
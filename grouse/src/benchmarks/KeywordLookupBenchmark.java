@@ -0,0 +1,111 @@
+package benchmarks;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.LexemeMap;
+
+/** Compares ways of deciding whether an identifier-shaped lexeme is a keyword:
+ *  the serial search Keyword.forLexeme used to do, a HashMap (LexemeMap), and the
+ *  perfect hash, both on Strings and on ranges of the source buffer.  A String made by
+ *  the scanner has no cached hash code, so "substring, then LexemeMap" is the fair
+ *  comparison for the lookup on the source buffer.
+ * <p>
+ *  usage: KeywordLookupBenchmark [grouse source file]
+ *  The lexemes looked up are the identifier-shaped words of the file, or a built-in sample.
+ */
+public class KeywordLookupBenchmark {
+	private static final String SAMPLE_SOURCE =
+			"func int fibonacci(int n) { var result := n; if (n >= 2) { result := fibonacci(n-1) + fibonacci(n-2); } } \n" +
+			"tuple pair (int first, float second) \n" +
+			"main { imm count := 10; var total := 0; for index ever { total := total + index; print total; nl; } \n" +
+			"  while (total > 0) { total := total - 1; if (total == 5) { break; } else { continue; } } \n" +
+			"  imm greeting := \"hello\"; print greeting, 'c', true, false, counter, printer, mainline; diag static; }\n";
+	private static final int REPETITIONS = 2000;
+	
+	public static void main(String[] args) {
+		MappedSourceBuffer source = args.length > 0 ?
+				MappedSourceBuffer.fromFilename(args[0]) :
+				MappedSourceBuffer.fromString("sample", Benchmark.repeated(SAMPLE_SOURCE, REPETITIONS));
+		
+		int[] starts = new int[source.length()];
+		int[] ends = new int[source.length()];
+		int count = findWords(source, starts, ends);
+		String[] words = new String[count];
+		for(int i = 0; i < count; i++) {
+			words[i] = source.substring(starts[i], ends[i]);
+		}
+		
+		LexemeMap<Keyword> hashMap = new LexemeMap<Keyword>(Keyword.values(), Keyword.NULL_KEYWORD);
+		
+		System.out.println(count + " identifier-shaped lexemes");
+		Benchmark.measure("serial search on String", count, () -> {
+			long keywords = 0;
+			for(String word: words) {
+				keywords += serialSearch(word).ordinal();
+			}
+			return keywords;
+		}, System.out);
+		Benchmark.measure("LexemeMap (HashMap) on String", count, () -> {
+			long keywords = 0;
+			for(String word: words) {
+				keywords += hashMap.forLexeme(word).ordinal();
+			}
+			return keywords;
+		}, System.out);
+		Benchmark.measure("substring, then LexemeMap", count, () -> {
+			long keywords = 0;
+			for(int i = 0; i < count; i++) {
+				keywords += hashMap.forLexeme(source.substring(starts[i], ends[i])).ordinal();
+			}
+			return keywords;
+		}, System.out);
+		Benchmark.measure("perfect hash on String", count, () -> {
+			long keywords = 0;
+			for(String word: words) {
+				keywords += Keyword.forLexeme(word).ordinal();
+			}
+			return keywords;
+		}, System.out);
+		Benchmark.measure("perfect hash on source buffer range", count, () -> {
+			long keywords = 0;
+			for(int i = 0; i < count; i++) {
+				keywords += Keyword.forLexeme(source, starts[i], ends[i]).ordinal();
+			}
+			return keywords;
+		}, System.out);
+		System.out.println("(sink " + Benchmark.sink() + ")");
+	}
+	
+	// the implementation of Keyword.forLexeme before the perfect hash
+	private static Keyword serialSearch(String lexeme) {
+		for (Keyword keyword: Keyword.values()) {
+			if (keyword.getLexeme().equals(lexeme)) return keyword;
+		}
+		return Keyword.NULL_KEYWORD;
+	}
+	
+	private static int findWords(CharSequence source, int[] starts, int[] ends) {
+		int count = 0;
+		int i = 0;
+		while(i < source.length()) {
+			char c = source.charAt(i);
+			if(Character.isLetter(c) || c == '_') {
+				int start = i;
+				while(i < source.length() && isIdentifierCharacter(source.charAt(i))) {
+					i++;
+				}
+				starts[count] = start;
+				ends[count] = i;
+				count++;
+			}
+			else {
+				i++;
+			}
+		}
+		return count;
+	}
+	private static boolean isIdentifierCharacter(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '~';
+	}
+}
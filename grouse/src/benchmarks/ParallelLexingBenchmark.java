@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.ParallelLexer;
+import lexicalAnalyzer.TokenArray;
+
+/** Compares lexing a large source into a TokenArray with the sequential LexicalAnalyzer
+ *  and with the ParallelLexer.  Costs are per source character.
+ * <p>
+ *  usage: ParallelLexingBenchmark [workers [grouse source file]]
+ *  Without a worker count, the ParallelLexer runs on the common fork-join pool.  Without a
+ *  file, a sample program is repeated to a little over 10MB.
+ */
+public class ParallelLexingBenchmark {
+	private static final String SAMPLE_SOURCE =
+			"\t// running totals, with a comment \"containing a quote\n" +
+			"\timm count~1 := 10 * (total + 3) - 4;\n" +
+			"\timm greeting := \"hello, world\";\n" +
+			"\timm ratio := 12.5 + 2.25;\n" +
+			"\timm larger := count~1 > 50 && ratio <= 3.0 || false;\n" +
+			"\tprint count~1, greeting, 'c', ratio, larger nl;\n";
+	private static final int SAMPLE_LENGTH = 10 * 1024 * 1024 + 1;
+	
+	public static void main(String[] args) {
+		ForkJoinPool pool = args.length > 0 ?
+				new ForkJoinPool(Integer.parseInt(args[0])) :
+				ForkJoinPool.commonPool();
+		MappedSourceBuffer source = args.length > 1 ?
+				MappedSourceBuffer.fromFilename(args[1]) :
+				MappedSourceBuffer.fromString("sample", "main {\n" + Benchmark.repeated(SAMPLE_SOURCE, SAMPLE_LENGTH / SAMPLE_SOURCE.length() + 1) + "}\n");
+		
+		System.out.println(source.length() + " characters, " + pool.getParallelism() + " workers");
+		Benchmark.measure("sequential LexicalAnalyzer", source.length(), () -> {
+			LexicalAnalyzer scanner = LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation());
+			return TokenArray.fromScanner(scanner, source).size();
+		}, System.out);
+		Benchmark.measure("ParallelLexer", source.length(), () -> {
+			return ParallelLexer.lex(source, pool).size();
+		}, System.out);
+		Benchmark.measure("split points only", source.length(), () -> {
+			return ParallelLexer.splitPoints(source, pool.getParallelism() * 4).length;
+		}, System.out);
+		System.out.println("(sink " + Benchmark.sink() + ")");
+	}
+}
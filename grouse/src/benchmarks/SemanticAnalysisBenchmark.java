@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+
+import inputHandler.MappedSourceBuffer;
+
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenArray;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+
+/** Compares checking the function bodies of a program with many functions one after
+ *  another (a pool of one worker) and on the common fork-join pool.  Each round parses
+ *  the program again, since analysis decorates the tree.  Costs are per function.
+ * <p>
+ *  usage: SemanticAnalysisBenchmark [number of functions]
+ */
+public class SemanticAnalysisBenchmark {
+	private static final int DEFAULT_FUNCTIONS = 500;
+	private static final String SAMPLE_BODY =
+			"\timm c%1$d := a * scale + %1$d;\n" +
+			"\timm d%1$d := b * 2.5 - 1.0;\n" +
+			"\timm e%1$d := c%1$d > 10 && d%1$d < 3.5 || !(c%1$d == 4);\n" +
+			"\tprint c%1$d, d%1$d, e%1$d nl;\n";
+	private static final int BODY_REPETITIONS = 20;
+	
+	public static void main(String[] args) {
+		int functions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FUNCTIONS;
+		StringBuilder program = new StringBuilder("imm scale := 3;\n");
+		for(int i = 0; i < functions; i++) {
+			program.append("func f" + i + " (int a, float b) -> (int r) {\n");
+			for(int j = 0; j < BODY_REPETITIONS; j++) {
+				program.append(String.format(SAMPLE_BODY, j));
+			}
+			program.append("}\n");
+		}
+		program.append("main {\n\tprint scale nl;\n}\n");
+		
+		MappedSourceBuffer source = MappedSourceBuffer.fromString("sample", program.toString());
+		TokenArray tokens = TokenArray.fromScanner(LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation()), source);
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool common = ForkJoinPool.commonPool();
+		
+		// the analyzer's debugging output would swamp the timings.
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		out.println(functions + " functions, " + common.getParallelism() + " workers");
+		Benchmark.measure("function bodies in turn", functions, () -> {
+			return new SemanticAnalyzer(Parser.parse(tokens)).withPool(single).analyze().nChildren();
+		}, out);
+		Benchmark.measure("function bodies on the common pool", functions, () -> {
+			return new SemanticAnalyzer(Parser.parse(tokens)).withPool(common).analyze().nChildren();
+		}, out);
+		Benchmark.measure("parsing only", functions, () -> {
+			return Parser.parse(tokens).nChildren();
+		}, out);
+		System.setOut(out);
+		out.println("(sink " + Benchmark.sink() + ")");
+		single.shutdown();
+	}
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import inputHandler.TextLocation;
+import semanticAnalyzer.types.PrimitiveType;
+import symbolTable.Binding;
+import symbolTable.MemoryLocation;
+import symbolTable.SymbolTable;
+import tokens.NameTable;
+import utilities.CompilationContext;
+
+/** Compares SymbolTable with the HashMap from lexemes to bindings it replaced, on the work
+ *  a scope does: it is created, binds its names, and has each name looked up a few times
+ *  (and a few names it does not bind, as when a reference is resolved in an outer scope).
+ *  Costs are per scope, for scopes of several sizes; most blocks bind only a few names.
+ *  The tables are kept, as a Scope keeps its table, so that none is optimized away.
+ * <p>
+ *  usage: SymbolTableBenchmark [number of scopes per round]
+ */
+public class SymbolTableBenchmark {
+	private static final int DEFAULT_SCOPES = 200000;
+	private static final int[] SCOPE_SIZES = { 0, 1, 2, 3, 4, 8, 32 };
+	private static final int LOOKUPS_PER_NAME = 4;
+	private static final int MISSES = 4;
+	
+	public static void main(String[] args) {
+		int scopes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SCOPES;
+		
+		new CompilationContext().run(() -> {
+			int largest = SCOPE_SIZES[SCOPE_SIZES.length - 1];
+			String[] names = new String[largest + MISSES];
+			int[] nameIds = new int[names.length];
+			Binding[] bindings = new Binding[names.length];
+			for(int i = 0; i < names.length; i++) {
+				names[i] = "name" + i;
+				nameIds[i] = NameTable.getInstance().intern(names[i]);
+				bindings[i] = new Binding(PrimitiveType.INTEGER, TextLocation.nullInstance(),
+						MemoryLocation.nullInstance(), names[i], "imm");
+			}
+			
+			Object[] kept = new Object[scopes];
+			
+			System.out.println(scopes + " scopes per round");
+			for(int size: SCOPE_SIZES) {
+				Benchmark.measure("HashMap<String, Binding>, " + size + " names", scopes, () -> {
+					long found = 0;
+					for(int scope = 0; scope < scopes; scope++) {
+						Map<String, Binding> table = new HashMap<String, Binding>();
+						kept[scope] = table;
+						for(int i = 0; i < size; i++) {
+							table.put(names[i], bindings[i]);
+						}
+						for(int lookup = 0; lookup < LOOKUPS_PER_NAME; lookup++) {
+							for(int i = 0; i < size; i++) {
+								found += table.get(names[i]).hashCode() & 1;
+							}
+						}
+						for(int i = largest; i < largest + MISSES; i++) {
+							found += table.containsKey(names[i]) ? 1 : 0;
+						}
+					}
+					return found;
+				}, System.out);
+				Benchmark.measure("SymbolTable on name ids, " + size + " names", scopes, () -> {
+					long found = 0;
+					for(int scope = 0; scope < scopes; scope++) {
+						SymbolTable table = new SymbolTable();
+						kept[scope] = table;
+						for(int i = 0; i < size; i++) {
+							table.install(nameIds[i], bindings[i]);
+						}
+						for(int lookup = 0; lookup < LOOKUPS_PER_NAME; lookup++) {
+							for(int i = 0; i < size; i++) {
+								found += table.lookup(nameIds[i]).hashCode() & 1;
+							}
+						}
+						for(int i = largest; i < largest + MISSES; i++) {
+							found += table.containsKey(nameIds[i]) ? 1 : 0;
+						}
+					}
+					return found;
+				}, System.out);
+			}
+			System.out.println("(sink " + Benchmark.sink() + ")");
+		});
+	}
+}
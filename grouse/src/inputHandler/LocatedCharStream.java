@@ -5,69 +5,82 @@ import java.util.Iterator;
 import utilities.Debug;
 
 // Locate each character and it's location
+// The primitive cursor (peekChar, nextChar, offset) returns chars as ints and positions as
+// offsets into the source; a TextLocation is only built when locationOf is asked for one.
 public class LocatedCharStream implements Iterator<LocatedChar> {
 	private static Debug debug = new Debug();
-	private static ParsingState parsingState;
 	
 	public static final char NULL_CHAR = '\0';
+	public static final int END_OF_INPUT = -1;
 	public static final LocatedChar FLAG_END_OF_INPUT = new LocatedChar(NULL_CHAR, new TextLocation("null", -1, -1));
 	
-	private Iterator<String> inputIterator;
-	private String line;
-	private int index;
-	private LocatedChar next;
-	private InputHandler input;
-	private enum ParsingState {
+	// the characters below 64 for which Character.isWhitespace is true: \t \n \u000B \f \r, \u001C-\u001F and ' '.
+	// There are none from 64 to 127.
+	private static final long LOW_WHITESPACE = 0x1f0003e00L;
+	private static final int ASCII_LIMIT = 128;
+	
+	private MappedSourceBuffer source;
+	private int end;			// offset at which the stream reaches END_OF_INPUT
+	private int index;			// offset of the next character to read from source
+	private int lineNumber;		// line number of the character at index
+	private int next;			// preloaded character, or END_OF_INPUT
+	private int nextOffset;		// offset of the preloaded character
+	public enum ParsingState {
 		DEFAULT,
 		STRING,
 		COMMENT;
 	}
+	private ParsingState parsingState;
+	private int lineNumberOfRestOfLineToDelete = -1;
 	
 	// Constructor (instantiate a LocatedCharStream)
 	// Only gets instantiated once
 	public LocatedCharStream(InputHandler input) {
+		this(MappedSourceBuffer.fromFilename(input.fileName()));
+	}
+	public LocatedCharStream(MappedSourceBuffer source) {
+		this(source, 0, source.length());
+	}
+	// A stream over the characters in [start, end) of source, which must begin a line.
+	// It starts outside of any string or comment.
+	public LocatedCharStream(MappedSourceBuffer source, int start, int end) {
 		super();
-		this.input = input;
-		this.inputIterator = input.iterator();
-		this.index = 0;
-		this.line = "";
+		this.source = source;
+		this.end = end;
+		this.index = start;
+		this.lineNumber = (start < source.length()) ? source.lineNumberAt(start) : source.lineCount() + 1;
 		parsingState = ParsingState.DEFAULT;
 		preloadChar();
 	}
 	
 	private void preloadChar() {
-		ensureLineHasACharacter();
-		
+		nextOffset = index;
 		next = nextCharInLine();
 	}
 	
-	private static int lineNumberOfRestOfLineToDelete = -1;
-	
 	// Returns each and every character in the file one at a time
-	private LocatedChar nextCharInLine() {
-		if (endOfInput()) return FLAG_END_OF_INPUT;
-		
-		TextLocation location = new TextLocation(input.fileName(), input.lineNumber(), index);
+	private int nextCharInLine() {
+		if (endOfInput()) return END_OF_INPUT;
 		
-		char character = line.charAt(index); // Get next character in input stream
+		char character = source.charAt(index); // Get next character in input stream
 		char charToReturn = ' ';
 		
 		switch (parsingState) {
 			case DEFAULT:
-				// COMMENT 
+				// COMMENT
 				if (character == '/') {
-					if (line.charAt(index + 1) == '/') { // Check if the next character in the input is also a '/'
+					if (source.charAt(index + 1) == '/') { // Check if the next character in the input is also a '/'
 						parsingState = ParsingState.COMMENT;
 						
-						lineNumberOfRestOfLineToDelete = input.lineNumber();
+						lineNumberOfRestOfLineToDelete = lineNumber;
 						
 						charToReturn = ' ';
 					} else { // punctuator found
 						charToReturn = character;
 					}
-				// STRING 
+				// STRING
 				} else if (character == '"') {
-					if (line.charAt(index + 1) == '"') { // Check if the next character in the input is also a '"'
+					if (source.charAt(index + 1) == '"') { // Check if the next character in the input is also a '"'
 						throw new IllegalArgumentException("located char stream: invalid empty string");
 					};
 					parsingState = ParsingState.STRING;
@@ -79,8 +92,8 @@ public class LocatedCharStream implements Iterator<LocatedChar> {
 				}
 				
 				break;
-			case COMMENT: 
-				if (lineNumberOfRestOfLineToDelete == input.lineNumber()) { // Delete the rest of the line
+			case COMMENT:
+				if (lineNumberOfRestOfLineToDelete == lineNumber) { // Delete the rest of the line
 					charToReturn = ' ';
 				} else { // It's the first character on the next line
 					parsingState = ParsingState.DEFAULT;
@@ -88,7 +101,7 @@ public class LocatedCharStream implements Iterator<LocatedChar> {
 					charToReturn = character;
 				}
 				
-				break;	
+				break;
 			case STRING:
 				if (character == '"') { // TODO: fix
 					parsingState = ParsingState.DEFAULT;
@@ -104,30 +117,163 @@ public class LocatedCharStream implements Iterator<LocatedChar> {
 			default:
 				throw new IllegalArgumentException("located char stream: invalid parsing state");
 		}
-
-		// Increase the index
+		
+		// Increase the index, moving to the next line after a terminator
 		index++;
-				
-		return new LocatedChar(charToReturn, location);
+		if (character == '\n') {
+			lineNumber++;
+		}
+		
+		return charToReturn;
 	}
 	
-	private void ensureLineHasACharacter() {
-		while(!moreCharsInLine() && inputIterator.hasNext()) {
-			readNextLine();
+	private boolean endOfInput() {
+		return index >= end;
+	}
+	
+	/** Get the parsing state at the start of the line after lineNumber, for a stream that is
+	 *  in the given state at the start of lineNumber.  This runs the state changes of
+	 *  nextCharInLine over one line, without producing characters.
+	 */
+	public static ParsingState stateAfterLine(MappedSourceBuffer source, int lineNumber, ParsingState state) {
+		int index = source.lineStart(lineNumber);
+		int lineEnd = (lineNumber < source.lineCount()) ? source.lineStart(lineNumber + 1) : source.length();
+		
+		if (state == ParsingState.COMMENT) {	// the first character of the line ends the comment, and is not examined
+			state = ParsingState.DEFAULT;
+			index++;
+		}
+		for (; index < lineEnd; index++) {
+			char character = source.charAt(index);
+			
+			if (state == ParsingState.STRING) {
+				if (character == '"') {
+					state = ParsingState.DEFAULT;
+				}
+			} else if (character == '/' && index + 1 < lineEnd && source.charAt(index + 1) == '/') {
+				return ParsingState.COMMENT;
+			} else if (character == '"') {
+				state = ParsingState.STRING;
+			}
 		}
+		return state;
 	}
-	private boolean endOfInput() {
-		return !moreCharsInLine() && !inputIterator.hasNext();
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// primitive cursor
+	// nextChar() and peekChar() return END_OF_INPUT once the source is exhausted.
+	// offset() is the offset of the character that nextChar() will return next.
+	
+	public int peekChar() {
+		return next;
+	}
+	public int nextChar() {
+		int result = next;
+		
+		preloadChar();
+		
+		return result;
+	}
+	public int offset() {
+		return nextOffset;
 	}
 	
-	private boolean moreCharsInLine() {
-		return index < line.length();
+	/** Consume characters while peekChar() is whitespace.  This is nextChar() in a loop, but
+	 *  a run of whitespace is skipped over in the source directly, and so is the rest of a
+	 *  line that a comment has blanked out, using the line starts of the source.
+	 */
+	public void skipWhitespace() {
+		while (isWhitespace(next)) {
+			if (parsingState == ParsingState.DEFAULT) {
+				skipWhitespaceRun();
+			} else if (parsingState == ParsingState.COMMENT && lineNumberOfRestOfLineToDelete == lineNumber) {
+				skipRestOfLine();
+			}
+			preloadChar();
+		}
+	}
+	// whitespace is returned as is in DEFAULT, and does not change the state.
+	private void skipWhitespaceRun() {
+		int i = index;
+		
+		while (i < end) {
+			char character = source.charAt(i);
+			if (!isWhitespace(character)) {
+				break;
+			}
+			if (character == '\n') {
+				lineNumber++;
+			}
+			i++;
+		}
+		index = i;
+	}
+	// every character up to and including the line's terminator is returned as a space.
+	private void skipRestOfLine() {
+		int lineEnd = (lineNumber < source.lineCount()) ? source.lineStart(lineNumber + 1) : source.length();
+		
+		if (lineEnd <= end) {
+			index = lineEnd;
+			lineNumber++;
+		} else {
+			index = end;
+		}
+	}
+	
+	public static boolean isWhitespace(int c) {
+		if (c < 64) {
+			return c >= 0 && ((LOW_WHITESPACE >>> c) & 1) != 0;
+		}
+		if (c < ASCII_LIMIT) {
+			return false;
+		}
+		return Character.isWhitespace((char)c);
+	}
+	
+	/** Get the location of the character at the given offset, or the location of
+	 *  FLAG_END_OF_INPUT for the offset of END_OF_INPUT.
+	 */
+	public TextLocation locationOf(int offset) {
+		if (offset >= source.length()) {
+			return FLAG_END_OF_INPUT.getLocation();
+		}
+		return source.locationOf(offset);
 	}
 	
-	private void readNextLine() {
-		assert(inputIterator.hasNext());
-		line = inputIterator.next();
-		index = 0;
+	/** Get the source text in [start, end).  Token lexemes are always plain source text. */
+	public String substring(int start, int end) {
+		return source.substring(start, end);
+	}
+	
+	/** Get the source text itself, for examining lexemes in place. */
+	public CharSequence source() {
+		return source;
+	}
+	
+	/** Get a LocatedChar for a character from the primitive cursor and its offset. */
+	public LocatedChar locatedChar(int character, int offset) {
+		if (character == END_OF_INPUT) {
+			return FLAG_END_OF_INPUT;
+		}
+		return new LocatedChar((char)character, locationOf(offset));
+	}
+	
+	/** Get the offset of a LocatedChar handed out by this stream. */
+	protected int offsetOf(LocatedChar locatedChar) {
+		if (locatedChar == FLAG_END_OF_INPUT) {
+			return source.length();
+		}
+		TextLocation location = locatedChar.getLocation();
+		
+		return source.lineStart(location.getLineNumber()) + location.getPosition();
+	}
+	
+	/** Get the primitive character of a LocatedChar handed out by this stream. */
+	protected static int charOf(LocatedChar locatedChar) {
+		if (locatedChar == FLAG_END_OF_INPUT) {
+			return END_OF_INPUT;
+		}
+		return locatedChar.getCharacter();
 	}
 	
 	//////////////////////////////////////////////////////////////////////////////
@@ -136,17 +282,18 @@ public class LocatedCharStream implements Iterator<LocatedChar> {
 	//         if hasNext() is false.  FLAG_END_OF_INPUT is a lightweight Null Object.
 	@Override
 	public boolean hasNext() {
-		return next != FLAG_END_OF_INPUT;
+		return next != END_OF_INPUT;
 	}
 	@Override
 	public LocatedChar next() {
-		LocatedChar result = next;
+		int offset = nextOffset;
+		int result = next;
 		
 		preloadChar();
 		
-		return result;
+		return locatedChar(result, offset);
 	}
-
+	
 	/**
 	 * remove is an unsupported operation.  It throws an UnsupportedOperationException.
 	 */
@@ -0,0 +1,207 @@
+package inputHandler;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.nio.file.StandardOpenOption;
+
+/** A whole-file source buffer that knows the filename and can report line and column.
+ *  Use one of the factories <code>fromFilename(...)</code> or <code>fromString(...)</code> to construct.
+ *  <p>
+ *  The file is memory-mapped through NIO and decoded once, as UTF-8, into a single
+ *  <code>char[]</code>; the buffer keeps the decoder's array rather than copying it.
+ *  Line terminators ("\r\n", "\r" or "\n") are all replaced by "\n" in place, and a "\n" is supplied
+ *  for a last line that lacks one.  The characters held are therefore exactly those that an
+ *  InputHandler with the default terminator would deliver, without a String per line.
+ *  <p>
+ *  Characters are addressed by a zero-based offset.  Line numbers are one-based and
+ *  columns are zero-based, as in TextLocation.  As a CharSequence, the buffer lets a range
+ *  of source text be examined in place.
+ */
+public class MappedSourceBuffer implements CharSequence {
+	private static final char TERMINATOR = '\n';
+	private static final int STARTING_LINE_CAPACITY = 256;
+	
+	private final String filename;
+	private char[] text;
+	private int length;
+	private int[] lineStarts;
+	private int lineCount;
+	
+	// takes ownership of contents, whose first end characters are the source.
+	private MappedSourceBuffer(String filename, char[] contents, int end) {
+		this.filename = filename;
+		this.text = contents;
+		this.length = 0;
+		this.lineStarts = new int[STARTING_LINE_CAPACITY];
+		this.lineCount = 0;
+		
+		normalize(end);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	/** Get the file name.
+	 * @return the filename that was passed to the factory.
+	 */
+	public String fileName() {
+		return filename;
+	}
+	
+	/** Get the number of characters in the buffer, including line terminators. */
+	@Override
+	public int length() {
+		return length;
+	}
+	
+	/** Get the character at the given offset.  The offset must be less than <code>length()</code>. */
+	@Override
+	public char charAt(int offset) {
+		return text[offset];
+	}
+	
+	/** Get the characters in the range [start, end) as a String. */
+	public String substring(int start, int end) {
+		return new String(text, start, end - start);
+	}
+	
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return CharBuffer.wrap(text, start, end - start).slice();
+	}
+	
+	@Override
+	public String toString() {
+		return substring(0, length);
+	}
+	
+	/** Get the number of lines in the buffer. */
+	public int lineCount() {
+		return lineCount;
+	}
+	
+	/** Get the offset of the first character of a line.
+	 * @param lineNumber one-based line number, at most <code>lineCount()</code>.
+	 * @return the offset of the line's first character.
+	 */
+	public int lineStart(int lineNumber) {
+		return lineStarts[lineNumber - 1];
+	}
+	
+	/** Get the one-based number of the line containing the given offset. */
+	public int lineNumberAt(int offset) {
+		int low = 0;
+		int high = lineCount - 1;
+		
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (lineStarts[middle] <= offset) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		
+		return low + 1;
+	}
+	
+	/** Get the zero-based column of the given offset within its line. */
+	public int columnAt(int offset) {
+		return offset - lineStart(lineNumberAt(offset));
+	}
+	
+	/** Get a TextLocation for the character at the given offset. */
+	public TextLocation locationOf(int offset) {
+		int lineNumber = lineNumberAt(offset);
+		
+		return new TextLocation(filename, lineNumber, offset - lineStart(lineNumber));
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// loading: normalize line terminators in place, recording line starts
+	
+	// normalizing never lengthens the text, so each character is written at or before where it was read.
+	private void normalize(int end) {
+		boolean atLineStart = true;
+		
+		for (int read = 0; read < end; read++) {
+			char c = text[read];
+			
+			if (atLineStart) {
+				addLineStart(length);
+				atLineStart = false;
+			}
+			
+			if (c == '\r') {
+				if (read + 1 < end && text[read + 1] == '\n') {
+					read++;
+				}
+				c = TERMINATOR;
+			}
+			
+			text[length++] = c;
+			atLineStart = (c == TERMINATOR);
+		}
+		
+		if (length > 0 && text[length - 1] != TERMINATOR) {
+			if (length == text.length) {
+				text = Arrays.copyOf(text, length + 1);
+			}
+			text[length++] = TERMINATOR;
+		}
+	}
+	
+	private void addLineStart(int offset) {
+		if (lineCount == lineStarts.length) {
+			int[] larger = new int[lineStarts.length * 2];
+			System.arraycopy(lineStarts, 0, larger, 0, lineCount);
+			lineStarts = larger;
+		}
+		lineStarts[lineCount++] = offset;
+	}
+	
+	private static CharBuffer mapAndDecode(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long size = channel.size();
+			
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("file too large to map: " + filename);
+			}
+			
+			MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return StandardCharsets.UTF_8.decode(bytes);
+		}
+	}
+	
+	// a decoded buffer is heap-backed from offset 0, so its array is used as it is.
+	private static MappedSourceBuffer fromDecoded(String filename, CharBuffer decoded) {
+		if (decoded.hasArray() && decoded.arrayOffset() == 0 && decoded.position() == 0) {
+			return new MappedSourceBuffer(filename, decoded.array(), decoded.limit());
+		}
+		char[] contents = new char[decoded.remaining()];
+		decoded.get(contents);
+		return new MappedSourceBuffer(filename, contents, contents.length);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// factories
+	
+	public static MappedSourceBuffer fromFilename(String filename) {
+		try {
+			return fromDecoded(filename, mapAndDecode(filename));
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+	public static MappedSourceBuffer fromString(String filename, String contents) {
+		char[] chars = new char[contents.length() + 1];
+		contents.getChars(0, contents.length(), chars, 0);
+		return new MappedSourceBuffer(filename, chars, contents.length());
+	}
+}
@@ -1,53 +1,136 @@
 package inputHandler;
 
-import java.util.Stack;
-
 import utilities.Debug;
 
-// I'm guessing it's for things that aren't numbers, keywords, or punctuators? 
-// Always seems to be the ";" at the end of a statement
+// Lookahead over a LocatedCharStream, kept in a small ring of primitive chars and their offsets.
+// peekChar(k) looks k characters past the next one without consuming anything, and pushback puts
+// a character back in front of the next one.  At most LOOKAHEAD_CAPACITY characters are ever
+// buffered; the lexer needs three (a two-character punctuator and the character after it).
 public class PushbackCharStream extends LocatedCharStream {
-	private Stack<LocatedChar> pushedBack;
+	public static final int LOOKAHEAD_CAPACITY = 8;
+	private static final int RING_MASK = LOOKAHEAD_CAPACITY - 1;
+	
+	private int[] chars;
+	private int[] offsets;
+	private int head;		// ring index of the next character
+	private int count;		// number of characters buffered from head on
 	private static Debug debug = new Debug();
 	
 	// Constructor
 	// Gets called only once
 	public PushbackCharStream(InputHandler handler) {
 		super(handler);
-		
-		// Create an empty PushedBack stack
-		this.pushedBack = new Stack<LocatedChar>();
+		initializeRing();
 	}
-
+	public PushbackCharStream(MappedSourceBuffer source) {
+		super(source);
+		initializeRing();
+	}
+	public PushbackCharStream(MappedSourceBuffer source, int start, int end) {
+		super(source, start, end);
+		initializeRing();
+	}
+	
+	private void initializeRing() {
+		this.chars = new int[LOOKAHEAD_CAPACITY];
+		this.offsets = new int[LOOKAHEAD_CAPACITY];
+		this.head = 0;
+		this.count = 0;
+	}
+	
 	@Override
 	public boolean hasNext() {
-		return !pushedBack.empty() || super.hasNext();
+		return peekChar() != END_OF_INPUT;
 	}
-
+	
 	@Override
 	public LocatedChar next() {
-		if (pushedBack.empty()) {
-			return super.next();
-		}
-		else {
-			//debug.out("POP: " + pushedBack.peek());
-			
-			return pushedBack.pop(); // Pop non-Punctuators
-		}
+		int offset = offset();
+		
+		return locatedChar(nextChar(), offset);
 	}
 	
 	public LocatedChar peek() {
-		LocatedChar result = next(); // Pop off the result
-
-		pushback(result); // Push back the result
+		return peek(0);
+	}
+	
+	// peek(0) is the character next() will return
+	public LocatedChar peek(int k) {
+		fill(k + 1);
 		
-		return result; // Return the result
+		int slot = (head + k) & RING_MASK;
+		return locatedChar(chars[slot], offsets[slot]);
 	}
-
+	
 	public void pushback(LocatedChar locatedChar) {
-		pushedBack.push(locatedChar);
+		if (count == LOOKAHEAD_CAPACITY) {
+			throw new IllegalStateException("pushback beyond lookahead capacity " + LOOKAHEAD_CAPACITY);
+		}
+		head = (head - 1) & RING_MASK;
+		chars[head] = charOf(locatedChar);
+		offsets[head] = offsetOf(locatedChar);
+		count++;
 	}
-
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// primitive cursor, reading buffered characters first
+	
+	@Override
+	public int peekChar() {
+		if (count == 0) {
+			return super.peekChar();
+		}
+		return chars[head];
+	}
+	// peekChar(0) is the character nextChar() will return
+	public int peekChar(int k) {
+		fill(k + 1);
+		
+		return chars[(head + k) & RING_MASK];
+	}
+	@Override
+	public int nextChar() {
+		if (count == 0) {
+			return super.nextChar();
+		}
+		int result = chars[head];
+		
+		head = (head + 1) & RING_MASK;
+		count--;
+		
+		return result;
+	}
+	@Override
+	public int offset() {
+		if (count == 0) {
+			return super.offset();
+		}
+		return offsets[head];
+	}
+	
+	@Override
+	public void skipWhitespace() {
+		while (count > 0 && isWhitespace(chars[head])) {
+			nextChar();
+		}
+		if (count == 0) {
+			super.skipWhitespace();
+		}
+	}
+	
+	private void fill(int needed) {
+		if (needed > LOOKAHEAD_CAPACITY) {
+			throw new IllegalArgumentException("lookahead beyond capacity " + LOOKAHEAD_CAPACITY);
+		}
+		while (count < needed) {
+			int slot = (head + count) & RING_MASK;
+			
+			offsets[slot] = super.offset();
+			chars[slot] = super.nextChar();
+			count++;
+		}
+	}
+	
 	/**
 	 * remove is an unsupported operation.  It throws an UnsupportedOperationException.
 	 */
@@ -59,4 +142,10 @@ public class PushbackCharStream extends LocatedCharStream {
 	public static PushbackCharStream make(InputHandler handler) {
 		return new PushbackCharStream(handler);
 	}
+	public static PushbackCharStream make(MappedSourceBuffer source) {
+		return new PushbackCharStream(source);
+	}
+	public static PushbackCharStream make(MappedSourceBuffer source, int start, int end) {
+		return new PushbackCharStream(source, start, end);
+	}
 }
@@ -0,0 +1,108 @@
+package inputHandler.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import inputHandler.MappedSourceBuffer;
+import inputHandler.TextLocation;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Punctuator;
+
+import junit.framework.TestCase;
+
+import static inputHandler.tests.FixtureDefinitions.*;
+
+
+public class TestMappedSourceBuffer extends TestCase {
+	
+	public void testHappyPath() {
+		MappedSourceBuffer buffer = MappedSourceBuffer.fromFilename(SIMPLE_FIXTURE_FILENAME);
+		
+		assertEquals(SIMPLE_FIXTURE_FILENAME, buffer.fileName());
+		assertEquals(simpleFixtureStrings.length, buffer.lineCount());
+		
+		int offset = 0;
+		int lineNumber = 1;
+		for(String lineExpected : simpleFixtureStrings) {
+			assertEquals(offset, buffer.lineStart(lineNumber));
+			assertEquals(lineExpected + "\n", buffer.substring(offset, offset + lineExpected.length() + 1));
+			offset += lineExpected.length() + 1;
+			lineNumber++;
+		}
+		assertEquals(offset, buffer.length());
+	}
+	
+	public void testLineTerminatorsNormalized() {
+		MappedSourceBuffer buffer = MappedSourceBuffer.fromString("test", "ab\r\ncd\re\n\nf");
+		
+		assertEquals("ab\ncd\ne\n\nf\n", buffer.substring(0, buffer.length()));
+		assertEquals(5, buffer.lineCount());
+	}
+	
+	// the file is read as UTF-8 whatever the platform's default, and normalized in place.
+	public void testFileIsDecodedAsUtf8() throws IOException {
+		File file = File.createTempFile("mapped", ".grouse");
+		try {
+			Files.write(file.toPath(), "x := \"\u00e9\u4e2d\";\r\nprint x".getBytes(StandardCharsets.UTF_8));
+			MappedSourceBuffer buffer = MappedSourceBuffer.fromFilename(file.getPath());
+			
+			assertEquals("x := \"\u00e9\u4e2d\";\nprint x\n", buffer.toString());
+			assertEquals(2, buffer.lineCount());
+			assertEquals(11, buffer.lineStart(2));
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	public void testLocations() {
+		MappedSourceBuffer buffer = MappedSourceBuffer.fromString("test", "abc\n\nde\n");
+		
+		assertLocation(buffer, 0, 1, 0);
+		assertLocation(buffer, 3, 1, 3);
+		assertLocation(buffer, 4, 2, 0);
+		assertLocation(buffer, 5, 3, 0);
+		assertLocation(buffer, 7, 3, 2);
+	}
+	
+	private void assertLocation(MappedSourceBuffer buffer, int offset, int lineNumber, int column) {
+		TextLocation location = buffer.locationOf(offset);
+		
+		assertEquals(lineNumber, buffer.lineNumberAt(offset));
+		assertEquals(column, buffer.columnAt(offset));
+		assertEquals(lineNumber, location.getLineNumber());
+		assertEquals(column, location.getPosition());
+		assertEquals("test", location.getFilename());
+	}
+	
+	// keywords and punctuators are recognized on a range of the buffer, with no String made.
+	public void testLexemesAreLookedUpInPlace() {
+		MappedSourceBuffer buffer = MappedSourceBuffer.fromString("test", "main {\r\n\timm x := 1;\n}");
+		
+		assertEquals(Keyword.MAIN, Keyword.forLexeme(buffer, 0, 4));
+		assertEquals(Punctuator.OPEN_CURLY_BRACKET, Punctuator.forLexeme(buffer, 5, 6));
+		assertEquals(Keyword.IMMUTABLE, Keyword.forLexeme(buffer, 8, 11));
+		assertEquals(Keyword.NULL_KEYWORD, Keyword.forLexeme(buffer, 12, 13));
+		assertEquals(Punctuator.ASSIGN, Punctuator.forLexeme(buffer, 14, 16));
+		assertEquals("imm x", buffer.subSequence(8, 13).toString());
+		assertEquals('}', buffer.charAt(buffer.lineStart(3)));
+	}
+	
+	public void testEmptySource() {
+		MappedSourceBuffer buffer = MappedSourceBuffer.fromString("test", "");
+		
+		assertEquals(0, buffer.length());
+		assertEquals(0, buffer.lineCount());
+	}
+	
+	public void testFileNotFound() {
+		try {
+			MappedSourceBuffer.fromFilename(NONEXISTENT_FILENAME);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package inputHandler.tests;
+
+import inputHandler.LocatedCharStream;
+import inputHandler.MappedSourceBuffer;
+import inputHandler.PushbackCharStream;
+
+import junit.framework.TestCase;
+
+
+public class TestPushbackCharStream extends TestCase {
+	private PushbackCharStream streamFor(String contents) {
+		return PushbackCharStream.make(MappedSourceBuffer.fromString("test", contents));
+	}
+
+	public void testPeekDoesNotConsume() {
+		PushbackCharStream stream = streamFor("abc");
+
+		assertEquals('c', stream.peekChar(2));
+		assertEquals('a', stream.peekChar());
+		assertEquals(0, stream.offset());
+		assertEquals('a', stream.nextChar());
+		assertEquals('b', stream.nextChar());
+		assertEquals(2, stream.offset());
+		assertEquals('\n', stream.peekChar(1));
+		assertEquals(LocatedCharStream.END_OF_INPUT, stream.peekChar(2));
+		assertEquals('c', stream.nextChar());
+		assertEquals('\n', stream.nextChar());
+		assertFalse(stream.hasNext());
+		assertEquals(LocatedCharStream.END_OF_INPUT, stream.nextChar());
+	}
+
+	public void testPushback() {
+		PushbackCharStream stream = streamFor("xy");
+
+		assertEquals('x', stream.next().getCharacter().charValue());
+		stream.pushback(stream.locatedChar('x', 0));
+		assertEquals(0, stream.offset());
+		assertEquals('x', stream.nextChar());
+		assertEquals('y', stream.peek().getCharacter().charValue());
+	}
+
+	public void testLookaheadIsBounded() {
+		PushbackCharStream stream = streamFor("lookahead");
+
+		stream.peekChar(PushbackCharStream.LOOKAHEAD_CAPACITY - 1);
+		try {
+			stream.peekChar(PushbackCharStream.LOOKAHEAD_CAPACITY);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testSkipWhitespaceMatchesNextChar() {
+		String contents = "a  \t\n\n  b // comment \"x\n\tc\"  \" \u2003d\n// \n//\n  \u00a0e  ";
+		PushbackCharStream skipping = streamFor(contents);
+		PushbackCharStream stepping = streamFor(contents);
+
+		while (stepping.hasNext()) {
+			skipping.skipWhitespace();
+			while (LocatedCharStream.isWhitespace(stepping.peekChar())) {
+				stepping.nextChar();
+			}
+			assertEquals(stepping.offset(), skipping.offset());
+			assertEquals(stepping.peekChar(), skipping.peekChar());
+			assertEquals(stepping.next().toString(), skipping.next().toString());
+		}
+		assertFalse(skipping.hasNext());
+	}
+
+	public void testSkipWhitespaceAfterPeeking() {
+		PushbackCharStream stream = streamFor("x \t  y");
+
+		stream.nextChar();
+		assertEquals('y', stream.peekChar(4));
+		stream.skipWhitespace();
+		assertEquals(5, stream.offset());
+		assertEquals('y', stream.nextChar());
+	}
+}
@@ -0,0 +1,122 @@
+package lexicalAnalyzer;
+
+import static lexicalAnalyzer.DfaScanningTables.*;
+
+import inputHandler.PushbackCharStream;
+import tokens.FloatToken;
+import tokens.IdentifierToken;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import tokens.NullToken;
+import tokens.Token;
+import utilities.CompilationContext;
+
+/** A table-driven LexicalAnalyzer.  It produces exactly the tokens that LexicalAnalyzer does.
+ * <p>
+ *  Identifiers, keywords, numbers and punctuators are recognized by running the automaton of
+ *  DfaScanningTables over character classes.  Characters are peeked while the automaton is in a
+ *  state that accepts nothing, and consumed whenever it reaches an accepting state, so when the
+ *  automaton dies the input is left just after the longest token it accepted.
+ * <p>
+ *  Character and string literals, whose scanning does not fit the automaton, are handed to
+ *  LexicalAnalyzer's routines.
+ */
+public class DfaLexicalAnalyzer extends LexicalAnalyzer {
+	
+	public DfaLexicalAnalyzer(PushbackCharStream input) {
+		super(input);
+	}
+	public DfaLexicalAnalyzer(PushbackCharStream input, CompilationContext context) {
+		super(input, context);
+	}
+	
+	@Override
+	protected Token findNextToken() {
+		input.skipWhitespace();
+		int characterClass = classOf(input.peekChar());
+		
+		int start = input.offset();
+		int accepted = runAutomaton(characterClass);
+		
+		if(accepted != DEAD_STATE) {
+			return tokenFor(accepted, start);
+		}
+		return scanOutsideAutomaton(characterClass, start);
+	}
+	
+	// returns the last accepting state reached, or DEAD_STATE if there was none.
+	private int runAutomaton(int characterClass) {
+		int accepted = DEAD_STATE;
+		int pending = 0;
+		int state = transition(START_STATE, characterClass);
+		
+		while(state != DEAD_STATE) {
+			pending++;
+			if(acceptKind[state] != ACCEPT_NONE) {
+				consume(pending);
+				pending = 0;
+				accepted = state;
+			}
+			state = transition(state, classOf(peekAhead(pending)));
+		}
+		return accepted;
+	}
+	private int peekAhead(int k) {
+		return (k == 0) ? input.peekChar() : input.peekChar(k);
+	}
+	private void consume(int count) {
+		for(int i = 0; i < count; i++) {
+			input.nextChar();
+		}
+	}
+	
+	private Token tokenFor(int state, int start) {
+		switch(acceptKind[state]) {
+			case ACCEPT_IDENTIFIER:
+				return identifierToken(start);
+			case ACCEPT_INTEGER:
+				return IntegerToken.make(input.locationOf(start), input.substring(start, input.offset()));
+			case ACCEPT_FLOAT:
+				return FloatToken.make(input.locationOf(start), input.substring(start, input.offset()));
+			case ACCEPT_KEYWORD:
+				Keyword keyword = keywords[acceptLextant[state]];
+				return LextantToken.make(input.locationOf(start), keyword.getLexeme(), keyword);
+			case ACCEPT_PUNCTUATOR:
+				Punctuator punctuator = punctuators[acceptLextant[state]];
+				return LextantToken.make(input.locationOf(start), punctuator.getLexeme(), punctuator);
+			default:
+				throw new IllegalArgumentException("dfa lexical analyzer: state " + state + " accepts nothing");
+		}
+	}
+	private Token identifierToken(int start) {
+		int end = input.offset();
+		
+		if(end - start > MAX_IDENTIFIER_LENGTH) {
+			tooManyCharactersLexicalError(input.locatedChar(input.source().charAt(start), start));
+		}
+		return IdentifierToken.make(input.locationOf(start), context.getNameTable().intern(input.source(), start, end));
+	}
+	
+	// nothing has been consumed: the next character starts no token the automaton knows.
+	private Token scanOutsideAutomaton(int characterClass, int start) {
+		int ch = input.peekChar();
+		
+		if(ch == '\'') {
+			return scanCharacter(start);
+		}
+		else if(ch == '"') {
+			return scanString(start);
+		}
+		else if(characterClass == CLASS_END) {
+			return NullToken.make(input.locationOf(start));
+		}
+		else if(startsPunctuator(characterClass)) {
+			return NullToken.make(input.locationOf(start));	// prefix of a punctuator only, as in PunctuatorScanner
+		}
+		else {
+			input.nextChar();
+			lexicalError(input.locatedChar(ch, start));
+			return findNextToken();
+		}
+	}
+}
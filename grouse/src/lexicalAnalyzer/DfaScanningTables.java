@@ -0,0 +1,309 @@
+package lexicalAnalyzer;
+
+import inputHandler.LocatedCharStream;
+import inputHandler.PushbackCharStream;
+
+import java.util.Arrays;
+
+
+/** Transition tables for DfaLexicalAnalyzer, built once from the lexemes of Keyword and Punctuator.
+ * <p>
+ *  Characters are first mapped to character classes.  Every character that occurs in some lexeme,
+ *  and every character with a special role in numbers and identifiers, gets a class of its own;
+ *  all other characters share the classes LETTER, DIGIT, WHITESPACE or OTHER.  END_OF_INPUT has
+ *  its own class as well.
+ * <p>
+ *  The automaton recognizes identifiers, keywords, integers, floats and punctuators.  Its states
+ *  are ints, and <code>transitions[state * classCount + class]</code> is the next state (or
+ *  DEAD_STATE).  Each state has an acceptance kind and, for keywords and punctuators, the ordinal
+ *  of the Lextant it accepts.
+ */
+class DfaScanningTables {
+	static final int DEAD_STATE = -1;
+	static final int START_STATE = 0;
+	
+	// acceptance kinds
+	static final int ACCEPT_NONE = 0;
+	static final int ACCEPT_IDENTIFIER = 1;
+	static final int ACCEPT_INTEGER = 2;
+	static final int ACCEPT_FLOAT = 3;
+	static final int ACCEPT_KEYWORD = 4;
+	static final int ACCEPT_PUNCTUATOR = 5;
+	
+	// shared character classes
+	static final int CLASS_OTHER = 0;
+	static final int CLASS_END = 1;
+	static final int CLASS_WHITESPACE = 2;
+	static final int CLASS_LETTER = 3;
+	static final int CLASS_DIGIT = 4;
+	private static final int FIRST_DISTINCT_CLASS = 5;
+	
+	private static final int ASCII_LIMIT = 128;
+	private static final String DISTINCT_CHARACTERS = "_~.-'\"";
+	private static final int STARTING_STATE_CAPACITY = 64;
+	
+	private static int[] asciiClass = new int[ASCII_LIMIT];
+	private static int[] classRepresentative;
+	private static boolean[] startsPunctuator;
+	static int classCount;
+	
+	static int[] transitions;
+	static int[] acceptKind;
+	static int[] acceptLextant;
+	private static int stateCount;
+	private static int identifierState = DEAD_STATE;
+	
+	static final Keyword[] keywords = Keyword.values();
+	static final Punctuator[] punctuators = Punctuator.values();
+	
+	static {
+		makeCharacterClasses();
+		makeAutomaton();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	static int classOf(int c) {
+		if(c == LocatedCharStream.END_OF_INPUT) {
+			return CLASS_END;
+		}
+		if(c < ASCII_LIMIT) {
+			return asciiClass[c];
+		}
+		return sharedClassOf((char)c);
+	}
+	static int transition(int state, int characterClass) {
+		return transitions[state * classCount + characterClass];
+	}
+	static boolean startsPunctuator(int characterClass) {
+		return startsPunctuator[characterClass];
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// creation of character classes
+	
+	private static void makeCharacterClasses() {
+		StringBuilder distinct = new StringBuilder(DISTINCT_CHARACTERS);
+		for(Keyword keyword: keywords) {
+			addDistinctCharacters(distinct, keyword.getLexeme());
+		}
+		for(Punctuator punctuator: punctuators) {
+			addDistinctCharacters(distinct, punctuator.getLexeme());
+		}
+		
+		classCount = FIRST_DISTINCT_CLASS + distinct.length();
+		classRepresentative = new int[classCount];
+		classRepresentative[CLASS_OTHER] = LocatedCharStream.NULL_CHAR;
+		classRepresentative[CLASS_END] = LocatedCharStream.END_OF_INPUT;
+		classRepresentative[CLASS_WHITESPACE] = ' ';
+		classRepresentative[CLASS_LETTER] = 'a';
+		classRepresentative[CLASS_DIGIT] = '0';
+		
+		for(int c = 0; c < ASCII_LIMIT; c++) {
+			asciiClass[c] = sharedClassOf((char)c);
+		}
+		for(int i = 0; i < distinct.length(); i++) {
+			char c = distinct.charAt(i);
+			asciiClass[c] = FIRST_DISTINCT_CLASS + i;
+			classRepresentative[FIRST_DISTINCT_CLASS + i] = c;
+		}
+		
+		startsPunctuator = new boolean[classCount];
+		for(Punctuator punctuator: punctuators) {
+			String lexeme = punctuator.getLexeme();
+			if(!lexeme.isEmpty()) {
+				startsPunctuator[classOf(lexeme.charAt(0))] = true;
+			}
+		}
+	}
+	private static void addDistinctCharacters(StringBuilder distinct, String lexeme) {
+		for(int i = 0; i < lexeme.length(); i++) {
+			char c = lexeme.charAt(i);
+			if(c >= ASCII_LIMIT) {
+				throw new IllegalArgumentException("dfa scanning tables: non-ascii character in lexeme " + lexeme);
+			}
+			if(distinct.indexOf(String.valueOf(c)) < 0) {
+				distinct.append(c);
+			}
+		}
+	}
+	private static int sharedClassOf(char c) {
+		if(Character.isWhitespace(c)) {
+			return CLASS_WHITESPACE;
+		}
+		if(Character.isLetter(c)) {
+			return CLASS_LETTER;
+		}
+		if(Character.isDigit(c)) {
+			return CLASS_DIGIT;
+		}
+		return CLASS_OTHER;
+	}
+	
+	// properties of a class, read off its representative character
+	private static boolean isIdentifierStart(int characterClass) {
+		int c = classRepresentative[characterClass];
+		return c != LocatedCharStream.END_OF_INPUT && (Character.isLetter(c) || c == '_');
+	}
+	private static boolean isIdentifierPart(int characterClass) {
+		int c = classRepresentative[characterClass];
+		return c != LocatedCharStream.END_OF_INPUT && (Character.isLetterOrDigit(c) || c == '_' || c == '~');
+	}
+	private static boolean isDigit(int characterClass) {
+		int c = classRepresentative[characterClass];
+		return c != LocatedCharStream.END_OF_INPUT && Character.isDigit(c);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// creation of the automaton
+	
+	private static void makeAutomaton() {
+		transitions = new int[STARTING_STATE_CAPACITY * classCount];
+		acceptKind = new int[STARTING_STATE_CAPACITY];
+		acceptLextant = new int[STARTING_STATE_CAPACITY];
+		stateCount = 0;
+		
+		int start = newState(ACCEPT_NONE);
+		assert start == START_STATE;
+		
+		int identifier = newIdentifierState();
+		int integer = newState(ACCEPT_INTEGER);
+		int floating = newState(ACCEPT_FLOAT);
+		
+		for(int c = 0; c < classCount; c++) {
+			if(isIdentifierStart(c)) {
+				setTransition(START_STATE, c, identifier);
+			}
+			if(isDigit(c)) {
+				setTransition(START_STATE, c, integer);
+				setTransition(integer, c, integer);
+				setTransition(floating, c, floating);
+			}
+		}
+		setTransition(integer, classOf('.'), floating);
+		
+		for(Keyword keyword: keywords) {
+			addKeyword(keyword);
+		}
+		for(Punctuator punctuator: punctuators) {
+			addPunctuator(punctuator);
+		}
+		addNegativeNumbers(integer);
+		
+		checkLookaheadIsBounded();
+	}
+	
+	private static int newState(int kind) {
+		if(stateCount == acceptKind.length) {
+			growStates();
+		}
+		int state = stateCount++;
+		
+		acceptKind[state] = kind;
+		acceptLextant[state] = -1;
+		for(int c = 0; c < classCount; c++) {
+			transitions[state * classCount + c] = DEAD_STATE;
+		}
+		return state;
+	}
+	private static void growStates() {
+		int capacity = acceptKind.length * 2;
+		
+		transitions = Arrays.copyOf(transitions, capacity * classCount);
+		acceptKind = Arrays.copyOf(acceptKind, capacity);
+		acceptLextant = Arrays.copyOf(acceptLextant, capacity);
+	}
+	
+	// an identifier state: any identifier character leads to the generic identifier state,
+	// which is the first identifier state made.
+	private static int newIdentifierState() {
+		int state = newState(ACCEPT_IDENTIFIER);
+		if(identifierState == DEAD_STATE) {
+			identifierState = state;
+		}
+		
+		for(int c = 0; c < classCount; c++) {
+			if(isIdentifierPart(c)) {
+				setTransition(state, c, identifierState);
+			}
+		}
+		return state;
+	}
+	private static void setTransition(int state, int characterClass, int target) {
+		transitions[state * classCount + characterClass] = target;
+	}
+	
+	// keywords form a trie inside the identifier states
+	private static void addKeyword(Keyword keyword) {
+		String lexeme = keyword.getLexeme();
+		if(lexeme.isEmpty()) {
+			return;
+		}
+		
+		int state = START_STATE;
+		for(int i = 0; i < lexeme.length(); i++) {
+			int c = classOf(lexeme.charAt(i));
+			if(i == 0 ? !isIdentifierStart(c) : !isIdentifierPart(c)) {
+				throw new IllegalArgumentException("dfa scanning tables: keyword is not an identifier: " + lexeme);
+			}
+			
+			int next = transition(state, c);
+			if(next == identifierState) {
+				next = newIdentifierState();
+				setTransition(state, c, next);
+			}
+			state = next;
+		}
+		acceptKind[state] = ACCEPT_KEYWORD;
+		acceptLextant[state] = keyword.ordinal();
+	}
+	
+	// punctuators form a trie of their own; states for proper prefixes that are not punctuators accept nothing
+	private static void addPunctuator(Punctuator punctuator) {
+		String lexeme = punctuator.getLexeme();
+		if(lexeme.isEmpty()) {
+			return;
+		}
+		
+		int state = START_STATE;
+		for(int i = 0; i < lexeme.length(); i++) {
+			int c = classOf(lexeme.charAt(i));
+			int next = transition(state, c);
+			
+			if(next == DEAD_STATE) {
+				next = newState(ACCEPT_NONE);
+				setTransition(state, c, next);
+			}
+			else if(acceptKind[next] != ACCEPT_NONE && acceptKind[next] != ACCEPT_PUNCTUATOR) {
+				throw new IllegalArgumentException("dfa scanning tables: punctuator overlaps other tokens: " + lexeme);
+			}
+			state = next;
+		}
+		acceptKind[state] = ACCEPT_PUNCTUATOR;
+		acceptLextant[state] = punctuator.ordinal();
+	}
+	
+	// a '-' immediately followed by a digit starts a number
+	private static void addNegativeNumbers(int integer) {
+		int minus = transition(START_STATE, classOf('-'));
+		if(minus == DEAD_STATE) {
+			minus = newState(ACCEPT_NONE);
+			setTransition(START_STATE, classOf('-'), minus);
+		}
+		for(int c = 0; c < classCount; c++) {
+			if(isDigit(c)) {
+				setTransition(minus, c, integer);
+			}
+		}
+	}
+	
+	// the scanner peeks through non-accepting states; they must fit in the lookahead buffer.
+	private static void checkLookaheadIsBounded() {
+		for(Punctuator punctuator: punctuators) {
+			if(punctuator.getLexeme().length() >= PushbackCharStream.LOOKAHEAD_CAPACITY) {
+				throw new IllegalArgumentException("dfa scanning tables: punctuator longer than lookahead: " + punctuator);
+			}
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package lexicalAnalyzer;
+
+import inputHandler.LocatedCharStream;
+import inputHandler.LocatedCharStream.ParsingState;
+import inputHandler.MappedSourceBuffer;
+import utilities.CompilationContext;
+
+/** The tokens of a source, kept with enough about each line to lex an edited version of the
+ *  source again cheaply.  <code>lex</code> makes a snapshot from scratch; <code>relex</code>
+ *  makes the snapshot of an edited source from an earlier one.
+ * <p>
+ *  For each line the snapshot keeps a hash of its text and the ParsingState of
+ *  LocatedCharStream at its start.  <code>relex</code> compares the line hashes of the new
+ *  source with the old ones to find the unchanged lines at the beginning and at the end; as
+ *  hashes can collide, lines whose hashes match have their characters compared too.
+ *  Lexing restarts at the last line start before the edit that lies outside strings and
+ *  comments, where the scanner is always between tokens, and the parsing state is followed
+ *  line by line through the edit until it agrees with the old state in the unchanged lines
+ *  after it.  From the next line start outside strings and comments on, the old tokens are
+ *  reused, moved by the change in length.  (A line after a comment does not qualify: its
+ *  first character is not examined, and if it opens a string the scanner may still be in
+ *  that string at the start of the next line.)
+ *  Only the lines in between are lexed, so the cost of lexing follows the size of the edit;
+ *  the new source is still read to hash its lines, and its unchanged lines to compare them.
+ * <p>
+ *  Lexical errors are logged for the lines that are lexed.  A snapshot of a source that had
+ *  lexical errors is relexed from scratch, so that all of its errors are logged again.
+ */
+public class IncrementalLexer {
+	private static final long HASH_START = 0xcbf29ce484222325L;
+	private static final long HASH_MULTIPLIER = 0x100000001b3L;
+	
+	private final MappedSourceBuffer source;
+	private final TokenArray tokens;
+	private final long[] lineHashes;			// for lines 1..lineCount, at [0, lineCount)
+	private final ParsingState[] lineStates;	// at the start of lines 1..lineCount, then at the end
+	private final boolean hadErrors;
+	private final int lexedLength;
+	private final LexicalAnalyzer.Implementation implementation;
+	private final CompilationContext context;
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// entry points
+	
+	public static IncrementalLexer lex(String filename) {
+		return lex(MappedSourceBuffer.fromFilename(filename));
+	}
+	public static IncrementalLexer lex(MappedSourceBuffer source) {
+		return lex(source, LexicalAnalyzer.getImplementation(), CompilationContext.current());
+	}
+	private static IncrementalLexer lex(MappedSourceBuffer source, LexicalAnalyzer.Implementation implementation, CompilationContext context) {
+		ParsingState[] states = new ParsingState[source.lineCount() + 1];
+		states[0] = ParsingState.DEFAULT;
+		for(int line = 0; line < source.lineCount(); line++) {
+			states[line + 1] = LocatedCharStream.stateAfterLine(source, line + 1, states[line]);
+		}
+		
+		return context.call(() -> {
+			LexicalAnalyzer scanner = LexicalAnalyzer.make(source, implementation);
+			scanner.deferErrors();
+			TokenArray tokens = TokenArray.fromScanner(scanner, source);
+			int errors = scanner.logDeferredErrors();
+			
+			return new IncrementalLexer(source, tokens, lineHashes(source), states, errors > 0, source.length(), implementation, context);
+		});
+	}
+	
+	private IncrementalLexer(MappedSourceBuffer source, TokenArray tokens, long[] lineHashes, ParsingState[] lineStates,
+			boolean hadErrors, int lexedLength, LexicalAnalyzer.Implementation implementation, CompilationContext context) {
+		this.source = source;
+		this.tokens = tokens;
+		this.lineHashes = lineHashes;
+		this.lineStates = lineStates;
+		this.hadErrors = hadErrors;
+		this.lexedLength = lexedLength;
+		this.implementation = implementation;
+		this.context = context;
+	}
+	
+	public MappedSourceBuffer getSource() {
+		return source;
+	}
+	public TokenArray getTokens() {
+		return tokens;
+	}
+	/** Get the number of characters that were lexed to make this snapshot. */
+	public int getLexedLength() {
+		return lexedLength;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// relexing
+	
+	/** Lex an edited version of this snapshot's source, reusing the tokens of its unchanged lines. */
+	public IncrementalLexer relex(MappedSourceBuffer newSource) {
+		if(hadErrors) {
+			return lex(newSource, implementation, context);
+		}
+		long[] newHashes = lineHashes(newSource);
+		int oldLines = source.lineCount();
+		int newLines = newSource.lineCount();
+		int lineShift = newLines - oldLines;
+		int offsetShift = newSource.length() - source.length();
+		
+		int prefix = 0;
+		while(prefix < Math.min(oldLines, newLines) && sameLine(prefix, newSource, newHashes, prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while(suffix < Math.min(oldLines, newLines) - prefix && sameLine(oldLines - 1 - suffix, newSource, newHashes, newLines - 1 - suffix)) {
+			suffix++;
+		}
+		
+		// states before the edit are unchanged; follow them through it until they agree again.
+		ParsingState[] newStates = new ParsingState[newLines + 1];
+		System.arraycopy(lineStates, 0, newStates, 0, prefix + 1);
+		int line = prefix;
+		while(line < newLines - suffix || (line < newLines && newStates[line] != lineStates[line - lineShift])) {
+			newStates[line + 1] = LocatedCharStream.stateAfterLine(newSource, line + 1, newStates[line]);
+			line++;
+		}
+		if(line < newLines) {
+			System.arraycopy(lineStates, line - lineShift, newStates, line, newLines + 1 - line);
+		}
+		
+		int restart = prefix;
+		while(newStates[restart] != ParsingState.DEFAULT) {
+			restart--;
+		}
+		int resume = line;
+		while(resume < newLines && newStates[resume] != ParsingState.DEFAULT) {
+			resume++;
+		}
+		
+		int start = lineOffset(newSource, restart);
+		int end = lineOffset(newSource, resume);
+		return context.call(() -> splice(newSource, newHashes, newStates, start, end, offsetShift));
+	}
+	
+	// the old tokens before start, new tokens for [start, end), and the old tokens from end on.
+	private IncrementalLexer splice(MappedSourceBuffer newSource, long[] newHashes, ParsingState[] newStates,
+			int start, int end, int offsetShift) {
+		TokenArray result = new TokenArray(newSource, tokens.size());
+		int oldEnd = tokens.startOffset(tokens.size() - 1);
+		
+		if(oldEnd < start) {					// the old tokens stopped before the edit
+			result.addAll(tokens, 0, tokens.size());
+			return new IncrementalLexer(newSource, result, newHashes, newStates, false, 0, implementation, context);
+		}
+		if(oldEnd < end - offsetShift) {		// they stopped within it, so there are none to reuse after it
+			end = newSource.length();
+		}
+		result.addAll(tokens, 0, tokens.firstTokenAtOrAfter(start));
+		
+		LexicalAnalyzer scanner = LexicalAnalyzer.make(newSource, start, end, implementation);
+		scanner.deferErrors();
+		TokenArray edited = TokenArray.fromScanner(scanner, newSource);
+		int errors = scanner.logDeferredErrors();
+		
+		int last = edited.size() - 1;			// the NullToken that ended the edited lines
+		boolean stoppedEarly = edited.startOffset(last) < end;
+		if(stoppedEarly || end == newSource.length()) {
+			result.addAll(edited, 0, last + 1);
+		}
+		else {
+			result.addAll(edited, 0, last);
+			result.addAll(tokens, tokens.firstTokenAtOrAfter(end - offsetShift), tokens.size(), offsetShift);
+		}
+		result.trimToSize();
+		return new IncrementalLexer(newSource, result, newHashes, newStates, errors > 0, end - start, implementation, context);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// lines
+	
+	// the offset of the start of zero-based line, or the length of the source for lineCount.
+	private static int lineOffset(MappedSourceBuffer source, int line) {
+		return (line < source.lineCount()) ? source.lineStart(line + 1) : source.length();
+	}
+	
+	// whether zero-based oldLine of this snapshot's source has the same text as newLine of newSource.
+	private boolean sameLine(int oldLine, MappedSourceBuffer newSource, long[] newHashes, int newLine) {
+		if(lineHashes[oldLine] != newHashes[newLine]) {
+			return false;
+		}
+		int oldStart = lineOffset(source, oldLine);
+		int newStart = lineOffset(newSource, newLine);
+		int length = lineOffset(source, oldLine + 1) - oldStart;
+		if(lineOffset(newSource, newLine + 1) - newStart != length) {
+			return false;
+		}
+		for(int i = 0; i < length; i++) {
+			if(source.charAt(oldStart + i) != newSource.charAt(newStart + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static long[] lineHashes(MappedSourceBuffer source) {
+		long[] result = new long[source.lineCount()];
+		
+		for(int line = 0; line < result.length; line++) {
+			long hash = HASH_START;
+			for(int i = lineOffset(source, line); i < lineOffset(source, line + 1); i++) {
+				hash = (hash ^ source.charAt(i)) * HASH_MULTIPLIER;
+			}
+			result[line] = hash;
+		}
+		return result;
+	}
+}
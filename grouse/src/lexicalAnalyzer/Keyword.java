@@ -49,22 +49,17 @@ public enum Keyword implements Lextant {
 		return prototype;
 	}
 	
+	private static PerfectLexemeHash<Keyword> lexemeToKeyword = new PerfectLexemeHash<Keyword>(values(), NULL_KEYWORD);
+	
 	public static Keyword forLexeme(String lexeme) {
-		for (Keyword keyword: values()) {
-			if (keyword.lexeme.equals(lexeme)) return keyword;
-		}
-		
-		return NULL_KEYWORD;
+		return lexemeToKeyword.forLexeme(lexeme);
+	}
+	// the lexeme is chars[start, end); no String is made.
+	public static Keyword forLexeme(CharSequence chars, int start, int end) {
+		return lexemeToKeyword.forLexeme(chars, start, end);
 	}
 	
 	public static boolean isAKeyword(String lexeme) {
 		return forLexeme(lexeme) != NULL_KEYWORD;
 	}
-	
-	/*   the following hashtable lookup can replace the serial-search implementation of forLexeme above. It is faster but less clear. 
-	private static LexemeMap<Keyword> lexemeToKeyword = new LexemeMap<Keyword>(values(), NULL_KEYWORD);
-	public static Keyword forLexeme(String lexeme) {
-		return lexemeToKeyword.forLexeme(lexeme);
-	}
-	*/
 }
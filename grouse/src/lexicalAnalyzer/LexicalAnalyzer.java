@@ -1,44 +1,97 @@
 package lexicalAnalyzer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import logging.GrouseLogger;
-import inputHandler.InputHandler;
 import inputHandler.LocatedChar;
 import inputHandler.LocatedCharStream;
+import inputHandler.MappedSourceBuffer;
 import inputHandler.PushbackCharStream;
-import inputHandler.TextLocation;
 import tokens.CharacterToken;
 import tokens.FloatToken;
 import tokens.IdentifierToken;
 import tokens.LextantToken;
+import tokens.NameTable;
 import tokens.NullToken;
 import tokens.StringToken;
 import tokens.IntegerToken;
 import tokens.Token;
+import utilities.CompilationContext;
 import utilities.Debug;
 
 import static lexicalAnalyzer.PunctuatorScanningAids.*;
 
-import java.util.Iterator;
-
 public class LexicalAnalyzer extends ScannerImp implements Scanner {
 	private static Debug debug = new Debug();
-	private final int MAX_IDENTIFIER_LENGTH = 32;
+	protected static final int MAX_IDENTIFIER_LENGTH = 32;
 	
 	private enum NumberType {
 		INTEGER,
 		FLOAT;
 	}
 	
+	/** Which implementation <code>make(filename)</code> constructs.  Both produce the same tokens.
+	 *  The choice belongs to the CompilationContext.
+	 */
+	public enum Implementation {
+		HAND_WRITTEN,
+		TABLE_DRIVEN,
+	}
+	/** The implementation chosen in the current CompilationContext. */
+	public static Implementation getImplementation() {
+		return CompilationContext.current().getLexerImplementation();
+	}
+	
 	public static LexicalAnalyzer make(String filename) {
-		InputHandler handler = InputHandler.fromFilename(filename);
-		PushbackCharStream charStream = PushbackCharStream.make(handler);
+		return make(filename, getImplementation());
+	}
+	public static LexicalAnalyzer make(String filename, Implementation choice) {
+		return make(MappedSourceBuffer.fromFilename(filename), choice);
+	}
+	public static LexicalAnalyzer make(MappedSourceBuffer source, Implementation choice) {
+		return make(PushbackCharStream.make(source), choice);
+	}
+	/** Make a lexical analyzer for the lines in [start, end) of source, which must lie outside strings and comments. */
+	public static LexicalAnalyzer make(MappedSourceBuffer source, int start, int end, Implementation choice) {
+		return make(PushbackCharStream.make(source, start, end), choice);
+	}
+	private static LexicalAnalyzer make(PushbackCharStream charStream, Implementation choice) {
 		
+		if(choice == Implementation.TABLE_DRIVEN) {
+			return new DfaLexicalAnalyzer(charStream);
+		}
 		return new LexicalAnalyzer(charStream);
 	}
 
+	private List<String> deferredErrors = null;
+	
 	public LexicalAnalyzer(PushbackCharStream input) {
 		super(input);
 	}
+	public LexicalAnalyzer(PushbackCharStream input, CompilationContext context) {
+		super(input, context);
+	}
+	
+	/** Keep lexical error messages instead of logging them, so that they can be logged later,
+	 *  in order, by logDeferredErrors.  Must be called before the first token is asked for.
+	 */
+	public void deferErrors() {
+		deferredErrors = new ArrayList<String>();
+	}
+	/** Log the kept error messages, in order.
+	 * @return the number of messages logged.
+	 */
+	public int logDeferredErrors() {
+		GrouseLogger log = context.getLogger("compiler.lexicalAnalyzer");
+		int count = deferredErrors.size();
+		
+		for (String message : deferredErrors) {
+			log.severe(message);
+		}
+		deferredErrors.clear();
+		return count;
+	}
 	
 	//////////////////////////////////////////////////////////////////////////////
 	// TOKEN-FINDING MAIN DISPATCHs (WE CREATE TOKENS HERE)
@@ -46,107 +99,108 @@ public class LexicalAnalyzer extends ScannerImp implements Scanner {
 	
 	@Override
 	protected Token findNextToken() {
-		LocatedChar ch = nextNonWhitespaceChar();
+		skipWhitespace();
+		
+		int start = input.offset();
+		int ch = input.peekChar();
 		
 		// beginning of each potential token
-		//debug.out("Potential Token spot: " + ch.toString());
+		//debug.out("Potential Token spot: " + input.locatedChar(ch, start));
 		
 		if (isNumberStart(ch)) {
-			return scanNumber(ch);
+			return scanNumber(start);
 		}
 		else if (isCharacterStart(ch)) {
-			return scanCharacter(ch);
+			return scanCharacter(start);
 		}
 		else if (isStringStart(ch)) {
-			return scanString(ch);
+			return scanString(start);
 		} 
 		else if (isIdentifierStart(ch)) {
-			return scanIdentifier(ch);
+			return scanIdentifier(start);
 		} 
-		else if (isPunctuatorStart(ch)) {
-			return PunctuatorScanner.scan(ch, input);
-		}
 		else if (isEndOfInput(ch)) {
-			return NullToken.make(ch.getLocation());
+			return NullToken.make(input.locationOf(start));
+		}
+		else if (isPunctuatorStart(ch)) {
+			return PunctuatorScanner.scan(input);
 		}
 		else {
-			lexicalError(ch);
+			input.nextChar();
+			lexicalError(input.locatedChar(ch, start));
 			return findNextToken();
 		}
 	}
 
-	private LocatedChar nextNonWhitespaceChar() {
-		LocatedChar ch = input.next();
-		
-		while(ch.isWhitespace()) {
-			ch = input.next();
-		}
+	private void skipWhitespace() {
+		input.skipWhitespace();
+	}
+	
+	// Lexemes are taken directly from the source: characters of a token are never
+	// altered by the comment and string handling in the char stream.
+	private String lexemeFrom(int start) {
+		return input.substring(start, input.offset());
+	}
+	private String internedLexemeFrom(int start) {
+		NameTable names = context.getNameTable();
 		
-		return ch;
+		return names.nameOf(names.intern(input.source(), start, input.offset()));
 	}
 	
 	//////////////////////////////////////////////////////////////////////////////
 	// INTEGER AND FLOAT LEXICAL ANALYSIS
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private Token scanNumber(LocatedChar firstChar) {
-		StringBuffer buffer = new StringBuffer();
-		NumberType numberType;
+	private Token scanNumber(int start) {
+		input.nextChar();
 		
-		buffer.append(firstChar.getCharacter());
-		
-		numberType = appendSubsequentDigits(buffer);
+		NumberType numberType = skipSubsequentDigits();
+		String lexeme = lexemeFrom(start);
 		
 		if (numberType == NumberType.INTEGER) { // It is an Integer
-			return IntegerToken.make(firstChar.getLocation(), buffer.toString());
+			return IntegerToken.make(input.locationOf(start), lexeme);
 		} else if (numberType == NumberType.FLOAT) {
-			return FloatToken.make(firstChar.getLocation(), buffer.toString());
+			return FloatToken.make(input.locationOf(start), lexeme);
 		} else {
 			throw new IllegalArgumentException("found : number is not an Integer or a Float");
 		}
 	}
 	
-	// Not actually appending the digits, instead we are looking for the end of the statement
-	private NumberType appendSubsequentDigits(StringBuffer buffer) {
-		LocatedChar c = input.next();
+	// Look for the end of the number, leaving the first character after it unread
+	private NumberType skipSubsequentDigits() {
+		skipDigits();
 
-		// Search input until we find a non-digit (ideally a '.' or a ';'
-		while(c.isDigit()) {
-			buffer.append(c.getCharacter());
-			c = input.next();
-		}
-
-		// If we found a '.', we have found a Float, otherwise it is an Integer
-		if (c.getCharacter() == '.') {
-			buffer.append(c.getCharacter());
-			c = input.next();
-			
-			while(c.isDigit()) {
-				buffer.append(c.getCharacter());
-				c = input.next();
-			}
-			
-			input.pushback(c);
+		// If we find a '.', we have found a Float, otherwise it is an Integer
+		if (input.peekChar() == '.') {
+			input.nextChar();
+			skipDigits();
 			
 			return NumberType.FLOAT;
 		} else {
-			input.pushback(c);
-			
 			return NumberType.INTEGER;
 		}
 	}
 	
+	private void skipDigits() {
+		while(isDigit(input.peekChar())) {
+			input.nextChar();
+		}
+	}
+	
 	//////////////////////////////////////////////////////////////////////////////
 	// CHARACTER LEXICAL ANALYSIS
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private Token scanCharacter(LocatedChar lc) {
-		LocatedChar c = input.next();
+	protected Token scanCharacter(int start) {
+		input.nextChar();
 		
-		//debug.out("SCAN CHARACTER: " + c.getCharacter().toString());
+		int offset = input.offset();
+		int c = input.nextChar();
 		
-		if (c.isCharacter()) {
-			return CharacterToken.make(lc.getLocation(), c.getCharacter().toString());
+		//debug.out("SCAN CHARACTER: " + (char)c);
+		
+		if (isCharacter(c)) {
+			return CharacterToken.make(input.locationOf(start), input.substring(offset, offset + 1));
 		} else {
 			throw new IllegalArgumentException("found : character is not a Character");
 		}
@@ -156,16 +210,13 @@ public class LexicalAnalyzer extends ScannerImp implements Scanner {
 	// STRING LEXICAL ANALYSIS
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private Token scanString(LocatedChar lc) {
-		StringBuffer buffer = new StringBuffer();
-		
-		buffer.append(lc.getCharacter());
+	protected Token scanString(int start) {
+		input.nextChar();
+		skipSubsequentStringCharacters();
 		
-		appendSubsequentStringCharacters(buffer);
+		//debug.out("scanString: " + lexemeFrom(start));
 		
-		//debug.out("scanString: " + buffer.toString());
-		
-		return StringToken.make(lc.getLocation(), buffer.toString());
+		return StringToken.make(input.locationOf(start), internedLexemeFrom(start));
 		
 		/*} else { // TODO: fix
 			lexicalError(lc);
@@ -175,106 +226,97 @@ public class LexicalAnalyzer extends ScannerImp implements Scanner {
 		}*/
 	}
 	
-	private void appendSubsequentStringCharacters(StringBuffer buffer) {
-		LocatedChar c = input.next();
-		
-		while (c.isStringCharacter()) {
-			buffer.append(c.getCharacter());
-			c = input.next();
+	// The terminating character (a '"' or the end of the line) is part of the lexeme
+	private void skipSubsequentStringCharacters() {
+		while (isStringCharacter(input.peekChar())) {
+			input.nextChar();
 		}
 		
-		buffer.append(c.getCharacter());
-		c = input.next();
-		
-		input.pushback(c);
+		input.nextChar();
 	}
 	
 	//////////////////////////////////////////////////////////////////////////////
 	// IDENTIFIER (variable names) AND KEYWORDS (imm, print, etc) LEXICAL ANALYSIS
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private Token scanIdentifier(LocatedChar firstChar) {
-		String lexeme = getIdentifierName(firstChar);
+	private Token scanIdentifier(int start) {
+		input.nextChar();
+		skipSubsequentValidIdentifierCharacters();
 		
-		if (lexeme.length() > MAX_IDENTIFIER_LENGTH) tooManyCharactersLexicalError(firstChar);
+		int end = input.offset();
 		
-		if (Keyword.isAKeyword(lexeme)) {
-			return LextantToken.make(firstChar.getLocation(), lexeme, Keyword.forLexeme(lexeme));
-		} else {
-			return IdentifierToken.make(firstChar.getLocation(), lexeme);
-		}
-	}
-	
-	private String getIdentifierName(LocatedChar firstChar) {
-		StringBuffer buffer = new StringBuffer();
+		if (end - start > MAX_IDENTIFIER_LENGTH) tooManyCharactersLexicalError(input.locatedChar(input.source().charAt(start), start));
 		
-		buffer.append(firstChar.getCharacter());
-		appendSubsequentValidIdentifierCharacters(buffer);
+		Keyword keyword = Keyword.forLexeme(input.source(), start, end);
 		
-		return buffer.toString();
+		if (keyword != Keyword.NULL_KEYWORD) {
+			return LextantToken.make(input.locationOf(start), keyword.getLexeme(), keyword);
+		} else {
+			return IdentifierToken.make(input.locationOf(start), context.getNameTable().intern(input.source(), start, end));
+		}
 	}
 	
-	private void appendSubsequentValidIdentifierCharacters(StringBuffer buffer) {
-		LocatedChar c = input.next();
-		
-		while (c.isValidIdentifierCharacter()) {
-			buffer.append(c.getCharacter());
-			c = input.next();
+	private void skipSubsequentValidIdentifierCharacters() {
+		while (isValidIdentifierCharacter(input.peekChar())) {
+			input.nextChar();
 		}
-		
-		input.pushback(c);
 	}
 
 	//////////////////////////////////////////////////////////////////////////////
 	// Character-classification routines specific to Grouse scanning	
+	// Characters are those of the primitive cursor: END_OF_INPUT is none of these.
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private boolean isNumberStart(LocatedChar lc) {
-		return (lc.isDigit() || isNegativeFollowedByNumber(lc));
+	private boolean isNumberStart(int c) {
+		return (isDigit(c) || isNegativeFollowedByNumber(c));
 	}
 	
-	private boolean isNegativeFollowedByNumber(LocatedChar lc) {
-		return (lc.isNegative() && input.peek().isDigit());
+	private boolean isNegativeFollowedByNumber(int c) {
+		return (c == '-' && isDigit(input.peekChar(1)));
 	}
 	
-	private boolean isPunctuatorStart(LocatedChar lc) {
-		char c = lc.getCharacter();
-		
-		return isPunctuatorStartingCharacter(c);
+	private boolean isPunctuatorStart(int c) {
+		return isPunctuatorStartingCharacter((char)c);
 	}
 
-	private boolean isEndOfInput(LocatedChar lc) {
-		return lc == LocatedCharStream.FLAG_END_OF_INPUT;
+	private boolean isEndOfInput(int c) {
+		return c == LocatedCharStream.END_OF_INPUT;
 	}
 	
-	private boolean isCharacterStart(LocatedChar lc) {
-		char c = lc.getCharacter();
-
-		if (c == '\'') {
-			return lc.isCharacter();
-		} else {
-			return false;
-		}
+	private boolean isCharacterStart(int c) {
+		return c == '\'';
 	}
 	
-	private boolean isStringStart(LocatedChar lc) {
-		char c = lc.getCharacter();
-
-		if (c == '"') {
-			return true;
-		} else {
-			return false;
-		}
+	private boolean isStringStart(int c) {
+		return c == '"';
 	}
 	
-	private boolean isIdentifierStart(LocatedChar lc) {
-		char c = lc.getCharacter();
-		
-		if ((Character.isLetter(c)) || (c == '_')) {
-			return true;
-		}
-		
-		return false;
+	private boolean isIdentifierStart(int c) {
+		return isLetter(c) || (c == '_');
+	}
+	
+	private boolean isValidIdentifierCharacter(int c) {
+		return isLetter(c) || isDigit(c) || (c == '_') || (c == '~');
+	}
+	
+	private boolean isStringCharacter(int c) {
+		return (c != '\n') && (c != '"');
+	}
+	
+	private boolean isCharacter(int c) {
+		return (c >= 32) && (c <= 126);
+	}
+	
+	private boolean isDigit(int c) {
+		return (c != LocatedCharStream.END_OF_INPUT) && Character.isDigit((char)c);
+	}
+	
+	private boolean isLetter(int c) {
+		return (c != LocatedCharStream.END_OF_INPUT) && Character.isLetter((char)c);
+	}
+	
+	private boolean isWhitespace(int c) {
+		return LocatedCharStream.isWhitespace(c);
 	}
 	
 	@SuppressWarnings("unused")
@@ -286,15 +328,21 @@ public class LexicalAnalyzer extends ScannerImp implements Scanner {
 	// ERROR-REPORTING
 	//////////////////////////////////////////////////////////////////////////////
 	
-	private void lexicalError(LocatedChar ch) {
-		GrouseLogger log = GrouseLogger.getLogger("compiler.lexicalAnalyzer");
-		
-		log.severe("Lexical error: invalid character " + ch);
+	protected void lexicalError(LocatedChar ch) {
+		error("Lexical error: invalid character " + ch);
+	}
+	
+	protected void tooManyCharactersLexicalError(LocatedChar ch) {
+		error("Lexical error: " + MAX_IDENTIFIER_LENGTH + "-character limit on identifiers " + ch);
 	}
 	
-	private void tooManyCharactersLexicalError(LocatedChar ch) {
-		GrouseLogger log = GrouseLogger.getLogger("compiler.lexicalAnalyzer");
+	private void error(String message) {
+		if (deferredErrors != null) {
+			deferredErrors.add(message);
+			return;
+		}
+		GrouseLogger log = context.getLogger("compiler.lexicalAnalyzer");
 		
-		log.severe("Lexical error: " + MAX_IDENTIFIER_LENGTH + "-character limit on identifiers " + ch);
+		log.severe(message);
 	}
 }
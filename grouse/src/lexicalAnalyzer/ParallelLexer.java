@@ -0,0 +1,177 @@
+package lexicalAnalyzer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import inputHandler.MappedSourceBuffer;
+import utilities.CompilationContext;
+
+/** Lexes a large source buffer on several threads into one TokenArray, with exactly the
+ *  tokens, locations and lexical errors of the sequential LexicalAnalyzer.
+ * <p>
+ *  A quick pre-pass runs the comment and string states of LocatedCharStream over the source
+ *  and picks split points: line starts that lie outside strings and comments, where the
+ *  sequential scanner is always between tokens.  The chunks between split points are lexed
+ *  by fork-join workers, each into a TokenArray of its own, with lexical errors kept rather
+ *  than logged.  The chunks are then stitched together in order on the calling thread, which
+ *  also logs their errors; since a chunk's tokens are located in the whole source buffer,
+ *  their TextLocations need no adjustment.  Workers lex in the CompilationContext of the
+ *  caller.  A chunk that stops early (at a NullToken before its end) or fails ends the stream
+ *  there, just as it would have ended the sequential scan.
+ */
+public class ParallelLexer {
+	public static final int MINIMUM_CHUNK_LENGTH = 1 << 16;
+	private static final int CHUNKS_PER_WORKER = 4;
+	
+	private final MappedSourceBuffer source;
+	private final LexicalAnalyzer.Implementation implementation;
+	private final int[] splits;			// chunk i is [splits[i], splits[i+1])
+	private final Chunk[] chunks;
+	private final CompilationContext context;
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// entry points
+	
+	public static TokenArray lex(String filename) {
+		return lex(MappedSourceBuffer.fromFilename(filename), ForkJoinPool.commonPool());
+	}
+	public static TokenArray lex(MappedSourceBuffer source, ForkJoinPool pool) {
+		int chunkCount = Math.min(pool.getParallelism() * CHUNKS_PER_WORKER, source.length() / MINIMUM_CHUNK_LENGTH);
+		return lex(source, pool, Math.max(1, chunkCount));
+	}
+	/** Lex source in at most chunkCount chunks. */
+	public static TokenArray lex(MappedSourceBuffer source, ForkJoinPool pool, int chunkCount) {
+		ParallelLexer lexer = new ParallelLexer(source, splitPoints(source, chunkCount), LexicalAnalyzer.getImplementation());
+		
+		pool.invoke(lexer.new LexChunks(0, lexer.chunks.length));
+		return lexer.stitch();
+	}
+	
+	private ParallelLexer(MappedSourceBuffer source, int[] splits, LexicalAnalyzer.Implementation implementation) {
+		this.source = source;
+		this.implementation = implementation;
+		this.splits = splits;
+		this.chunks = new Chunk[splits.length - 1];
+		this.context = CompilationContext.current();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// split points
+	
+	/** Find at most chunkCount - 1 safe split points, near equal divisions of the source.
+	 * @return the offsets that start chunks, followed by the length of the source.
+	 */
+	public static int[] splitPoints(MappedSourceBuffer source, int chunkCount) {
+		int length = source.length();
+		int[] result = new int[chunkCount + 1];
+		int found = 0;
+		result[found++] = 0;
+		
+		int chunk = 1;
+		long target = (long)length * chunk / chunkCount;
+		boolean inString = false;
+		boolean inComment = false;
+		boolean atLineStart = false;
+		
+		for(int i = 0; i < length && chunk < chunkCount; i++) {
+			char c = source.charAt(i);
+			
+			if(atLineStart && !inString && !inComment && i >= target) {
+				result[found++] = i;
+				while(chunk < chunkCount && target <= i) {
+					chunk++;
+					target = (long)length * chunk / chunkCount;
+				}
+			}
+			
+			if(inComment) {
+				inComment = !atLineStart;		// the first character of the next line ends it, and is not examined
+			}
+			else if(inString) {
+				inString = (c != '"');
+			}
+			else {
+				inComment = (c == '/' && i + 1 < length && source.charAt(i + 1) == '/');
+				inString = (c == '"');
+			}
+			atLineStart = (c == '\n');
+		}
+		
+		result[found++] = length;
+		return Arrays.copyOf(result, found);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// lexing chunks
+	
+	private static class Chunk {
+		LexicalAnalyzer scanner;
+		TokenArray tokens;
+		RuntimeException failure;
+	}
+	
+	private class LexChunks extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		
+		LexChunks(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from == 1) {
+				chunks[from] = context.call(() -> lexChunk(splits[from], splits[from + 1]));
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new LexChunks(from, middle), new LexChunks(middle, to));
+		}
+	}
+	
+	private Chunk lexChunk(int start, int end) {
+		Chunk result = new Chunk();
+		
+		result.scanner = LexicalAnalyzer.make(source, start, end, implementation);
+		result.scanner.deferErrors();
+		try {
+			result.tokens = TokenArray.fromScanner(result.scanner, source);
+		}
+		catch(RuntimeException e) {
+			result.failure = e;
+		}
+		return result;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// stitching
+	
+	private TokenArray stitch() {
+		int total = 0;
+		for(Chunk chunk: chunks) {
+			total += (chunk.tokens == null) ? 0 : chunk.tokens.size();
+		}
+		TokenArray result = new TokenArray(source, total);
+		
+		for(int i = 0; i < chunks.length; i++) {
+			Chunk chunk = chunks[i];
+			chunk.scanner.logDeferredErrors();
+			if(chunk.failure != null) {
+				throw chunk.failure;
+			}
+			
+			int end = chunk.tokens.size() - 1;		// the chunk's NullToken
+			boolean stoppedEarly = chunk.tokens.startOffset(end) < splits[i + 1];
+			if(stoppedEarly || i == chunks.length - 1) {
+				result.addAll(chunk.tokens, 0, end + 1);
+				break;
+			}
+			result.addAll(chunk.tokens, 0, end);
+		}
+		result.trimToSize();
+		return result;
+	}
+}
@@ -3,32 +3,60 @@ package lexicalAnalyzer;
 import tokens.LextantToken;
 import tokens.NullToken;
 import tokens.Token;
-import inputHandler.LocatedChar;
-import inputHandler.LocatedCharString;
+import inputHandler.PushbackCharStream;
 
-public class PartiallyScannedPunctuator extends LocatedCharString {
-
-	public PartiallyScannedPunctuator(LocatedChar c) {
-		super(c);
+// The characters of a punctuator lexeme peeked so far, starting at the input's current offset.
+// Nothing is consumed from the input until the scan is settled by asToken().
+public class PartiallyScannedPunctuator {
+	private static final int STARTING_SIZE = 4;
+	
+	private PushbackCharStream input;
+	private int startingOffset;
+	private StringBuilder chars;
+	
+	public PartiallyScannedPunctuator(PushbackCharStream input) {
+		this.input = input;
+		this.startingOffset = input.offset();
+		this.chars = new StringBuilder(STARTING_SIZE);
+	}
+	
+	// mutators
+	public void add(char c) {
+		chars.append(c);
+	}
+	public void chopTail() {
+		chars.setLength(chars.length() - 1);
 	}
 	
 	// queries
+	public int length() {
+		return chars.length();
+	}
+	public boolean isEmpty() {
+		return chars.length() == 0;
+	}
 	public Boolean isPunctuator() {
 		return asPunctuator() != Punctuator.NULL_PUNCTUATOR;
 	}
 	
 	// conversions
+	public String asString() {
+		return chars.toString();
+	}
 	public Punctuator asPunctuator() {
-		return Punctuator.forLexeme(asString());
+		return Punctuator.forLexeme(chars, 0, chars.length());
 	}
 	
-	// This is where we create a Punctuator token
+	// This is where we create a Punctuator token, consuming its characters from the input
 	public Token asToken() {
 		if(isEmpty()) {
-			return NullToken.make(startingLocation);
+			return NullToken.make(input.locationOf(startingOffset));
 		}
 		
 		assert(isPunctuator());
-		return LextantToken.make(startingLocation, asString(), asPunctuator());
+		for(int i = 0; i < length(); i++) {
+			input.nextChar();
+		}
+		return LextantToken.make(input.locationOf(startingOffset), asString(), asPunctuator());
 	}
 }
@@ -0,0 +1,120 @@
+package lexicalAnalyzer;
+
+import java.lang.reflect.Array;
+
+/** A collision-free hash table from lexemes to the Lextants that have them.
+ * <p>
+ *  The hash of a lexeme mixes its length with its first, second and last characters.  The
+ *  multiplier of the mix is searched for when the table is built (once, when the Lextant's
+ *  enum is initialized) so that no two lexemes share a slot; the table is a power of two,
+ *  as small as such a multiplier can be found for.  A lookup is then one hash, one slot,
+ *  and one comparison with the lexeme stored there.
+ * <p>
+ *  Lookups work on a range of any CharSequence, so a lexeme in the source buffer can be
+ *  recognized without first being copied into a String.
+ */
+public class PerfectLexemeHash<T extends Lextant> {
+	private static final int MAX_MULTIPLIER_TRIES = 4096;
+	private static final int MAX_TABLE_SIZE = 1 << 16;
+	
+	private T nullValue;
+	private T[] table;
+	private String[] lexemes;
+	private int mask;
+	private int multiplier;
+	private int maxLength;
+	
+	public PerfectLexemeHash(T[] values, T nullValue) {
+		this.nullValue = nullValue;
+		buildTable(values);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// lookup
+	
+	public T forLexeme(String lexeme) {
+		return forLexeme(lexeme, 0, lexeme.length());
+	}
+	public T forLexeme(CharSequence chars, int start, int end) {
+		int length = end - start;
+		if(length == 0 || length > maxLength) {
+			return nullValue;
+		}
+		
+		int slot = slotFor(hash(chars, start, length, multiplier));
+		String lexeme = lexemes[slot];
+		if(lexeme == null || lexeme.length() != length) {
+			return nullValue;
+		}
+		for(int i = 0; i < length; i++) {
+			if(lexeme.charAt(i) != chars.charAt(start + i)) {
+				return nullValue;
+			}
+		}
+		return table[slot];
+	}
+	
+	private static int hash(CharSequence chars, int start, int length, int multiplier) {
+		int h = chars.charAt(start);
+		h = h * multiplier + chars.charAt(start + (length > 1 ? 1 : 0));
+		h = h * multiplier + chars.charAt(start + length - 1);
+		h = h * multiplier + length;
+		return h ^ (h >>> 11);
+	}
+	private int slotFor(int hash) {
+		return hash & mask;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// construction
+	
+	private void buildTable(T[] values) {
+		int count = 0;
+		for(T value: values) {
+			String lexeme = value.getLexeme();
+			if(!lexeme.isEmpty()) {
+				count++;
+				maxLength = Math.max(maxLength, lexeme.length());
+			}
+		}
+		
+		int size = Integer.highestOneBit(Math.max(count, 1) * 2 - 1);
+		while(!tryToBuild(values, size)) {
+			size *= 2;
+			if(size > MAX_TABLE_SIZE) {
+				throw new IllegalArgumentException("perfect lexeme hash: no collision-free table (duplicate lexemes?)");
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private boolean tryToBuild(T[] values, int size) {
+		mask = size - 1;
+		
+		for(multiplier = 1; multiplier < MAX_MULTIPLIER_TRIES; multiplier += 2) {
+			table = (T[]) Array.newInstance(values.getClass().getComponentType(), size);
+			lexemes = new String[size];
+			
+			if(fillTable(values)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	private boolean fillTable(T[] values) {
+		for(T value: values) {
+			String lexeme = value.getLexeme();
+			if(lexeme.isEmpty()) {
+				continue;
+			}
+			
+			int slot = slotFor(hash(lexeme, 0, lexeme.length(), multiplier));
+			if(lexemes[slot] != null) {
+				return false;
+			}
+			table[slot] = value;
+			lexemes[slot] = lexeme;
+		}
+		return true;
+	}
+}
@@ -81,18 +81,13 @@ public enum Punctuator implements Lextant {
 		}
 	}
 	
-	public static Punctuator forLexeme(String lexeme) {
-		for(Punctuator punctuator: values()) {
-			if(punctuator.lexeme.equals(lexeme)) return punctuator;
-		}
-		return NULL_PUNCTUATOR;
-	}
+	private static PerfectLexemeHash<Punctuator> lexemeToPunctuator = new PerfectLexemeHash<Punctuator>(values(), NULL_PUNCTUATOR);
 	
-/*
-	//   the following hashtable lookup can replace the implementation of forLexeme above. It is faster but less clear. 
-	private static LexemeMap<Punctuator> lexemeToPunctuator = new LexemeMap<Punctuator>(values(), NULL_PUNCTUATOR);
 	public static Punctuator forLexeme(String lexeme) {
-		   return lexemeToPunctuator.forLexeme(lexeme);
+		return lexemeToPunctuator.forLexeme(lexeme);
+	}
+	// the lexeme is chars[start, end); no String is made.
+	public static Punctuator forLexeme(CharSequence chars, int start, int end) {
+		return lexemeToPunctuator.forLexeme(chars, start, end);
 	}
-*/
 }
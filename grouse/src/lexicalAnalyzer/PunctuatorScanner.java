@@ -1,7 +1,7 @@
 package lexicalAnalyzer;
 
 import static lexicalAnalyzer.PunctuatorScanningAids.punctuatorSetForPrefix;
-import inputHandler.LocatedChar;
+import inputHandler.LocatedCharStream;
 import inputHandler.PushbackCharStream;
 
 import java.util.Set;
@@ -9,14 +9,14 @@ import java.util.Set;
 import tokens.Token;
 import utilities.Debug;
 
-/** Algorithm object to scan to find a punctuator.  Invoke only on a character that can start a punctuator lexeme.
+/** Algorithm object to scan to find a punctuator.  Invoke only when the next input character can start a punctuator lexeme.
  * <p>
- *  PunctuatorScanner will grab input characters as long as it as seen a punctuator lexeme prefix.
- *  If it discovers that it has taken input that is not such a prefix, it backtracks (possibly multiple
- *  characters) until it matches a punctuator.  
+ *  PunctuatorScanner will peek at input characters as long as it as seen a punctuator lexeme prefix.
+ *  If it discovers that it has peeked at input that is not such a prefix, it backtracks (possibly multiple
+ *  characters) until it matches a punctuator, and only then consumes the punctuator's characters.
  * <p>
- *  If it cannot find a punctuator starting with the given starting character, it returns a NullToken at the
- *  startingCharacter's location. 
+ *  If it cannot find a punctuator starting with the next character, it consumes nothing and returns a
+ *  NullToken at that character's location. 
  * <p>
  *  PunctuatorScanner uses information derived from the lexeme fields of the enum constants of Punctuator,
  *  and should work regardless of what the set of constants in Punctuator is.
@@ -28,15 +28,16 @@ public class PunctuatorScanner {
 	private PushbackCharStream input;
 	private PartiallyScannedPunctuator scanned;
 	
-	public static Token scan(LocatedChar startingCharacter, PushbackCharStream input) {
-		PunctuatorScanner scanner = new PunctuatorScanner(startingCharacter, input);
+	public static Token scan(PushbackCharStream input) {
+		PunctuatorScanner scanner = new PunctuatorScanner(input);
 		return scanner.scanPunctuator();
 	}
 	
-	private PunctuatorScanner(LocatedChar startingCharacter, PushbackCharStream input) {
+	private PunctuatorScanner(PushbackCharStream input) {
 		this.input = input;
 		
-		scanned = new PartiallyScannedPunctuator(startingCharacter);
+		scanned = new PartiallyScannedPunctuator(input);
+		scanned.add((char)input.peekChar());
 	}
 	
 	private Token scanPunctuator() {
@@ -48,20 +49,21 @@ public class PunctuatorScanner {
 			return scanned.asToken(); // create a Punctuator token
 		}
 		
-		if(punctuators.isEmpty() || !input.hasNext()) {
+		int nextChar = input.peekChar(scanned.length());
+		
+		if(punctuators.isEmpty() || nextChar == LocatedCharStream.END_OF_INPUT) {
 			backupToLastPunctuatorPrefix();
 			return scanned.asToken(); // create a Punctuator token
 		}
 		
-		scanned.add(input.next());
+		scanned.add((char)nextChar);
 		
 		return scanPunctuator();
 	}
 
 	private void backupToLastPunctuatorPrefix() {
 		while(!scanned.isPunctuator() && !scanned.isEmpty()) {
-			LocatedChar lc = scanned.chopTail();
-			input.pushback(lc);
+			scanned.chopTail();
 		}
 	}
 }
@@ -3,40 +3,55 @@ package lexicalAnalyzer;
 import inputHandler.PushbackCharStream;
 import tokens.NullToken;
 import tokens.Token;
+import utilities.CompilationContext;
 import utilities.Debug;
 
 public abstract class ScannerImp implements Scanner {
 	private Token nextToken;
 	private Debug debug = new Debug();
 	protected final PushbackCharStream input;
+	protected final CompilationContext context;		// names are interned and errors logged here
 	
 	protected abstract Token findNextToken();
 
+	// The first token is found when it is first asked for, so that subclasses are
+	// fully constructed before findNextToken runs.
 	public ScannerImp(PushbackCharStream input) {
+		this(input, CompilationContext.current());
+	}
+	public ScannerImp(PushbackCharStream input, CompilationContext context) {
 		super();
 		
 		this.input = input;
+		this.context = context;
 		
-		nextToken = findNextToken();
+		nextToken = null;
 	}
 
 	// Iterator<Token> implementation
 	@Override
 	public boolean hasNext() {
-		return !(nextToken instanceof NullToken);
+		return !(peekToken() instanceof NullToken);
 	}
 
 	@Override
 	public Token next() {
-		Token result = nextToken;
+		Token result = peekToken();
 		
 		nextToken = findNextToken();
 		
 		return result;
 	}
+	
+	private Token peekToken() {
+		if (nextToken == null) {
+			nextToken = findNextToken();
+		}
+		return nextToken;
+	}
 
 	@Override
 	public void remove() {
 		throw new UnsupportedOperationException();
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
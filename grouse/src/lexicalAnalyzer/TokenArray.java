@@ -0,0 +1,319 @@
+package lexicalAnalyzer;
+
+import java.util.Arrays;
+
+import inputHandler.LocatedCharStream;
+import inputHandler.MappedSourceBuffer;
+import inputHandler.TextLocation;
+import tokens.CharacterToken;
+import tokens.FloatToken;
+import tokens.IdentifierToken;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import tokens.NameTable;
+import tokens.NullToken;
+import tokens.StringToken;
+import tokens.Token;
+
+/** The tokens of a whole source file, stored compactly as parallel int arrays.
+ * <p>
+ *  Token i has a kind, a lextant ordinal (for keywords and punctuators), the offset and
+ *  length of its text in the source buffer, and a NameTable id (for identifiers and string
+ *  literals): five ints, where a Token object with its TextLocation and lexeme takes around
+ *  a hundred bytes.  Lexemes and locations are recovered from the source buffer when they
+ *  are asked for, and <code>token(i)</code> builds the equivalent Token object on demand.
+ * <p>
+ *  The last token of the array is always the END token, at which the scanner stopped.
+ *  <code>scanner()</code> reads the array as a Scanner, so it can be handed to the Parser.
+ */
+public class TokenArray {
+	public static final int IDENTIFIER = 0;
+	public static final int INTEGER = 1;
+	public static final int FLOAT = 2;
+	public static final int CHARACTER = 3;
+	public static final int STRING = 4;
+	public static final int KEYWORD = 5;
+	public static final int PUNCTUATOR = 6;
+	public static final int END = 7;
+	
+	public static final int NO_LEXTANT = -1;
+	public static final int NOT_FOUND = -1;
+	private static final int STARTING_CAPACITY = 1024;
+	
+	private static final Keyword[] keywords = Keyword.values();
+	private static final Punctuator[] punctuators = Punctuator.values();
+	
+	private final MappedSourceBuffer source;
+	private final NameTable names;		// of the compilation the array was made in
+	private int[] kinds;
+	private int[] lextants;
+	private int[] starts;
+	private int[] lengths;
+	private int[] nameIds;
+	private int size;
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// factories
+	
+	/** Lex a file, with the current LexicalAnalyzer implementation, into a TokenArray. */
+	public static TokenArray fromFile(String filename) {
+		MappedSourceBuffer source = MappedSourceBuffer.fromFilename(filename);
+		return fromScanner(LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation()), source);
+	}
+	/** Read all tokens of a scanner over source, up to and including its first NullToken. */
+	public static TokenArray fromScanner(Scanner scanner, MappedSourceBuffer source) {
+		TokenArray result = new TokenArray(source, STARTING_CAPACITY);
+		
+		while(scanner.hasNext()) {
+			result.add(scanner.next());
+		}
+		result.add(scanner.next());
+		result.trimToSize();
+		return result;
+	}
+	
+	public TokenArray(MappedSourceBuffer source, int capacity) {
+		this.source = source;
+		this.names = NameTable.getInstance();
+		capacity = Math.max(capacity, 1);
+		kinds = new int[capacity];
+		lextants = new int[capacity];
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		nameIds = new int[capacity];
+		size = 0;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// adding tokens
+	
+	/** Append a token produced by a scanner over this array's source. */
+	public void add(Token token) {
+		int start = offsetOf(token.getLocation());
+		int length = token.getLexeme().length();
+		int kind = kindOf(token);
+		
+		switch(kind) {
+			case IDENTIFIER:	add(kind, NO_LEXTANT, start, length, ((IdentifierToken)token).getNameId());	break;
+			case STRING:		add(kind, NO_LEXTANT, start, length, names.intern(token.getLexeme()));			break;
+			case KEYWORD:
+			case PUNCTUATOR:	add(kind, lextantOrdinalOf(token), start, length, NameTable.NO_NAME);			break;
+			case END:			add(kind, NO_LEXTANT, start, 0, NameTable.NO_NAME);								break;
+			case NOT_FOUND:
+				throw new IllegalArgumentException("token array: cannot store token " + token.fullString());
+			default:			add(kind, NO_LEXTANT, start, length, NameTable.NO_NAME);
+		}
+	}
+	
+	// the kind a token is stored as, or NOT_FOUND if it cannot be stored.
+	private static int kindOf(Token token) {
+		if(token instanceof IdentifierToken)	return IDENTIFIER;
+		if(token instanceof IntegerToken)		return INTEGER;
+		if(token instanceof FloatToken)			return FLOAT;
+		if(token instanceof CharacterToken)		return CHARACTER;
+		if(token instanceof StringToken)		return STRING;
+		if(token instanceof NullToken)			return END;
+		if(token instanceof LextantToken) {
+			return (((LextantToken)token).getLextant() instanceof Keyword) ? KEYWORD : PUNCTUATOR;
+		}
+		return NOT_FOUND;
+	}
+	private static int lextantOrdinalOf(Token token) {
+		return ((Enum<?>)((LextantToken)token).getLextant()).ordinal();
+	}
+	public void add(int kind, int lextant, int start, int length, int nameId) {
+		if(size == kinds.length) {
+			grow(size * 2);
+		}
+		kinds[size] = kind;
+		lextants[size] = lextant;
+		starts[size] = start;
+		lengths[size] = length;
+		nameIds[size] = nameId;
+		size++;
+	}
+	
+	/** Append tokens [from, to) of another array over the same source. */
+	public void addAll(TokenArray other, int from, int to) {
+		addAll(other, from, to, 0);
+	}
+	/** Append tokens [from, to) of another array, moving them shift characters further into the source. */
+	public void addAll(TokenArray other, int from, int to, int shift) {
+		int count = to - from;
+		if(size + count > kinds.length) {
+			grow(Math.max(size + count, size * 2));
+		}
+		System.arraycopy(other.kinds, from, kinds, size, count);
+		System.arraycopy(other.lextants, from, lextants, size, count);
+		System.arraycopy(other.starts, from, starts, size, count);
+		System.arraycopy(other.lengths, from, lengths, size, count);
+		System.arraycopy(other.nameIds, from, nameIds, size, count);
+		if(shift != 0) {
+			for(int i = size; i < size + count; i++) {
+				starts[i] += shift;
+			}
+		}
+		size += count;
+	}
+	
+	// tokens are located at source offsets, and the END token at or beyond the end of the source.
+	private int offsetOf(TextLocation location) {
+		if(location == LocatedCharStream.FLAG_END_OF_INPUT.getLocation()) {
+			return source.length();
+		}
+		return source.lineStart(location.getLineNumber()) + location.getPosition();
+	}
+	
+	private void grow(int capacity) {
+		kinds = Arrays.copyOf(kinds, capacity);
+		lextants = Arrays.copyOf(lextants, capacity);
+		starts = Arrays.copyOf(starts, capacity);
+		lengths = Arrays.copyOf(lengths, capacity);
+		nameIds = Arrays.copyOf(nameIds, capacity);
+	}
+	public void trimToSize() {
+		grow(Math.max(size, 1));
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	public int size() {
+		return size;
+	}
+	public MappedSourceBuffer getSource() {
+		return source;
+	}
+	public int kind(int i) {
+		return kinds[i];
+	}
+	public int startOffset(int i) {
+		return starts[i];
+	}
+	public int length(int i) {
+		return lengths[i];
+	}
+	public int nameId(int i) {
+		return nameIds[i];
+	}
+	/** Get the index of the first token that starts at or after offset, or size() if there is none. */
+	public int firstTokenAtOrAfter(int offset) {
+		int low = 0;
+		int high = size;
+		
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(starts[middle] < offset) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/** Get the index of the token of this array that token stands for: the one at its location,
+	 *  if it is of the same kind.  Returns NOT_FOUND for tokens that did not come from the
+	 *  array's source, such as the VoidTokens the Parser makes.
+	 */
+	public int indexOf(Token token) {
+		int kind = kindOf(token);
+		if(kind == NOT_FOUND) {
+			return NOT_FOUND;
+		}
+		int offset = offsetOf(token.getLocation());
+		int i = firstTokenAtOrAfter(offset);
+		
+		if(i == size || starts[i] != offset || kinds[i] != kind) {
+			return NOT_FOUND;
+		}
+		if((kind == KEYWORD || kind == PUNCTUATOR) && lextants[i] != lextantOrdinalOf(token)) {
+			return NOT_FOUND;
+		}
+		return i;
+	}
+	
+	/** Get the Keyword or Punctuator of token i, or null if it is neither. */
+	public Lextant lextant(int i) {
+		switch(kinds[i]) {
+			case KEYWORD:		return keywords[lextants[i]];
+			case PUNCTUATOR:	return punctuators[lextants[i]];
+			default:			return null;
+		}
+	}
+	public boolean isLextant(int i, Lextant ...candidates) {
+		Lextant lextant = lextant(i);
+		for(Lextant candidate: candidates) {
+			if(lextant == candidate) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public String lexeme(int i) {
+		switch(kinds[i]) {
+			case IDENTIFIER:
+			case STRING:		return names.nameOf(nameIds[i]);
+			case KEYWORD:
+			case PUNCTUATOR:	return lextant(i).getLexeme();
+			case CHARACTER:		return source.substring(starts[i] + 1, starts[i] + 1 + lengths[i]);	// after the quote
+			case END:			return "";
+			default:			return source.substring(starts[i], starts[i] + lengths[i]);
+		}
+	}
+	public TextLocation location(int i) {
+		if(starts[i] >= source.length()) {
+			return LocatedCharStream.FLAG_END_OF_INPUT.getLocation();
+		}
+		return source.locationOf(starts[i]);
+	}
+	
+	/** Build the Token object for token i.  It is equal, field for field, to the token the scanner produced. */
+	public Token token(int i) {
+		TextLocation location = location(i);
+		
+		switch(kinds[i]) {
+			case IDENTIFIER:	return IdentifierToken.make(location, nameIds[i]);
+			case INTEGER:		return IntegerToken.make(location, lexeme(i));
+			case FLOAT:			return FloatToken.make(location, lexeme(i));
+			case CHARACTER:		return CharacterToken.make(location, lexeme(i));
+			case STRING:		return StringToken.make(location, lexeme(i));
+			case KEYWORD:
+			case PUNCTUATOR:	return LextantToken.make(location, lexeme(i), lextant(i));
+			case END:			return NullToken.make(location);
+			default:
+				throw new IllegalArgumentException("token array: unknown kind " + kinds[i]);
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// reading as a Scanner
+	
+	/** Read the tokens in order, building each Token object as it is reached.  The END token repeats forever. */
+	public Scanner scanner() {
+		return new ArrayScanner();
+	}
+	
+	private class ArrayScanner implements Scanner {
+		private int index = 0;
+		
+		@Override
+		public boolean hasNext() {
+			return kinds[index] != END;
+		}
+		@Override
+		public Token next() {
+			Token result = token(index);
+			if(kinds[index] != END) {
+				index++;
+			}
+			return result;
+		}
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package lexicalAnalyzer;
+
+import java.util.concurrent.locks.LockSupport;
+
+import inputHandler.MappedSourceBuffer;
+import tokens.NullToken;
+import tokens.Token;
+import utilities.CompilationContext;
+
+/** A Scanner that buffers the tokens of another Scanner in a ring, so that the next token
+ *  can be peeked at without being consumed.
+ * <p>
+ *  The ring is an array of token slots that is reused as tokens are consumed.  The first
+ *  NullToken of the underlying scanner ends the stream: from then on it is returned forever.
+ * <p>
+ *  With <code>makeWithProducerThread</code> the underlying scanner runs on a thread of its
+ *  own, up to a ring's worth of tokens ahead of the consumer, so that lexing and parsing
+ *  overlap.  Producer and consumer share only the ring and two counters (one written by
+ *  each side), and wait for each other by spinning briefly and then parking.  The producer
+ *  thread works in the CompilationContext that was current when the buffer was made.  Note
+ *  that lexical errors are then logged from the producer thread, so they may interleave
+ *  differently with the consumer's messages.  <code>forSource</code> uses a producer thread
+ *  only for large sources, and only when there is a processor for it to run on.
+ */
+public class TokenBuffer implements Scanner {
+	public static final int PRODUCER_RING_CAPACITY = 1 << 12;
+	public static final int MINIMUM_PRODUCER_SOURCE_LENGTH = 1 << 16;
+	private static final int SPINS_BEFORE_PARKING = 1 << 8;
+	private static final long PARK_NANOS = 20_000;
+	private static final int PUBLISHING_BATCH = 1 << 6;
+	private static final long NOT_ENDED = Long.MAX_VALUE;
+	
+	private final Scanner scanner;
+	private final Token[] ring;
+	private final int mask;
+	
+	// Each side publishes its counter to the other only every PUBLISHING_BATCH tokens (and
+	// whenever it has to wait), and keeps its last view of the other side's counter, so that
+	// the two threads rarely touch the same cache line.
+	private long consumed;				// consumer side
+	private long producedSeen;
+	private long produced;				// producer side
+	private long releasedSeen;
+	private volatile long released;		// consumed, as last published
+	private volatile long published;	// produced, as last published
+	private long endIndex;				// index of the final NullToken; written before it is published
+	
+	private final CompilationContext context;
+	private Thread producer;
+	private volatile boolean closed;
+	private volatile RuntimeException producerFailure;
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// factories
+	
+	/** Buffer the tokens of scanner in the calling thread. */
+	public static TokenBuffer make(Scanner scanner) {
+		return new TokenBuffer(scanner, 1);
+	}
+	/** Run scanner on a producer thread that fills the buffer ahead of the consumer. */
+	public static TokenBuffer makeWithProducerThread(Scanner scanner) {
+		TokenBuffer result = new TokenBuffer(scanner, PRODUCER_RING_CAPACITY);
+		result.startProducer();
+		return result;
+	}
+	/** Buffer scanner, the scanner for source, on a producer thread if source is large and
+	 *  there is more than one processor, and in the calling thread otherwise.
+	 */
+	public static TokenBuffer forSource(MappedSourceBuffer source, Scanner scanner) {
+		if(source.length() >= MINIMUM_PRODUCER_SOURCE_LENGTH && Runtime.getRuntime().availableProcessors() > 1) {
+			return makeWithProducerThread(scanner);
+		}
+		return make(scanner);
+	}
+	
+	private TokenBuffer(Scanner scanner, int capacity) {
+		this.scanner = scanner;
+		this.ring = new Token[Integer.highestOneBit(capacity * 2 - 1)];
+		this.mask = ring.length - 1;
+		this.endIndex = NOT_ENDED;
+		this.context = CompilationContext.current();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// consuming
+	
+	/** Get the token next() returns, without consuming it. */
+	public Token peek() {
+		awaitToken();
+		return ring[(int)(Math.min(consumed, endIndex) & mask)];
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return !(peek() instanceof NullToken);
+	}
+	
+	@Override
+	public Token next() {
+		Token result = peek();
+		
+		if(consumed < endIndex) {
+			consumed++;
+			if((consumed & (PUBLISHING_BATCH - 1)) == 0) {
+				released = consumed;
+			}
+		}
+		return result;
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/** Stop the producer thread, if any.  The buffer must not be read afterwards. */
+	public void close() {
+		closed = true;
+		if(producer != null) {
+			LockSupport.unpark(producer);
+		}
+	}
+	
+	// make sure the token at consumed is in the ring, or the stream has ended before it.
+	private void awaitToken() {
+		if(producer == null) {
+			if(produced == consumed && produced <= endIndex) {
+				produceOne();
+			}
+			return;
+		}
+		if(producedSeen > consumed || producedSeen > endIndex) {
+			return;
+		}
+		released = consumed;
+		for(int waits = 0; !hasToken(); waits++) {
+			checkProducer();
+			pause(waits);
+		}
+	}
+	private boolean hasToken() {
+		producedSeen = published;		// read before endIndex, which is then up to date
+		return producedSeen > consumed || producedSeen > endIndex;
+	}
+	private void checkProducer() {
+		if(producerFailure != null) {
+			throw producerFailure;
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// producing
+	
+	private void produceOne() {
+		long index = produced;
+		Token token = scanner.next();
+		
+		ring[(int)(index & mask)] = token;
+		produced = index + 1;
+		if(token instanceof NullToken) {
+			endIndex = index;
+			published = produced;
+		}
+		else if(producer != null && (produced & (PUBLISHING_BATCH - 1)) == 0) {
+			published = produced;
+		}
+	}
+	
+	private void startProducer() {
+		producer = new Thread(() -> context.run(this::runProducer), "grouse-lexer");
+		producer.setDaemon(true);
+		producer.start();
+	}
+	private void runProducer() {
+		try {
+			while(!closed && produced <= endIndex) {
+				if(produced - releasedSeen >= ring.length && !awaitSpace()) {
+					return;
+				}
+				produceOne();
+			}
+		}
+		catch(RuntimeException e) {
+			producerFailure = e;
+			published = produced;
+		}
+	}
+	// returns false if the buffer was closed while waiting
+	private boolean awaitSpace() {
+		published = produced;
+		for(int waits = 0; produced - (releasedSeen = released) >= ring.length; waits++) {
+			if(closed) {
+				return false;
+			}
+			pause(waits);
+		}
+		return true;
+	}
+	
+	private static void pause(int waits) {
+		if(waits < SPINS_BEFORE_PARKING) {
+			Thread.onSpinWait();
+		}
+		else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package lexicalAnalyzer.tests;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import inputHandler.MappedSourceBuffer;
+import inputHandler.PushbackCharStream;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenArray;
+
+/** Sources and comparisons shared by the lexer tests.  Every other way of lexing is checked
+ *  against the sequential, hand-written LexicalAnalyzer.
+ */
+public class LexerFixtures {
+	// lines with every kind of token, strings and comments that cross line boundaries, a
+	// string and a comment at the start of a line, and a lexical error.
+	public static final String[] MIXED_LINES = {
+		"main {\n",
+		"  imm x := -5.; s := \"str\" + 'c;\n",
+		"  imm t := \"unterminated\n",
+		"  still in a string\" x\n",
+		"// a comment\n",
+		"// the first character of this line ends the comment above\n",
+		"\"a string at the start of a line\"\n",
+		"  print x~y, 12, 3.25 nl; // comment \"with a quote\n",
+		"  averyveryverylongidentifierofmorethan32characters := x;\n",
+		"  y := x + 4 * (z - 1);\n",
+		"\n",
+		"}\n",
+	};
+	public static final String MIXED_SOURCE = String.join("", MIXED_LINES);
+	
+	// a line at which the sequential scanner stops early (=z is not a token).
+	public static final String EARLY_STOP_LINE = "  x := y =z\n";
+	
+	public static MappedSourceBuffer source(String text) {
+		return MappedSourceBuffer.fromString("mixed", text);
+	}
+	public static PushbackCharStream streamFor(String text) {
+		return PushbackCharStream.make(source(text));
+	}
+	/** The sequential, hand-written scanner for text. */
+	public static Scanner scannerFor(String text) {
+		return new LexicalAnalyzer(streamFor(text));
+	}
+	/** The tokens of the sequential, hand-written scanner for source. */
+	public static TokenArray sequentialTokens(MappedSourceBuffer source) {
+		return TokenArray.fromScanner(new LexicalAnalyzer(PushbackCharStream.make(source)), source);
+	}
+	
+	/** Check that actual returns the same tokens as expected, and then ends the same way. */
+	public static void assertSameTokens(Scanner expected, Scanner actual) {
+		while(expected.hasNext()) {
+			assertTrue(actual.hasNext());
+			assertEquals(expected.next().fullString(), actual.next().fullString());
+		}
+		assertFalse(actual.hasNext());
+		assertEquals(expected.next().fullString(), actual.next().fullString());
+	}
+	public static void assertSameTokens(TokenArray expected, TokenArray actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.token(i).fullString(), actual.token(i).fullString());
+		}
+	}
+}
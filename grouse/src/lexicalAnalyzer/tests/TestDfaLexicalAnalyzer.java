@@ -0,0 +1,50 @@
+package lexicalAnalyzer.tests;
+
+import static applications.tests.FixtureDefinitions.TOKEN_PRINTER_INPUT_FILENAME;
+import static lexicalAnalyzer.tests.LexerFixtures.*;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.DfaLexicalAnalyzer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Scanner;
+import utilities.CompilationContext;
+
+public class TestDfaLexicalAnalyzer extends TestCase {
+	private static final String TRICKY_SOURCE =
+			"main {\n" +
+			"  imm x := -5.; a--5->b::c:=d<=e>=f!=g==h&&i||j&k\n" +
+			"  x~y _y 5.5.5 3..4 mainx main2 imm_ pri printx -x\n" +
+			"  \"str\" + \"unterminated\n" +
+			"  averyveryverylongidentifierofmorethan32characters := 'a; // comment\n" +
+			"  x = y\n" +
+			"}\n";
+	
+	public void testSameTokensOnFixture() {
+		Scanner handWritten = LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME, LexicalAnalyzer.Implementation.HAND_WRITTEN);
+		Scanner tableDriven = LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME, LexicalAnalyzer.Implementation.TABLE_DRIVEN);
+		
+		assertSameTokens(handWritten, tableDriven);
+	}
+	
+	public void testSameTokensOnMixedSource() {
+		Scanner handWritten = new LexicalAnalyzer(streamFor(MIXED_SOURCE));
+		Scanner tableDriven = new DfaLexicalAnalyzer(streamFor(MIXED_SOURCE));
+		
+		assertSameTokens(handWritten, tableDriven);
+	}
+	
+	public void testSameTokensOnTrickySource() {
+		Scanner handWritten = new LexicalAnalyzer(streamFor(TRICKY_SOURCE));
+		Scanner tableDriven = new DfaLexicalAnalyzer(streamFor(TRICKY_SOURCE));
+		
+		assertSameTokens(handWritten, tableDriven);
+	}
+	
+	public void testImplementationIsChosenPerContext() {
+		CompilationContext tableDriven = new CompilationContext();
+		tableDriven.setLexerImplementation(LexicalAnalyzer.Implementation.TABLE_DRIVEN);
+		
+		assertTrue(tableDriven.call(() -> LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME)) instanceof DfaLexicalAnalyzer);
+		assertFalse(new CompilationContext().call(() -> LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME)) instanceof DfaLexicalAnalyzer);
+	}
+}
@@ -0,0 +1,74 @@
+package lexicalAnalyzer.tests;
+
+import static lexicalAnalyzer.tests.LexerFixtures.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import inputHandler.MappedSourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.IncrementalLexer;
+
+public class TestIncrementalLexer extends TestCase {
+	
+	public void testEditsInsideAndAcrossLines() {
+		String text = MIXED_SOURCE;
+		IncrementalLexer snapshot = IncrementalLexer.lex(source(text));
+		
+		snapshot = assertRelexedCorrectly(snapshot, text.replace("-5.", "-52."));
+		snapshot = assertRelexedCorrectly(snapshot, text.replace("// a comment\n", ""));
+		snapshot = assertRelexedCorrectly(snapshot, text.replace("still in a string\" x", "still in a string x"));
+		snapshot = assertRelexedCorrectly(snapshot, text.replace("  y := x", "  y := \"x"));
+		snapshot = assertRelexedCorrectly(snapshot, text.replace("main {\n", "main {\n" + EARLY_STOP_LINE));
+		snapshot = assertRelexedCorrectly(snapshot, text + "  z := 1;\n");
+		snapshot = assertRelexedCorrectly(snapshot, text);
+	}
+	
+	public void testRandomEdits() {
+		Random random = new Random(11);
+		List<String> lines = new ArrayList<String>();
+		for(int i = 0; i < 60; i++) {
+			lines.add(randomLine(random));
+		}
+		IncrementalLexer snapshot = IncrementalLexer.lex(source(String.join("", lines)));
+		
+		for(int edit = 0; edit < 300; edit++) {
+			int line = random.nextInt(lines.size() + 1);
+			switch(random.nextInt(3)) {
+				case 0:		lines.add(line, randomLine(random));			break;
+				case 1:		if(line < lines.size()) lines.remove(line);		break;
+				default:	if(line < lines.size()) lines.set(line, randomLine(random));
+			}
+			snapshot = assertRelexedCorrectly(snapshot, String.join("", lines));
+		}
+	}
+	
+	public void testLexesOnlyNearTheEdit() {
+		StringBuilder text = new StringBuilder("main {\n");
+		for(int i = 0; i < 1000; i++) {
+			text.append("  imm x").append(i).append(" := ").append(i).append(" * 3;").append(i % 10 == 0 ? " // tens\n" : "\n");
+		}
+		text.append("}\n");
+		IncrementalLexer snapshot = IncrementalLexer.lex(source(text.toString()));
+		
+		String edited = text.toString().replace("imm x500 := 500", "imm x500 := 5000");
+		IncrementalLexer relexed = assertRelexedCorrectly(snapshot, edited);
+		assertTrue(relexed.getLexedLength() < 100);
+	}
+	
+	private static String randomLine(Random random) {
+		if(random.nextInt(8) == 0) {
+			return EARLY_STOP_LINE;
+		}
+		return MIXED_LINES[random.nextInt(MIXED_LINES.length)];
+	}
+	
+	private IncrementalLexer assertRelexedCorrectly(IncrementalLexer snapshot, String text) {
+		MappedSourceBuffer source = source(text);
+		IncrementalLexer result = snapshot.relex(source);
+		
+		assertSameTokens(sequentialTokens(source), result.getTokens());
+		return result;
+	}
+}
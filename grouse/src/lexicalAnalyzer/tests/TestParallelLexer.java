@@ -0,0 +1,42 @@
+package lexicalAnalyzer.tests;
+
+import static lexicalAnalyzer.tests.LexerFixtures.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import inputHandler.MappedSourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.ParallelLexer;
+import lexicalAnalyzer.TokenArray;
+
+public class TestParallelLexer extends TestCase {
+	
+	public void testSplitPointsAreLineStarts() {
+		MappedSourceBuffer source = source(MIXED_SOURCE);
+		int[] splits = ParallelLexer.splitPoints(source, 8);
+		
+		assertEquals(0, splits[0]);
+		assertEquals(source.length(), splits[splits.length - 1]);
+		for(int i = 1; i < splits.length - 1; i++) {
+			assertEquals('\n', source.charAt(splits[i] - 1));
+			assertTrue(splits[i] > splits[i - 1]);
+		}
+	}
+	
+	public void testSameTokensForAnyChunking() {
+		assertSameTokensForAnyChunking(MIXED_SOURCE);
+	}
+	
+	public void testEarlyStopInAChunk() {
+		assertSameTokensForAnyChunking(MIXED_SOURCE + EARLY_STOP_LINE + MIXED_SOURCE);
+	}
+	
+	private void assertSameTokensForAnyChunking(String text) {
+		MappedSourceBuffer source = source(text);
+		TokenArray expected = sequentialTokens(source);
+		
+		for(int chunkCount = 1; chunkCount < 16; chunkCount++) {
+			assertSameTokens(expected, ParallelLexer.lex(source, ForkJoinPool.commonPool(), chunkCount));
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package lexicalAnalyzer.tests;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Punctuator;
+
+public class TestPerfectLexemeHash extends TestCase {
+	
+	public void testEveryKeywordIsFound() {
+		for(Keyword keyword: Keyword.values()) {
+			assertEquals(keyword, Keyword.forLexeme(keyword.getLexeme()));
+		}
+	}
+	
+	public void testEveryPunctuatorIsFound() {
+		for(Punctuator punctuator: Punctuator.values()) {
+			assertEquals(punctuator, Punctuator.forLexeme(punctuator.getLexeme()));
+		}
+	}
+	
+	public void testNonLexemes() {
+		String[] identifiers = { "x", "mainx", "prin", "printt", "Int", "i", "continues", "tupl", "imm_", "_" };
+		for(String identifier: identifiers) {
+			assertEquals(Keyword.NULL_KEYWORD, Keyword.forLexeme(identifier));
+		}
+		assertEquals(Punctuator.NULL_PUNCTUATOR, Punctuator.forLexeme("="));
+		assertEquals(Punctuator.NULL_PUNCTUATOR, Punctuator.forLexeme("|"));
+		assertEquals(Punctuator.NULL_PUNCTUATOR, Punctuator.forLexeme("+="));
+	}
+	
+	public void testLookupOnRange() {
+		String source = "var count:=imm";
+		
+		assertEquals(Keyword.VARIABLE, Keyword.forLexeme(source, 0, 3));
+		assertEquals(Keyword.COUNT, Keyword.forLexeme(source, 4, 9));
+		assertEquals(Punctuator.ASSIGN, Punctuator.forLexeme(source, 9, 11));
+		assertEquals(Keyword.IMMUTABLE, Keyword.forLexeme(source, 11, 14));
+		assertEquals(Keyword.NULL_KEYWORD, Keyword.forLexeme(source, 4, 8));
+		assertEquals(Keyword.NULL_KEYWORD, Keyword.forLexeme(source, 4, 4));
+	}
+}
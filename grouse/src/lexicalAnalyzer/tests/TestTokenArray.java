@@ -0,0 +1,41 @@
+package lexicalAnalyzer.tests;
+
+import static applications.tests.FixtureDefinitions.TOKEN_PRINTER_INPUT_FILENAME;
+import static lexicalAnalyzer.tests.LexerFixtures.*;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenArray;
+
+public class TestTokenArray extends TestCase {
+	
+	public void testSameTokensOnFixture() {
+		Scanner expected = LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME);
+		TokenArray tokens = TokenArray.fromFile(TOKEN_PRINTER_INPUT_FILENAME);
+		
+		assertSameTokens(expected, tokens.scanner());
+	}
+	
+	public void testSameTokensOnMixedSource() {
+		String text = MIXED_SOURCE + EARLY_STOP_LINE;
+		TokenArray tokens = sequentialTokens(source(text));
+		
+		assertSameTokens(scannerFor(text), tokens.scanner());
+	}
+	
+	public void testFields() {
+		TokenArray tokens = sequentialTokens(source("main x 'c"));
+		
+		assertEquals(4, tokens.size());
+		assertEquals(TokenArray.KEYWORD, tokens.kind(0));
+		assertTrue(tokens.isLextant(0, Keyword.MAIN));
+		assertEquals(TokenArray.IDENTIFIER, tokens.kind(1));
+		assertEquals(5, tokens.startOffset(1));
+		assertEquals("x", tokens.lexeme(1));
+		assertEquals(TokenArray.CHARACTER, tokens.kind(2));
+		assertEquals("c", tokens.lexeme(2));
+		assertEquals(TokenArray.END, tokens.kind(3));
+	}
+}
@@ -0,0 +1,55 @@
+package lexicalAnalyzer.tests;
+
+import static applications.tests.FixtureDefinitions.TOKEN_PRINTER_INPUT_FILENAME;
+import static lexicalAnalyzer.tests.LexerFixtures.*;
+
+import inputHandler.MappedSourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenBuffer;
+import tokens.NullToken;
+
+public class TestTokenBuffer extends TestCase {
+	
+	public void testSameTokensAsScanner() {
+		Scanner expected = LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME);
+		TokenBuffer buffer = TokenBuffer.make(LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME));
+		
+		assertSameTokens(expected, buffer);
+	}
+	
+	public void testSameTokensWithProducerThread() {
+		Scanner expected = LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME);
+		TokenBuffer buffer = TokenBuffer.makeWithProducerThread(LexicalAnalyzer.make(TOKEN_PRINTER_INPUT_FILENAME));
+		
+		assertSameTokens(expected, buffer);
+		buffer.close();
+	}
+	
+	public void testPeek() {
+		TokenBuffer buffer = TokenBuffer.make(scannerFor("a b"));
+		
+		assertEquals("a", buffer.peek().getLexeme());
+		assertEquals("a", buffer.next().getLexeme());
+		assertEquals("b", buffer.peek().getLexeme());
+		assertEquals("b", buffer.next().getLexeme());
+		assertTrue(buffer.peek() instanceof NullToken);
+		assertFalse(buffer.hasNext());
+		assertTrue(buffer.next() instanceof NullToken);
+		assertTrue(buffer.next() instanceof NullToken);
+	}
+	
+	// large enough for a producer thread, if there is a processor for one.
+	public void testSameTokensForLargeSource() {
+		StringBuilder source = new StringBuilder();
+		while(source.length() < TokenBuffer.MINIMUM_PRODUCER_SOURCE_LENGTH) {
+			source.append("imm x := 12 + 3.5; # comment #\n");
+		}
+		MappedSourceBuffer buffered = source(source.toString());
+		TokenBuffer buffer = TokenBuffer.forSource(buffered, LexicalAnalyzer.make(buffered, LexicalAnalyzer.getImplementation()));
+		
+		assertSameTokens(scannerFor(source.toString()), buffer);
+		buffer.close();
+	}
+}
@@ -1,46 +1,93 @@
 package logging;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import utilities.CompilationContext;
+
 /** This class is a Facade for java.util.logging.
  * It also retains the number of messages that have been logged.
  * Optionally, one may configure this logger to throw an exception
  * when a certain message count is reached.
  * <p>
- * Retains hard references to all loggers created.
+ * Loggers and the message count belong to a CompilationContext; the static
+ * interface uses the current one.
+ * <p>
+ * Work done on another thread can collect the messages it logs with
+ * <code>collectMessages</code>, so that they are logged (and counted) later,
+ * by <code>logAll</code>, in an order that does not depend on the threads.
  */ 
 
 public class GrouseLogger {
-	private static Map<String, GrouseLogger> loggers = new HashMap<String, GrouseLogger>();
-	private static int numMessages = 0;
-	private static int maxMessagesBeforeQuit = Integer.MAX_VALUE;
-	
 	////////////////////////////////////////////////////////////////
 	// static interface
 	public static GrouseLogger getLogger(String loggerName) {
-		if(!loggers.containsKey(loggerName)) {
-			loggers.put(loggerName, new GrouseLogger(loggerName)); 
-		}
-		return loggers.get(loggerName);
+		return CompilationContext.current().getLogger(loggerName);
 	}
 	public static boolean hasErrors() {
-		return numMessages != 0;
+		return CompilationContext.current().hasErrors();
 	}
 	public static void setMaximumErrorMessages(int numMessages) {
-		maxMessagesBeforeQuit = numMessages;
+		CompilationContext.current().setMaximumErrorMessages(numMessages);
+	}
+	
+	/** Do work on this thread, keeping the messages it logs instead of logging them.
+	 * @return the kept messages, in the order they were logged.
+	 */
+	public static List<Message> collectMessages(Runnable work) {
+		List<Message> saved = collectedMessages.get();
+		List<Message> result = new ArrayList<Message>();
+		collectedMessages.set(result);
+		try {
+			work.run();
+		}
+		finally {
+			collectedMessages.set(saved);
+		}
+		return result;
+	}
+	/** Log messages kept by collectMessages, in order. */
+	public static void logAll(List<Message> messages) {
+		for(Message message: messages) {
+			message.logger.log(message.level, message.text);
+		}
+	}
+	
+	private static final ThreadLocal<List<Message>> collectedMessages = new ThreadLocal<List<Message>>();
+	
+	public static class Message {
+		private final GrouseLogger logger;
+		private final Level level;
+		private final String text;
+		
+		private Message(GrouseLogger logger, Level level, String text) {
+			this.logger = logger;
+			this.level = level;
+			this.text = text;
+		}
+		
+		public String getText() {
+			return text;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////
 	// per-instance code
 	private Logger logger;
-	private GrouseLogger(String loggerName) {
+	private CompilationContext context;
+	public GrouseLogger(String loggerName, CompilationContext context) {
 		logger = Logger.getLogger(loggerName);
+		this.context = context;
 	}
 	
 	public void log(Level level, String message) {
+		List<Message> collected = collectedMessages.get();
+		if(collected != null) {
+			collected.add(new Message(this, level, message));
+			return;
+		}
 		logger.log(level, message);
 		incrementNumMessages();
 	}
@@ -48,8 +95,7 @@ public class GrouseLogger {
 		log(Level.SEVERE, message);
 	}
 	private void incrementNumMessages() {
-		numMessages++;
-		if(numMessages >= maxMessagesBeforeQuit) {
+		if(context.countMessage()) {
 			throw new GrouseLoggerException("Too many error messages.  Aborting.");
 		}
 	}
@@ -0,0 +1,256 @@
+package parseTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import lexicalAnalyzer.TokenArray;
+import parseTree.nodeTypes.*;
+import semanticAnalyzer.types.Type;
+import tokens.Token;
+
+/** An abstract syntax tree stored compactly as parallel int arrays, for keeping the trees of
+ *  very large programs.
+ * <p>
+ *  A node is an int handle.  Node h has a kind (its ParseNode class), the index of its token
+ *  in the TokenArray the program was parsed from, its first child and its next sibling, and
+ *  the id of its type in a table of the arena's types: five ints, where a ParseNode with its
+ *  list of children and its Token takes a few hundred bytes.  Tokens that are not in the
+ *  TokenArray (the VoidTokens the Parser makes) are kept in a short side list.
+ * <p>
+ *  <code>fromTree</code> stores a tree; <code>toParseTree</code> builds the equivalent tree of
+ *  ParseNodes again, for the visitors.  Handles are given out level by level, so a node's
+ *  parent always has a smaller handle than it; the root is 0.  Scopes, bindings and labels
+ *  are not kept: they are made by semantic analysis and code generation from the tree.
+ */
+public class AstArena {
+	public static final int NO_NODE = -1;
+	private static final int STARTING_CAPACITY = 1024;
+	
+	private static final List<Class<? extends ParseNode>> nodeClasses = new ArrayList<Class<? extends ParseNode>>();
+	private static final List<Function<Token, ParseNode>> nodeFactories = new ArrayList<Function<Token, ParseNode>>();
+	private static final Map<Class<? extends ParseNode>, Integer> kindOfClass = new HashMap<Class<? extends ParseNode>, Integer>();
+	
+	static {
+		kind(ProgramNode.class, ProgramNode::new);
+		kind(MainBlockNode.class, MainBlockNode::new);
+		kind(BlockStatementNode.class, BlockStatementNode::new);
+		kind(TupleDefinitionNode.class, TupleDefinitionNode::new);
+		kind(TupleImplementationNode.class, TupleImplementationNode::new);
+		kind(FunctionDefinitionNode.class, FunctionDefinitionNode::new);
+		kind(FunctionImplementationNode.class, FunctionImplementationNode::new);
+		kind(ParameterListNode.class, ParameterListNode::new);
+		kind(ParameterNode.class, ParameterNode::new);
+		kind(TypeNode.class, TypeNode::new);
+		kind(DeclarationNode.class, DeclarationNode::new);
+		kind(StaticVariableNode.class, StaticVariableNode::new);
+		kind(LetStatementNode.class, LetStatementNode::new);
+		kind(PrintStatementNode.class, PrintStatementNode::new);
+		kind(SeparatorNode.class, SeparatorNode::new);
+		kind(NewlineNode.class, NewlineNode::new);
+		kind(IfStatementNode.class, IfStatementNode::new);
+		kind(WhileStatementNode.class, WhileStatementNode::new);
+		kind(ForStatementNode.class, ForStatementNode::new);
+		kind(ForEverNode.class, ForEverNode::new);
+		kind(BreakNode.class, BreakNode::new);
+		kind(ContinueNode.class, ContinueNode::new);
+		kind(DiagStatementNode.class, DiagStatementNode::new);
+		kind(BinaryOperatorNode.class, BinaryOperatorNode::new);
+		kind(UnaryOperatorNode.class, UnaryOperatorNode::new);
+		kind(CastNode.class, CastNode::new);
+		kind(IdentifierNode.class, IdentifierNode::new);
+		kind(IntegerConstantNode.class, IntegerConstantNode::new);
+		kind(FloatConstantNode.class, FloatConstantNode::new);
+		kind(CharacterConstantNode.class, CharacterConstantNode::new);
+		kind(StringConstantNode.class, StringConstantNode::new);
+		kind(BooleanConstantNode.class, BooleanConstantNode::new);
+		kind(ErrorNode.class, ErrorNode::new);
+	}
+	private static void kind(Class<? extends ParseNode> nodeClass, Function<Token, ParseNode> factory) {
+		kindOfClass.put(nodeClass, nodeClasses.size());
+		nodeClasses.add(nodeClass);
+		nodeFactories.add(factory);
+	}
+	
+	private final TokenArray tokens;
+	private int[] kinds;
+	private int[] tokenIndices;			// into tokens, or -(i+1) for extraTokens.get(i)
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private int[] typeIds;
+	private int size;
+	
+	private final List<Token> extraTokens = new ArrayList<Token>();
+	private final List<Type> types = new ArrayList<Type>();
+	private final Map<Type, Integer> typeIdOfType = new HashMap<Type, Integer>();
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// storing a tree
+	
+	/** Store the tree at root, which was parsed from tokens. */
+	public static AstArena fromTree(ParseNode root, TokenArray tokens) {
+		AstArena result = new AstArena(tokens, STARTING_CAPACITY);
+		List<ParseNode> nodes = new ArrayList<ParseNode>();
+		nodes.add(root);
+		
+		for(int handle = 0; handle < nodes.size(); handle++) {
+			ParseNode node = nodes.get(handle);
+			result.add(node);
+			
+			int previous = NO_NODE;
+			for(ParseNode child: node.getChildren()) {
+				int childHandle = nodes.size();
+				nodes.add(child);
+				result.link(handle, previous, childHandle);
+				previous = childHandle;
+			}
+		}
+		result.trimToSize();
+		return result;
+	}
+	
+	private AstArena(TokenArray tokens, int capacity) {
+		this.tokens = tokens;
+		kinds = new int[capacity];
+		tokenIndices = new int[capacity];
+		firstChildren = new int[capacity];
+		nextSiblings = new int[capacity];
+		typeIds = new int[capacity];
+		Arrays.fill(firstChildren, NO_NODE);
+		Arrays.fill(nextSiblings, NO_NODE);
+		size = 0;
+	}
+	
+	private void add(ParseNode node) {
+		if(size == kinds.length) {
+			grow(2 * size);
+		}
+		kinds[size] = kindOf(node);
+		tokenIndices[size] = tokenIndexOf(node.getToken());
+		typeIds[size] = typeIdOf(node.getType());
+		size++;
+	}
+	// the links are made before child is added, so the arrays may have to grow for it.
+	private void link(int parent, int previousSibling, int child) {
+		if(child >= kinds.length) {
+			grow(Math.max(2 * kinds.length, child + 1));
+		}
+		if(previousSibling == NO_NODE) {
+			firstChildren[parent] = child;
+		}
+		else {
+			nextSiblings[previousSibling] = child;
+		}
+	}
+	
+	// the kind of a node, as stored here and in DecoratedTreeFormat.
+	static int kindOf(ParseNode node) {
+		Integer kind = kindOfClass.get(node.getClass());
+		if(kind == null) {
+			throw new IllegalArgumentException("ast arena: cannot store node of class " + node.getClass().getSimpleName());
+		}
+		return kind;
+	}
+	static ParseNode makeNode(int kind, Token token) {
+		if(kind < 0 || kind >= nodeFactories.size()) {
+			throw new IllegalArgumentException("ast arena: unknown node kind " + kind);
+		}
+		return nodeFactories.get(kind).apply(token);
+	}
+	private int tokenIndexOf(Token token) {
+		int index = tokens.indexOf(token);
+		if(index != TokenArray.NOT_FOUND) {
+			return index;
+		}
+		extraTokens.add(token);
+		return -extraTokens.size();
+	}
+	private int typeIdOf(Type type) {
+		Integer id = typeIdOfType.get(type);
+		if(id == null) {
+			id = types.size();
+			types.add(type);
+			typeIdOfType.put(type, id);
+		}
+		return id;
+	}
+	
+	private void grow(int capacity) {
+		int oldCapacity = kinds.length;
+		kinds = Arrays.copyOf(kinds, capacity);
+		tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+		firstChildren = Arrays.copyOf(firstChildren, capacity);
+		nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+		typeIds = Arrays.copyOf(typeIds, capacity);
+		if(capacity > oldCapacity) {
+			Arrays.fill(firstChildren, oldCapacity, capacity, NO_NODE);
+			Arrays.fill(nextSiblings, oldCapacity, capacity, NO_NODE);
+		}
+	}
+	private void trimToSize() {
+		grow(Math.max(size, 1));
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	public int size() {
+		return size;
+	}
+	public int root() {
+		return 0;
+	}
+	public TokenArray getTokens() {
+		return tokens;
+	}
+	public Class<? extends ParseNode> nodeClass(int node) {
+		return nodeClasses.get(kinds[node]);
+	}
+	/** Get the index of node's token in the TokenArray, or TokenArray.NOT_FOUND if it is not there. */
+	public int tokenIndex(int node) {
+		return Math.max(tokenIndices[node], TokenArray.NOT_FOUND);
+	}
+	/** Build node's Token. */
+	public Token token(int node) {
+		int index = tokenIndices[node];
+		return (index >= 0) ? tokens.token(index) : extraTokens.get(-index - 1);
+	}
+	public int firstChild(int node) {
+		return firstChildren[node];
+	}
+	public int nextSibling(int node) {
+		return nextSiblings[node];
+	}
+	public int nChildren(int node) {
+		int result = 0;
+		for(int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+			result++;
+		}
+		return result;
+	}
+	public Type type(int node) {
+		return types.get(typeIds[node]);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// rebuilding the tree
+	
+	/** Build the ParseNodes of the stored tree, with their tokens and types, and return the root. */
+	public ParseNode toParseTree() {
+		ParseNode[] nodes = new ParseNode[size];
+		
+		for(int handle = 0; handle < size; handle++) {
+			nodes[handle] = makeNode(kinds[handle], token(handle));
+			nodes[handle].setType(type(handle));
+		}
+		for(int handle = 0; handle < size; handle++) {
+			for(int child = firstChildren[handle]; child != NO_NODE; child = nextSiblings[child]) {
+				nodes[handle].appendChild(nodes[child]);
+			}
+		}
+		return nodes[0];
+	}
+}
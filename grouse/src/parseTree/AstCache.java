@@ -0,0 +1,183 @@
+package parseTree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** A directory of decorated trees, in DecoratedTreeFormat, keyed by the SHA-256 of their
+ *  source, the compiler and the format's version.  An unchanged source compiled again can
+ *  have its tree read back instead of being lexed, parsed and analyzed.
+ * <p>
+ *  The compiler is identified by a digest of the jar or class directory it was loaded from,
+ *  taken once per run, so a rebuilt compiler never reads the trees an older one wrote.  If
+ *  that cannot be read, a random digest is used instead, and entries only match within the
+ *  run that wrote them.
+ * <p>
+ *  Only trees without errors are stored.  Entries are written to a temporary file and moved
+ *  into place, so compilers sharing the directory never read half an entry; an entry that
+ *  cannot be read is treated as missing.  The cache only speeds compiling up: failing to
+ *  read or write it is never an error.
+ */
+public class AstCache {
+	public static final String DIRECTORY_NAME = "astcache";
+	private static final String ENTRY_SUFFIX = ".ast";
+	
+	private final File directory;
+	
+	/** The cache in the directory DIRECTORY_NAME beside outputDirectory. */
+	public static AstCache nextTo(String outputDirectory) {
+		File parent = new File(outputDirectory).getAbsoluteFile().getParentFile();
+		return new AstCache(new File(parent == null ? new File(outputDirectory) : parent, DIRECTORY_NAME));
+	}
+	public AstCache(File directory) {
+		this.directory = directory;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// keys
+	
+	/** The key of the file filename as it is now. */
+	public String keyOf(String filename) throws FileNotFoundException {
+		try {
+			return keyOf(Files.readAllBytes(new File(filename).toPath()));
+		}
+		catch(NoSuchFileException e) {
+			throw new FileNotFoundException(filename);
+		}
+		catch(IOException e) {
+			throw new FileNotFoundException(filename + " cannot be read: " + e.getMessage());
+		}
+	}
+	public String keyOf(byte[] source) {
+		MessageDigest digest = sha256();
+		digest.update(CompilerDigest.VALUE);
+		digest.update(Integer.toString(DecoratedTreeFormat.FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte)0);
+		digest.update(source);
+		
+		StringBuilder result = new StringBuilder();
+		for(byte b: digest.digest()) {
+			result.append(String.format("%02x", b));
+		}
+		return result.toString();
+	}
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("ast cache: SHA-256 is not available", e);
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// the compiler's digest, taken when a key is first asked for
+	
+	private static final class CompilerDigest {
+		static final byte[] VALUE = compilerDigest();
+	}
+	private static byte[] compilerDigest() {
+		CodeSource code = AstCache.class.getProtectionDomain().getCodeSource();
+		if(code == null || code.getLocation() == null) {
+			return randomDigest();
+		}
+		try {
+			Path location = Paths.get(code.getLocation().toURI());
+			MessageDigest digest = sha256();
+			
+			if(Files.isDirectory(location)) {
+				digestClasses(location, digest);
+			}
+			else {
+				digest.update(Files.readAllBytes(location));
+			}
+			return digest.digest();
+		}
+		catch(IOException | URISyntaxException | RuntimeException e) {
+			return randomDigest();
+		}
+	}
+	// the name and contents of each class file under directory, in order of name.
+	private static void digestClasses(Path directory, MessageDigest digest) throws IOException {
+		List<Path> classFiles;
+		try(Stream<Path> files = Files.walk(directory)) {
+			classFiles = files.filter(file -> file.toString().endsWith(".class"))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		for(Path file: classFiles) {
+			digest.update(directory.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte)0);
+			digest.update(Files.readAllBytes(file));
+		}
+	}
+	private static byte[] randomDigest() {
+		return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// lookup and store
+	
+	/** Read the tree stored under key for the source file sourceFilename, or return null if there is none. */
+	public ParseNode lookup(String key, String sourceFilename) {
+		File entry = entryFile(key);
+		if(!entry.isFile()) {
+			return null;
+		}
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+			return DecoratedTreeFormat.read(in, sourceFilename);
+		}
+		catch(IOException | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/** Store the decorated tree of the source file sourceFilename under key.
+	 * @return true if the tree was stored.
+	 */
+	public boolean store(String key, ParseNode tree, String sourceFilename) {
+		File temporary = null;
+		try {
+			if(!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+				return false;
+			}
+			temporary = File.createTempFile(key, ".tmp", directory);
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+				DecoratedTreeFormat.write(tree, sourceFilename, out);
+			}
+			Files.move(temporary.toPath(), entryFile(key).toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		}
+		catch(IOException | RuntimeException e) {
+			if(temporary != null) {
+				temporary.delete();
+			}
+			return false;
+		}
+	}
+	
+	private File entryFile(String key) {
+		return new File(directory, key + ENTRY_SUFFIX);
+	}
+}
@@ -0,0 +1,516 @@
+package parseTree;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import inputHandler.LocatedCharStream;
+import inputHandler.TextLocation;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Punctuator;
+import parseTree.nodeTypes.BreakNode;
+import parseTree.nodeTypes.ContinueNode;
+import parseTree.nodeTypes.ForStatementNode;
+import parseTree.nodeTypes.IdentifierNode;
+import parseTree.nodeTypes.WhileStatementNode;
+import semanticAnalyzer.types.PrimitiveType;
+import semanticAnalyzer.types.TupleType;
+import semanticAnalyzer.types.TypeTable;
+import semanticAnalyzer.types.Type;
+import symbolTable.Binding;
+import symbolTable.MemoryAccessMethod;
+import symbolTable.MemoryLocation;
+import symbolTable.Scope;
+import tokens.CharacterToken;
+import tokens.FloatToken;
+import tokens.IdentifierToken;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import tokens.NullToken;
+import tokens.StringToken;
+import tokens.Token;
+import tokens.VoidToken;
+
+/** A binary form of a decorated tree: what the code generator needs of a tree that has
+ *  been through semantic analysis, so that the tree can be written to a file and read back
+ *  without lexing, parsing or analyzing its source again.
+ * <p>
+ *  The form holds a table of the tree's types and a table of its bindings (with their memory
+ *  locations), then the nodes in preorder.  A node is its kind (as in AstArena), its number
+ *  of children, its token, its type, the size of its scope if it has one, its binding and
+ *  that binding's scope depth and slot if it is an identifier, and the loop it leaves if it
+ *  is a break or continue.  Scopes come back knowing only their size, which is all that is
+ *  asked of them after analysis.
+ * <p>
+ *  Token locations name the source file.  The name the tree was written with is replaced, on
+ *  reading, by the name it is read for, so an unchanged source that has moved still matches.
+ */
+public class DecoratedTreeFormat {
+	private static final int MAGIC = 0x47415354;		// "GAST"
+	static final int FORMAT_VERSION = 2;
+	
+	private static final int NONE = -1;
+	private static final int NULL_BINDING = -2;
+	
+	// token tags
+	private static final int IDENTIFIER = 0;
+	private static final int INTEGER = 1;
+	private static final int FLOAT = 2;
+	private static final int CHARACTER = 3;
+	private static final int STRING = 4;
+	private static final int KEYWORD = 5;
+	private static final int PUNCTUATOR = 6;
+	private static final int VOID = 7;
+	private static final int END = 8;
+	
+	// location tags
+	private static final int NO_LOCATION = 0;
+	private static final int NULL_LOCATION = 1;
+	private static final int END_OF_INPUT = 2;
+	private static final int IN_FILE = 3;
+	
+	// type tags
+	private static final int PRIMITIVE = 0;
+	private static final int TUPLE = 1;
+	
+	private static final Keyword[] keywords = Keyword.values();
+	private static final Punctuator[] punctuators = Punctuator.values();
+	private static final MemoryAccessMethod[] accessors = MemoryAccessMethod.values();
+	
+	private DecoratedTreeFormat() {}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// writing
+	
+	/** Write the tree at root, which was made from the source file sourceFilename. */
+	public static void write(ParseNode root, String sourceFilename, DataOutputStream out) throws IOException {
+		new Writer(out).write(root, sourceFilename);
+	}
+	
+	private static class Writer {
+		private final DataOutputStream out;
+		private final List<Type> types = new ArrayList<Type>();
+		private final Map<Type, Integer> typeIds = new IdentityHashMap<Type, Integer>();
+		private final List<Binding> bindings = new ArrayList<Binding>();
+		private final Map<Binding, Integer> bindingIds = new IdentityHashMap<Binding, Integer>();
+		private final Map<ParseNode, Integer> nodeIndices = new IdentityHashMap<ParseNode, Integer>();
+		private final Map<String, Integer> filenameIds = new HashMap<String, Integer>();
+		
+		Writer(DataOutputStream out) {
+			this.out = out;
+		}
+		
+		void write(ParseNode root, String sourceFilename) throws IOException {
+			List<ParseNode> nodes = preorder(root);
+			for(ParseNode node: nodes) {
+				typeId(node.getType());
+				if(node instanceof IdentifierNode) {
+					bindingId(((IdentifierNode)node).getBinding());
+				}
+			}
+			
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			writeString(sourceFilename);
+			writeTypes();
+			writeBindings();
+			out.writeInt(nodes.size());
+			for(ParseNode node: nodes) {
+				writeNode(node);
+			}
+		}
+		
+		private List<ParseNode> preorder(ParseNode root) {
+			List<ParseNode> result = new ArrayList<ParseNode>();
+			List<ParseNode> stack = new ArrayList<ParseNode>();
+			stack.add(root);
+			
+			while(!stack.isEmpty()) {
+				ParseNode node = stack.remove(stack.size() - 1);
+				nodeIndices.put(node, result.size());
+				result.add(node);
+				for(int i = node.nChildren() - 1; i >= 0; i--) {
+					stack.add(node.child(i));
+				}
+			}
+			return result;
+		}
+		
+		// a tuple's parameter types get their ids before it does, so they can be read first.
+		private int typeId(Type type) {
+			Integer id = typeIds.get(type);
+			if(id != null) {
+				return id;
+			}
+			if(type instanceof TupleType) {
+				TupleType tuple = (TupleType)type;
+				for(int i = 0; i < tuple.getNumberOfParameters(); i++) {
+					typeId(tuple.getParameterType(i));
+				}
+			}
+			else if(!(type instanceof PrimitiveType)) {
+				throw new IllegalArgumentException("decorated tree: cannot write type " + type);
+			}
+			typeIds.put(type, types.size());
+			types.add(type);
+			return types.size() - 1;
+		}
+		private int bindingId(Binding binding) {
+			if(binding == null) {
+				return NONE;
+			}
+			if(binding == Binding.nullInstance()) {
+				return NULL_BINDING;
+			}
+			Integer id = bindingIds.get(binding);
+			if(id == null) {
+				if(binding.getExtra() != null && !(binding.getExtra() instanceof String)) {
+					throw new IllegalArgumentException("decorated tree: cannot write binding " + binding);
+				}
+				typeId(binding.getType());
+				id = bindings.size();
+				bindingIds.put(binding, id);
+				bindings.add(binding);
+			}
+			return id;
+		}
+		
+		private void writeTypes() throws IOException {
+			out.writeInt(types.size());
+			for(Type type: types) {
+				if(type instanceof PrimitiveType) {
+					out.writeByte(PRIMITIVE);
+					out.writeInt(((PrimitiveType)type).ordinal());
+				}
+				else {
+					TupleType tuple = (TupleType)type;
+					out.writeByte(TUPLE);
+					out.writeInt(tuple.getNumberOfParameters());
+					for(int i = 0; i < tuple.getNumberOfParameters(); i++) {
+						out.writeInt(typeIds.get(tuple.getParameterType(i)));
+					}
+				}
+			}
+		}
+		private void writeBindings() throws IOException {
+			out.writeInt(bindings.size());
+			for(Binding binding: bindings) {
+				MemoryLocation memoryLocation = binding.getMemoryLocation();
+				
+				out.writeInt(typeIds.get(binding.getType()));
+				writeLocation(binding.getLocation());
+				out.writeInt(memoryLocation.getAccessor().ordinal());
+				writeString(memoryLocation.getBaseAddress());
+				out.writeInt(memoryLocation.getOffset());
+				writeString(binding.getLexeme());
+				writeString((String)binding.getExtra());
+			}
+		}
+		
+		private void writeNode(ParseNode node) throws IOException {
+			out.writeInt(AstArena.kindOf(node));
+			out.writeInt(node.nChildren());
+			writeToken(node.getToken());
+			out.writeInt(typeIds.get(node.getType()));
+			out.writeInt(node.hasScope() ? node.getScope().getAllocatedSize() : NONE);
+			if(node instanceof IdentifierNode) {
+				IdentifierNode identifierNode = (IdentifierNode)node;
+				out.writeInt(bindingId(identifierNode.getBinding()));
+				out.writeInt(identifierNode.getScopeDepth());
+				out.writeInt(identifierNode.getSlot());
+			}
+			if(node instanceof BreakNode) {
+				BreakNode breakNode = (BreakNode)node;
+				writeLoop(breakNode.getForStatementNodeLocation(), breakNode.getWhileStatementNodeLocation());
+			}
+			if(node instanceof ContinueNode) {
+				ContinueNode continueNode = (ContinueNode)node;
+				writeLoop(continueNode.getForStatementNodeLocation(), continueNode.getWhileStatementNodeLocation());
+			}
+		}
+		private void writeLoop(ParseNode forLoop, ParseNode whileLoop) throws IOException {
+			ParseNode loop = (forLoop != null) ? forLoop : whileLoop;
+			Integer index = (loop == null) ? null : nodeIndices.get(loop);
+			out.writeInt((index == null) ? NONE : index);
+		}
+		
+		private void writeToken(Token token) throws IOException {
+			out.writeByte(tagOf(token));
+			writeLocation(token.getLocation());
+			writeString(token.getLexeme());
+			if(token instanceof LextantToken) {
+				out.writeInt(((Enum<?>)((LextantToken)token).getLextant()).ordinal());
+			}
+		}
+		private int tagOf(Token token) {
+			if(token instanceof IdentifierToken)	return IDENTIFIER;
+			if(token instanceof IntegerToken)		return INTEGER;
+			if(token instanceof FloatToken)			return FLOAT;
+			if(token instanceof CharacterToken)		return CHARACTER;
+			if(token instanceof StringToken)		return STRING;
+			if(token instanceof VoidToken)			return VOID;
+			if(token instanceof NullToken)			return END;
+			if(token instanceof LextantToken) {
+				return (((LextantToken)token).getLextant() instanceof Keyword) ? KEYWORD : PUNCTUATOR;
+			}
+			throw new IllegalArgumentException("decorated tree: cannot write token " + token.fullString());
+		}
+		
+		private void writeLocation(TextLocation location) throws IOException {
+			if(location == null) {
+				out.writeByte(NO_LOCATION);
+			}
+			else if(location == TextLocation.nullInstance()) {
+				out.writeByte(NULL_LOCATION);
+			}
+			else if(location == LocatedCharStream.FLAG_END_OF_INPUT.getLocation()) {
+				out.writeByte(END_OF_INPUT);
+			}
+			else {
+				out.writeByte(IN_FILE);
+				writeFilename(location.getFilename());
+				out.writeInt(location.getLineNumber());
+				out.writeInt(location.getPosition());
+			}
+		}
+		
+		// a filename is written in full the first time, and as the id it is given after that.
+		private void writeFilename(String filename) throws IOException {
+			Integer id = filenameIds.get(filename);
+			if(id != null) {
+				out.writeInt(id);
+				return;
+			}
+			out.writeInt(filenameIds.size());
+			filenameIds.put(filename, filenameIds.size());
+			writeString(filename);
+		}
+		
+		// strings may be null, and longer than writeUTF allows.
+		private void writeString(String string) throws IOException {
+			if(string == null) {
+				out.writeInt(NONE);
+				return;
+			}
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// reading
+	
+	/** Read a tree written by write(), for the source file sourceFilename.
+	 * @throws IOException if the input is not a tree in this format.
+	 */
+	public static ParseNode read(DataInputStream in, String sourceFilename) throws IOException {
+		return new Reader(in, sourceFilename).read();
+	}
+	
+	private static class Reader {
+		private final DataInputStream in;
+		private final String sourceFilename;
+		private String writtenFilename;
+		private final List<String> filenames = new ArrayList<String>();
+		private Type[] types;
+		private Binding[] bindings;
+		
+		Reader(DataInputStream in, String sourceFilename) {
+			this.in = in;
+			this.sourceFilename = sourceFilename;
+		}
+		
+		ParseNode read() throws IOException {
+			if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				throw new IOException("decorated tree: not a tree of this format");
+			}
+			writtenFilename = readString();
+			readTypes();
+			readBindings();
+			return readNodes();
+		}
+		
+		private void readTypes() throws IOException {
+			types = new Type[count()];
+			for(int id = 0; id < types.length; id++) {
+				int tag = in.readByte();
+				if(tag == PRIMITIVE) {
+					types[id] = PrimitiveType.values()[index(in.readInt(), PrimitiveType.values().length)];
+				}
+				else if(tag == TUPLE) {
+					Type[] parameterTypes = new Type[count()];
+					for(int i = 0; i < parameterTypes.length; i++) {
+						parameterTypes[i] = types[index(in.readInt(), id)];
+					}
+					types[id] = TypeTable.getInstance().tupleOf(parameterTypes);
+				}
+				else {
+					throw new IOException("decorated tree: bad type tag " + tag);
+				}
+			}
+		}
+		private void readBindings() throws IOException {
+			bindings = new Binding[count()];
+			for(int id = 0; id < bindings.length; id++) {
+				Type type = types[index(in.readInt(), types.length)];
+				TextLocation location = readLocation();
+				MemoryAccessMethod accessor = accessors[index(in.readInt(), accessors.length)];
+				String baseAddress = readString();
+				int offset = in.readInt();
+				String lexeme = readString();
+				String extra = readString();
+				
+				bindings[id] = new Binding(type, location, new MemoryLocation(accessor, baseAddress, offset), lexeme, extra);
+			}
+		}
+		
+		// nodes come in preorder; the stack holds the nodes whose children are still coming.
+		private ParseNode readNodes() throws IOException {
+			ParseNode[] nodes = new ParseNode[count()];
+			List<ParseNode> openNodes = new ArrayList<ParseNode>();
+			List<Integer> childrenToCome = new ArrayList<Integer>();
+			
+			for(int index = 0; index < nodes.length; index++) {
+				int kind = in.readInt();
+				int nChildren = count();
+				ParseNode node = AstArena.makeNode(kind, readToken());
+				nodes[index] = node;
+				node.setType(types[index(in.readInt(), types.length)]);
+				
+				int scopeSize = in.readInt();
+				if(scopeSize != NONE) {
+					node.setScope(Scope.createRestoredScope(scopeSize));
+				}
+				if(node instanceof IdentifierNode) {
+					IdentifierNode identifierNode = (IdentifierNode)node;
+					identifierNode.setBinding(readBinding());
+					identifierNode.setResolution(in.readInt(), in.readInt());
+				}
+				if(node instanceof BreakNode || node instanceof ContinueNode) {
+					linkLoop(node, readLoop(nodes, index));
+				}
+				
+				if(!openNodes.isEmpty()) {
+					int last = openNodes.size() - 1;
+					openNodes.get(last).appendChild(node);
+					childrenToCome.set(last, childrenToCome.get(last) - 1);
+				}
+				if(nChildren > 0) {
+					openNodes.add(node);
+					childrenToCome.add(nChildren);
+				}
+				while(!openNodes.isEmpty() && childrenToCome.get(openNodes.size() - 1) == 0) {
+					openNodes.remove(openNodes.size() - 1);
+					childrenToCome.remove(childrenToCome.size() - 1);
+				}
+			}
+			if(nodes.length == 0 || !openNodes.isEmpty()) {
+				throw new IOException("decorated tree: truncated tree");
+			}
+			return nodes[0];
+		}
+		
+		private Binding readBinding() throws IOException {
+			int id = in.readInt();
+			if(id == NONE) {
+				return null;
+			}
+			if(id == NULL_BINDING) {
+				return Binding.nullInstance();
+			}
+			return bindings[index(id, bindings.length)];
+		}
+		private ParseNode readLoop(ParseNode[] nodes, int before) throws IOException {
+			int index = in.readInt();
+			return (index == NONE) ? null : nodes[index(index, before)];
+		}
+		private void linkLoop(ParseNode node, ParseNode loop) {
+			ForStatementNode forLoop = (loop instanceof ForStatementNode) ? (ForStatementNode)loop : null;
+			WhileStatementNode whileLoop = (loop instanceof WhileStatementNode) ? (WhileStatementNode)loop : null;
+			
+			if(node instanceof BreakNode) {
+				((BreakNode)node).setForStatementNodeLocation(forLoop);
+				((BreakNode)node).setWhileStatementNodeLocation(whileLoop);
+			}
+			else {
+				((ContinueNode)node).setForStatementNodeLocation(forLoop);
+				((ContinueNode)node).setWhileStatementNodeLocation(whileLoop);
+			}
+		}
+		
+		private Token readToken() throws IOException {
+			int tag = in.readByte();
+			TextLocation location = readLocation();
+			String lexeme = readString();
+			
+			switch(tag) {
+				case IDENTIFIER:	return IdentifierToken.make(location, lexeme);
+				case INTEGER:		return IntegerToken.make(location, lexeme);
+				case FLOAT:			return FloatToken.make(location, lexeme);
+				case CHARACTER:		return CharacterToken.make(location, lexeme);
+				case STRING:		return StringToken.make(location, lexeme);
+				case KEYWORD:		return LextantToken.make(location, lexeme, keywords[index(in.readInt(), keywords.length)]);
+				case PUNCTUATOR:	return LextantToken.make(location, lexeme, punctuators[index(in.readInt(), punctuators.length)]);
+				case VOID:			return VoidToken.make(location);
+				case END:			return NullToken.make(location);
+				default:
+					throw new IOException("decorated tree: bad token tag " + tag);
+			}
+		}
+		
+		private TextLocation readLocation() throws IOException {
+			int tag = in.readByte();
+			switch(tag) {
+				case NO_LOCATION:	return null;
+				case NULL_LOCATION:	return TextLocation.nullInstance();
+				case END_OF_INPUT:	return LocatedCharStream.FLAG_END_OF_INPUT.getLocation();
+				case IN_FILE:
+					return new TextLocation(readFilename(), in.readInt(), in.readInt());
+				default:
+					throw new IOException("decorated tree: bad location tag " + tag);
+			}
+		}
+		
+		private String readFilename() throws IOException {
+			int id = index(in.readInt(), filenames.size() + 1);
+			if(id == filenames.size()) {
+				String filename = readString();
+				boolean isSource = (filename != null) && filename.equals(writtenFilename);
+				filenames.add(isSource ? sourceFilename : filename);
+			}
+			return filenames.get(id);
+		}
+		private String readString() throws IOException {
+			int length = in.readInt();
+			if(length == NONE) {
+				return null;
+			}
+			if(length < 0) {
+				throw new IOException("decorated tree: bad string length " + length);
+			}
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		private int count() throws IOException {
+			int count = in.readInt();
+			if(count < 0) {
+				throw new IOException("decorated tree: bad count " + count);
+			}
+			return count;
+		}
+		private static int index(int index, int limit) throws IOException {
+			if(index < 0 || index >= limit) {
+				throw new IOException("decorated tree: index " + index + " out of range");
+			}
+			return index;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package parseTree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import semanticAnalyzer.types.PrimitiveType;
@@ -14,8 +15,9 @@ import utilities.Debug;
 public class ParseNode {
 	public static final ParseNode NO_PARENT = null;
 	static Debug debug = new Debug();
+	private static final int INITIAL_CHILD_CAPACITY = 2;
 	
-	List<ParseNode>	children;
+	List<ParseNode>	children;		// null until the first child is added: most nodes are leaves.
 	ParseNode parent;
 
 	protected Token token;
@@ -86,6 +88,11 @@ public class ParseNode {
 		
 		return symbolTable.containsKey(identifier);
 	}
+	public boolean containsBindingOf(int nameId) {
+		if (!hasScope()) return false;
+		
+		return scope.getSymbolTable().containsKey(nameId);
+	}
 	
 	public Binding bindingOf(String identifier) {
 		if (!hasScope()) return Binding.nullInstance();
@@ -96,6 +103,11 @@ public class ParseNode {
 		
 		return symbolTable.lookup(identifier);
 	}
+	public Binding bindingOf(int nameId) {
+		if (!hasScope()) return Binding.nullInstance();
+		
+		return scope.getSymbolTable().lookup(nameId);
+	}
 	
 	////////////////////////////////////////////////////////////////////////////////////
 	// DEALING WITH CHILDREN AND PARENT
@@ -113,25 +125,32 @@ public class ParseNode {
 	}
 	
 	public List<ParseNode> getChildren() {
-		return children;
+		return (children == null) ? Collections.<ParseNode>emptyList() : children;
 	}
 	
 	public ParseNode child(int i) {
-		return children.get(i);
+		return getChildren().get(i);
 	}
 	
 	public void initChildren() {
-		children = new ArrayList<ParseNode>();
+		children = null;
+	}
+	private void allocateChildren() {
+		if (children == null) {
+			children = new ArrayList<ParseNode>(INITIAL_CHILD_CAPACITY);
+		}
 	}
 	
 	// adds a new child to this node (as first child) and sets its parent link.
 	public void insertChild(ParseNode child) {
+		allocateChildren();
 		children.add(0, child);
 		child.setParent(this);
 	}
 	
 	// adds a new child to this node (as last child) and sets its parent link.
 	public void appendChild(ParseNode child) {
+		allocateChildren();
 		children.add(child);
 		child.setParent(this);
 	}
@@ -150,7 +169,7 @@ public class ParseNode {
 	}
 	
 	public int nChildren() {
-		return children.size();
+		return (children == null) ? 0 : children.size();
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////
@@ -171,17 +190,24 @@ public class ParseNode {
 	
 	////////////////////////////////////////////////////////////////////////////////////
 	// FOR VISITORS
+	//
+	// accept() walks the subtree with ParseNodeTraversal, which keeps its own stack, so
+	// deep trees do not need a deep thread stack.  Node classes say what visiting them
+	// means by overriding enter() and leave(); a leaf's enter() is its visit, and its
+	// children (it should have none) are not visited.
 	////////////////////////////////////////////////////////////////////////////////////
 	
 	public void accept(ParseNodeVisitor visitor) {
+		ParseNodeTraversal.traverse(this, visitor);
+	}
+	
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visitEnter(this);
-		visitChildren(visitor);
+	}
+	protected void leave(ParseNodeVisitor visitor) {
 		visitor.visitLeave(this);
 	}
-	
-	protected void visitChildren(ParseNodeVisitor visitor) {
-		for (ParseNode child : children) {
-			child.accept(visitor);
-		}
+	protected boolean visitsChildren() {
+		return true;
 	}
 }
@@ -0,0 +1,54 @@
+package parseTree;
+
+import java.util.Arrays;
+
+/** Visits a tree of ParseNodes in the order of a recursive walk: a node is entered, its
+ *  children are visited in order, and it is left.  The path from the root to the current
+ *  node is kept in arrays rather than on the thread's stack, so any depth of tree can be
+ *  visited.  As with a recursive walk, the visitor may change the children of the nodes
+ *  it has not yet reached.
+ */
+class ParseNodeTraversal {
+	private static final int STARTING_DEPTH = 64;
+	
+	private ParseNode[] path = new ParseNode[STARTING_DEPTH];
+	private int[] nextChild = new int[STARTING_DEPTH];
+	private int depth = 0;
+	
+	static void traverse(ParseNode root, ParseNodeVisitor visitor) {
+		new ParseNodeTraversal().run(root, visitor);
+	}
+	
+	private void run(ParseNode root, ParseNodeVisitor visitor) {
+		enter(root, visitor);
+		
+		while(depth > 0) {
+			ParseNode node = path[depth - 1];
+			int child = nextChild[depth - 1];
+			
+			if(child < node.nChildren()) {
+				nextChild[depth - 1] = child + 1;
+				enter(node.child(child), visitor);
+			}
+			else {
+				depth--;
+				path[depth] = null;
+				node.leave(visitor);
+			}
+		}
+	}
+	
+	private void enter(ParseNode node, ParseNodeVisitor visitor) {
+		node.enter(visitor);
+		if(!node.visitsChildren()) {
+			return;
+		}
+		if(depth == path.length) {
+			path = Arrays.copyOf(path, 2 * depth);
+			nextChild = Arrays.copyOf(nextChild, 2 * depth);
+		}
+		path[depth] = node;
+		nextChild[depth] = 0;
+		depth++;
+	}
+}
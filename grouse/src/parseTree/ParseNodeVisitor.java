@@ -19,6 +19,7 @@ import parseTree.nodeTypes.LetStatementNode;
 import parseTree.nodeTypes.FloatConstantNode;
 import parseTree.nodeTypes.ForEverNode;
 import parseTree.nodeTypes.ForStatementNode;
+import parseTree.nodeTypes.FunctionDefinitionNode;
 import parseTree.nodeTypes.NewlineNode;
 import parseTree.nodeTypes.ParameterListNode;
 import parseTree.nodeTypes.PrintStatementNode;
@@ -70,6 +71,9 @@ public interface ParseNodeVisitor {
 	void visitEnter(ProgramNode node);
 	void visitLeave(ProgramNode node);
 
+	void visitEnter(FunctionDefinitionNode node);
+	void visitLeave(FunctionDefinitionNode node);
+
 	void visitEnter(ParameterListNode node);
 	void visitLeave(ParameterListNode node);
 
@@ -191,6 +195,12 @@ public interface ParseNodeVisitor {
 		public void visitLeave(ProgramNode node) {
 			defaultVisitLeave(node);
 		}
+		public void visitEnter(FunctionDefinitionNode node) {
+			defaultVisitEnter(node);
+		}
+		public void visitLeave(FunctionDefinitionNode node) {
+			defaultVisitLeave(node);
+		}
 		public void visitEnter(ParameterListNode node) {
 			defaultVisitEnter(node);
 		}
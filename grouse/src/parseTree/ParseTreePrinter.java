@@ -1,12 +1,22 @@
 package parseTree;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import inputHandler.TextLocation;
+
 /**
  * Through the static method <code>print</code>, this class will create
  * a string that corresponds to a pretty-printing of the AST subtree rooted
- * at a given node.
+ * at a given node.  The two-argument <code>print</code> writes the same text
+ * to an Appendable one line at a time, and <code>printJsonLines</code> writes
+ * one JSON object per node for tools; neither holds more than a line of text
+ * and the path to the current node, so trees of any size can be dumped.
  */
 public class ParseTreePrinter {
 	private static final int INDENT_INCREMENT = 4;
+	private static final int STARTING_DEPTH = 64;
 	// making terminator static causes OS-dependent failures in some FileFixturesTestCase subclasses.
 	private String terminator = System.getProperty("line.separator");
 
@@ -46,32 +56,96 @@ public class ParseTreePrinter {
 	 * @return string representation of AST
 	 */
 	static public String print(ParseNode node) {
-		ParseTreePrinter printer = new ParseTreePrinter(0);
-		return printer.makeString(node);
+		StringBuilder result = new StringBuilder();
+		print(node, result);
+		return result.toString();
+	}
+	/** Writes the string representation of the AST subtree rooted at the given node
+	 *  to out, a line at a time.
+	 *
+	 * @param node	root of the subtree to print
+	 * @param out	where to write the lines; a failure to write is rethrown as an UncheckedIOException.
+	 */
+	static public void print(ParseNode node, Appendable out) {
+		new ParseTreePrinter(out, false).printSubtree(node);
+	}
+	/** Writes one JSON object per node of the AST subtree rooted at the given node to out,
+	 *  in the same order as <code>print</code>.  Each object has the node's depth, node class,
+	 *  token class, lexeme, line and position, type, and the size of its scope (or -1 if it has
+	 *  none).  Every field is always written, whatever the print level.
+	 *
+	 * @param node	root of the subtree to print
+	 * @param out	where to write the lines; a failure to write is rethrown as an UncheckedIOException.
+	 */
+	static public void printJsonLines(ParseNode node, Appendable out) {
+		new ParseTreePrinter(out, true).printSubtree(node);
 	}
 
 
 	// per-instance code
-	private final int baseIndentation;
-	private StringBuffer result;
+	private final Appendable out;
+	private final boolean json;
+	private final StringBuilder line = new StringBuilder();
 	
-	// Constructor and main interface (makeString).
-	private ParseTreePrinter(int indentAmount) { 
+	// Constructor and main interface (printSubtree).
+	private ParseTreePrinter(Appendable out, boolean json) {
 		super();
-		this.baseIndentation = indentAmount;
-	}	
-	private String makeString(ParseNode node) {
-		result = new StringBuffer();
-		appendIndentedSubtree(node, baseIndentation);
-		return result.toString();
+		this.out = out;
+		this.json = json;
 	}
-
-	// main logic for printing indented trees.
-	private void appendIndentedSubtree(ParseNode node, int indentAmount) {
-		appendIndentedLineFor(node, indentAmount);
+	
+	// main logic for printing trees.  The path from the subtree's root to the current node,
+	// with the index of the next child to print at each level, is kept in arrays of our own,
+	// so deep trees print without recursion.
+	private void printSubtree(ParseNode root) {
+		ParseNode[] path = new ParseNode[STARTING_DEPTH];
+		int[] nextChild = new int[STARTING_DEPTH];
+		int depth = 0;
 		
-		for(ParseNode child : node.children) {
-			appendIndentedSubtree(child, indentAmount+INDENT_INCREMENT);
+		printLineFor(root, depth);
+		path[depth] = root;
+		nextChild[depth] = 0;
+		depth++;
+		
+		while(depth > 0) {
+			ParseNode node = path[depth - 1];
+			int child = nextChild[depth - 1];
+			
+			if(child < node.nChildren()) {
+				nextChild[depth - 1] = child + 1;
+				ParseNode current = node.child(child);
+				printLineFor(current, depth);
+				
+				if(depth == path.length) {
+					path = Arrays.copyOf(path, 2 * depth);
+					nextChild = Arrays.copyOf(nextChild, 2 * depth);
+				}
+				path[depth] = current;
+				nextChild[depth] = 0;
+				depth++;
+			}
+			else {
+				depth--;
+				path[depth] = null;
+			}
+		}
+	}
+	
+	// builds the line for the node, at the given depth below the subtree's root, and writes it.
+	private void printLineFor(ParseNode node, int depth) {
+		line.setLength(0);
+		if(json) {
+			appendJsonLineFor(node, depth);
+		}
+		else {
+			appendIndentedLineFor(node, depth * INDENT_INCREMENT);
+		}
+		line.append(terminator);
+		try {
+			out.append(line);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 	
@@ -82,7 +156,7 @@ public class ParseTreePrinter {
 	}
 	private void indent(int indent) {
 		for(int i=0; i<indent; i++) {
-			result.append(' ');
+			line.append(' ');
 		}
 	}
 	private void appendLineFor(ParseNode node) {
@@ -90,30 +164,73 @@ public class ParseTreePrinter {
 		appendToken(node);
 		appendType(node);
 		appendAllocatedSize(node);
-		
-		result.append(terminator);
 	}
 	
 	// methods for the four pieces of information that we print;
 	// each one appends only if the current printLevel allows it to.
 	private void appendNodeClass(ParseNode node) {
 		if(printLevel.printNodeClass()) {
-			result.append(node.getClass().getSimpleName() + " ");
+			line.append(node.getClass().getSimpleName() + " ");
 		}
 	}
 	private void appendToken(ParseNode node) {
 		if(printLevel.printToken()) {
-			result.append(node.getToken().toString() + " ");
+			line.append(node.getToken().toString() + " ");
 		}
 	}
 	private void appendType(ParseNode node) {
 		if(printLevel.printDecorations()) {
-			result.append(node.getType().infoString() + " ");
+			line.append(node.getType().infoString() + " ");
 		}
 	}
 	private void appendAllocatedSize(ParseNode node) {
 		if(printLevel.printDecorations() && node.hasScope()) {
-			result.append("[scope:" + node.getScope().getAllocatedSize() + " bytes] ");
+			line.append("[scope:" + node.getScope().getAllocatedSize() + " bytes] ");
+		}
+	}
+	
+	
+	// JSON lines
+	private void appendJsonLineFor(ParseNode node, int depth) {
+		TextLocation location = node.getToken().getLocation();
+		
+		line.append("{\"depth\":").append(depth);
+		line.append(",\"node\":");
+		appendJsonString(node.getClass().getSimpleName());
+		line.append(",\"token\":");
+		appendJsonString(node.getToken().getClass().getSimpleName());
+		line.append(",\"lexeme\":");
+		appendJsonString(node.getToken().getLexeme());
+		line.append(",\"line\":").append(location == null ? -1 : location.getLineNumber());
+		line.append(",\"position\":").append(location == null ? -1 : location.getPosition());
+		line.append(",\"type\":");
+		appendJsonString(node.getType() == null ? null : node.getType().infoString());
+		line.append(",\"scope\":").append(node.hasScope() ? node.getScope().getAllocatedSize() : -1);
+		line.append('}');
+	}
+	private void appendJsonString(String string) {
+		if(string == null) {
+			line.append("null");
+			return;
+		}
+		line.append('"');
+		for(int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch(c) {
+			case '"':	line.append("\\\"");	break;
+			case '\\':	line.append("\\\\");	break;
+			case '\n':	line.append("\\n");		break;
+			case '\r':	line.append("\\r");		break;
+			case '\t':	line.append("\\t");		break;
+			default:
+				if(c < 0x20) {
+					line.append(String.format("\\u%04x", (int)c));
+				}
+				else {
+					line.append(c);
+				}
+			}
 		}
+		line.append('"');
 	}
 }
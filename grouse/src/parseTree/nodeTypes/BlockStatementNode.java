@@ -22,9 +22,10 @@ public class BlockStatementNode extends ParseNode {
 	// BOILERPLATE FOR VISITORS
 	///////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visitEnter(this);
-		visitChildren(visitor);
+	}
+	protected void leave(ParseNodeVisitor visitor) {
 		visitor.visitLeave(this);
 	}
 }
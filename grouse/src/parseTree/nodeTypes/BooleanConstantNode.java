@@ -32,7 +32,10 @@ public class BooleanConstantNode extends ParseNode {
 	// ACCEPT A VISITOR
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
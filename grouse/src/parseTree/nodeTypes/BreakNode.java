@@ -53,7 +53,10 @@ public class BreakNode extends ParseNode {
 	// ACCEPT A VISITOR
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
@@ -30,7 +30,10 @@ public class CharacterConstantNode extends ParseNode {
 
 	///////////////////////////////////////////////////////////
 	// accept a visitor
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
@@ -52,7 +52,10 @@ public class ContinueNode extends ParseNode {
 	// ACCEPT A VISITOR
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
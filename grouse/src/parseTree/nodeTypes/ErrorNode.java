@@ -17,7 +17,10 @@ public class ErrorNode extends ParseNode {
 	///////////////////////////////////////////////////////////
 	// boilerplate for visitors
 			
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
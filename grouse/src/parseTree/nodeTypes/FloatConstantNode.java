@@ -27,7 +27,10 @@ public class FloatConstantNode extends ParseNode {
 
 	///////////////////////////////////////////////////////////
 	// accept a visitor
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
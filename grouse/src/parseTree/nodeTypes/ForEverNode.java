@@ -34,7 +34,10 @@ public class ForEverNode extends ParseNode {
 	// ACCEPT A VISITOR
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
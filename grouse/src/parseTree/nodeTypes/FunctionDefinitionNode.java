@@ -46,9 +46,10 @@ public class FunctionDefinitionNode extends ParseNode {
 	// BOILERPLATE FOR VISITORS
 	///////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visitEnter(this);
-		visitChildren(visitor);
+	}
+	protected void leave(ParseNodeVisitor visitor) {
 		visitor.visitLeave(this);
 	}
 }
@@ -6,6 +6,7 @@ import logging.GrouseLogger;
 import symbolTable.Binding;
 import symbolTable.Scope;
 import tokens.IdentifierToken;
+import tokens.NameTable;
 import tokens.Token;
 import utilities.Debug;
 
@@ -14,20 +15,30 @@ public class IdentifierNode extends ParseNode {
 	
 	private Binding binding;
 	private Scope declarationScope;
+	private int scopeDepth;		// depth of the scope holding the binding, or -1 if unresolved
+	private int slot;			// slot of the binding in that scope, or -1 if unresolved
 
 	public IdentifierNode(Token token) {
 		super(token);
 		assert(token instanceof IdentifierToken);
 		this.binding = null;
+		this.scopeDepth = -1;
+		this.slot = -1;
 	}
 	
 	public IdentifierNode(ParseNode node) {
 		super(node);
 		
 		if (node instanceof IdentifierNode) {
-			this.binding = ((IdentifierNode)node).binding;
+			IdentifierNode identifierNode = (IdentifierNode)node;
+			this.binding = identifierNode.binding;
+			this.declarationScope = identifierNode.declarationScope;
+			this.scopeDepth = identifierNode.scopeDepth;
+			this.slot = identifierNode.slot;
 		} else {
 			this.binding = null;
+			this.scopeDepth = -1;
+			this.slot = -1;
 		}
 	}
 	
@@ -38,6 +49,14 @@ public class IdentifierNode extends ParseNode {
 	public IdentifierToken identifierToken() {
 		return (IdentifierToken)token;
 	}
+	
+	// the NameTable id of this identifier's name
+	public int getNameId() {
+		if (token instanceof IdentifierToken) {
+			return identifierToken().getNameId();
+		}
+		return NameTable.getInstance().intern(token.getLexeme());
+	}
 
 	public void setBinding(Binding binding) {
 		this.binding = binding;
@@ -47,28 +66,56 @@ public class IdentifierNode extends ParseNode {
 		return binding;
 	}
 	
+	// where the binding is: see Scope.bindingAt(scopeDepth, slot).
+	public void setResolution(int scopeDepth, int slot) {
+		this.scopeDepth = scopeDepth;
+		this.slot = slot;
+	}
+	
+	public boolean isResolved() {
+		return slot >= 0;
+	}
+	
+	public int getScopeDepth() {
+		return scopeDepth;
+	}
+	
+	public int getSlot() {
+		return slot;
+	}
+	
 	////////////////////////////////////////////////////////////
 	// SPECIALTY FUNCTIONS
 	////////////////////////////////////////////////////////////
 	
 	public Binding findVariableBinding() {
-		String identifier = token.getLexeme();
-
-		for (ParseNode current : pathToRoot()) {
-			if (current.containsBindingOf(identifier)) {
-				declarationScope = current.getScope();
-
-				return current.bindingOf(identifier);
-			}
-		}
+		return resolveIn(getLocalScope());
+	}
+	
+	// finds the binding in localScope or a scope enclosing it, and records where it is.
+	public Binding resolveIn(Scope localScope) {
+		Scope scope = localScope.scopeBinding(getNameId());
 		
-		useBeforeDefineError();
+		if (scope.getDepth() < 0) {
+			useBeforeDefineError();
+			
+			return Binding.nullInstance();
+		}
+		setDeclarationScope(scope);
 		
-		return Binding.nullInstance();
+		return scope.getSymbolTable().bindingAt(slot);
+	}
+	
+	// records that this identifier is bound in scope.
+	public void setDeclarationScope(Scope scope) {
+		declarationScope = scope;
+		setResolution(scope.getDepth(), scope.getSymbolTable().slotOf(getNameId()));
 	}
 
 	public Scope getDeclarationScope() {
-		findVariableBinding();
+		if (declarationScope == null) {
+			findVariableBinding();
+		}
 		
 		return declarationScope;
 	}
@@ -85,7 +132,10 @@ public class IdentifierNode extends ParseNode {
 	// ACCEPT A VISITOR
 	///////////////////////////////////////////////////////////	
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
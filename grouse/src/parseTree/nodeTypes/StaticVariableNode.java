@@ -32,7 +32,10 @@ public class StaticVariableNode extends ParseNode {
 	// BOILERPLATE FOR VISITORS
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
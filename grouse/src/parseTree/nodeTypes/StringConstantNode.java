@@ -28,7 +28,10 @@ public class StringConstantNode extends ParseNode {
 
 	///////////////////////////////////////////////////////////
 	// accept a visitor
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
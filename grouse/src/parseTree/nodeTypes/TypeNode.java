@@ -50,7 +50,10 @@ public class TypeNode extends ParseNode {
 	// BOILERPLATE FOR VISITORS
 	////////////////////////////////////////////////////////////
 	
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visit(this);
 	}
+	protected boolean visitsChildren() {
+		return false;
+	}
 }
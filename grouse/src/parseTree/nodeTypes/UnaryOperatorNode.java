@@ -36,9 +36,10 @@ public class UnaryOperatorNode extends ParseNode {
 	
 	///////////////////////////////////////////////////////////
 	// boilerplate for visitors
-	public void accept(ParseNodeVisitor visitor) {
+	protected void enter(ParseNodeVisitor visitor) {
 		visitor.visitEnter(this);
-		visitChildren(visitor);
+	}
+	protected void leave(ParseNodeVisitor visitor) {
 		visitor.visitLeave(this);
 	}
 }
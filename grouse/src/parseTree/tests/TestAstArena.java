@@ -0,0 +1,97 @@
+package parseTree.tests;
+
+import java.util.ArrayList;
+import static parser.tests.ParserFixtures.tokens;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.TokenArray;
+import parseTree.AstArena;
+import parseTree.ParseNode;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import utilities.CompilationContext;
+
+public class TestAstArena extends TestCase {
+	private static final String[] FILENAMES = {
+		"src/applications/tests/fixtures/coinTest.grouse",
+		"input/grouse-0/coins.grouse",
+		"input/grouse-0/printTest.grouse",
+		"input/grouse-0/forgottenTerminatorError.grouse",
+	};
+	
+	public void testRebuiltTreesMatch() {
+		for(String filename: FILENAMES) {
+			new CompilationContext().run(() -> {
+				TokenArray tokens = TokenArray.fromFile(filename);
+				ParseNode tree = Parser.parse(tokens);
+				AstArena arena = AstArena.fromTree(tree, tokens);
+				
+				assertEquals(filename, tree.toString(), arena.toParseTree().toString());
+			});
+		}
+	}
+	
+	public void testTokensNotInTheTokenArray() {
+		new CompilationContext().run(() -> {
+			TokenArray tokens = tokens("func f () -> (int x) {\n  print 1;\n}\nmain {\n  print 2;\n}\n");
+			ParseNode tree = Parser.parse(tokens);
+			AstArena arena = AstArena.fromTree(tree, tokens);
+			
+			assertEquals(tree.toString(), arena.toParseTree().toString());
+		});
+	}
+	
+	public void testTypesAreKept() {
+		new CompilationContext().run(() -> {
+			TokenArray tokens = TokenArray.fromFile(FILENAMES[0]);
+			ParseNode tree = SemanticAnalyzer.analyze(Parser.parse(tokens));
+			AstArena arena = AstArena.fromTree(tree, tokens);
+			
+			List<ParseNode> expected = preorder(tree);
+			List<ParseNode> actual = preorder(arena.toParseTree());
+			assertEquals(expected.size(), actual.size());
+			assertEquals(expected.size(), arena.size());
+			for(int i = 0; i < expected.size(); i++) {
+				assertSame(expected.get(i).getClass(), actual.get(i).getClass());
+				assertEquals(expected.get(i).getToken().fullString(), actual.get(i).getToken().fullString());
+				assertSame(expected.get(i).getType(), actual.get(i).getType());
+			}
+		});
+	}
+	
+	public void testHandles() {
+		new CompilationContext().run(() -> {
+			TokenArray tokens = TokenArray.fromFile(FILENAMES[0]);
+			ParseNode tree = Parser.parse(tokens);
+			AstArena arena = AstArena.fromTree(tree, tokens);
+			
+			int root = arena.root();
+			assertSame(tree.getClass(), arena.nodeClass(root));
+			assertEquals(tree.nChildren(), arena.nChildren(root));
+			assertEquals(AstArena.NO_NODE, arena.nextSibling(root));
+			
+			int child = arena.firstChild(root);
+			for(ParseNode expected: tree.getChildren()) {
+				assertSame(expected.getClass(), arena.nodeClass(child));
+				assertEquals(expected.getToken().fullString(), arena.token(child).fullString());
+				assertTrue(child > root);
+				child = arena.nextSibling(child);
+			}
+			assertEquals(AstArena.NO_NODE, child);
+		});
+	}
+	
+	private static List<ParseNode> preorder(ParseNode root) {
+		List<ParseNode> result = new ArrayList<ParseNode>();
+		addPreorder(root, result);
+		return result;
+	}
+	private static void addPreorder(ParseNode node, List<ParseNode> result) {
+		result.add(node);
+		for(ParseNode child: node.getChildren()) {
+			addPreorder(child, result);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package parseTree.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import asmCodeGenerator.ASMCodeGenerator;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import parseTree.AstCache;
+import parseTree.DecoratedTreeFormat;
+import parseTree.ParseNode;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import utilities.CompilationContext;
+
+public class TestAstCache extends TestCase {
+	private static final String[] FILENAMES = {
+		"src/applications/tests/fixtures/coinTest.grouse",
+		"input/grouse-0/coins.grouse",
+		"input/grouse-0/printTest.grouse",
+	};
+	
+	private static ParseNode analyzedTree(String filename) throws IOException {
+		return SemanticAnalyzer.analyze(Parser.parse(LexicalAnalyzer.make(filename)));
+	}
+	private static ParseNode roundTrip(ParseNode tree, String writtenFor, String readFor) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DecoratedTreeFormat.write(tree, writtenFor, new DataOutputStream(bytes));
+		return DecoratedTreeFormat.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), readFor);
+	}
+	
+	public void testTreeRoundTrip() throws Exception {
+		for (String filename : FILENAMES) {
+			String[] expected = new String[2];
+			byte[] written = inContext(() -> {
+				ParseNode tree = analyzedTree(filename);
+				expected[0] = tree.toString();
+				expected[1] = ASMCodeGenerator.generate(tree).toString();
+				
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DecoratedTreeFormat.write(tree, filename, new DataOutputStream(bytes));
+				return bytes.toByteArray();
+			});
+			String[] actual = inContext(() -> {
+				ParseNode tree = DecoratedTreeFormat.read(new DataInputStream(new ByteArrayInputStream(written)), filename);
+				return new String[] { tree.toString(), ASMCodeGenerator.generate(tree).toString() };
+			});
+			
+			assertEquals(filename, expected[0], actual[0]);
+			assertEquals(filename, expected[1], actual[1]);
+		}
+	}
+	
+	public void testLocationsNameTheFileReadFor() throws Exception {
+		String filename = FILENAMES[0];
+		ParseNode read = inContext(() -> roundTrip(analyzedTree(filename), filename, "moved.grouse"));
+		
+		assertEquals("moved.grouse", read.child(0).getToken().getLocation().getFilename());
+	}
+	
+	public void testCacheHitsAndMisses() throws Exception {
+		File directory = Files.createTempDirectory("astcache").toFile();
+		AstCache cache = new AstCache(directory);
+		String filename = FILENAMES[1];
+		String key = cache.keyOf(filename);
+		
+		assertEquals(key, cache.keyOf(filename));
+		assertFalse(key.equals(cache.keyOf(FILENAMES[2])));
+		assertNull(cache.lookup(key, filename));
+		
+		String expected = inContext(() -> {
+			ParseNode tree = analyzedTree(filename);
+			assertTrue(cache.store(key, tree, filename));
+			return tree.toString();
+		});
+		assertEquals(expected, inContext(() -> cache.lookup(key, filename).toString()));
+		
+		try (FileOutputStream out = new FileOutputStream(new File(directory, key + ".ast"))) {
+			out.write(new byte[] { 1, 2, 3 });
+		}
+		assertNull(inContext(() -> cache.lookup(key, filename)));
+		
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+	
+	private interface Work<T> {
+		T run() throws IOException;
+	}
+	private static <T> T inContext(Work<T> work) throws IOException {
+		IOException[] failure = new IOException[1];
+		T result = new CompilationContext().call(() -> {
+			try {
+				return work.run();
+			}
+			catch (IOException e) {
+				failure[0] = e;
+				return null;
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		return result;
+	}
+}
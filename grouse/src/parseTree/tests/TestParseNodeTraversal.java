@@ -0,0 +1,113 @@
+package parseTree.tests;
+
+import static parser.tests.ParserFixtures.parse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Punctuator;
+import parseTree.ParseNode;
+import parseTree.ParseNodeVisitor;
+import parseTree.nodeTypes.IntegerConstantNode;
+import parseTree.nodeTypes.UnaryOperatorNode;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import utilities.CompilationContext;
+
+public class TestParseNodeTraversal extends TestCase {
+	private static final int DEPTH = 100000;
+	
+	// records "enter", "leave" and "leaf" events with the node's lexeme.
+	private static class Recorder extends ParseNodeVisitor.Default {
+		List<String> events = new ArrayList<String>();
+		
+		public void defaultVisitEnter(ParseNode node) {
+			events.add("enter " + node.getToken().getLexeme());
+		}
+		public void defaultVisitLeave(ParseNode node) {
+			events.add("leave " + node.getToken().getLexeme());
+		}
+		public void defaultVisitForLeaf(ParseNode node) {
+			events.add("leaf " + node.getToken().getLexeme());
+		}
+	}
+	
+	public void testVisitOrderMatchesRecursiveWalk() {
+		ParseNode tree = minus(minus(number("1")));
+		tree.appendChild(number("2"));
+		Recorder recorder = new Recorder();
+		tree.accept(recorder);
+		
+		String[] expected = { "enter -", "enter -", "leaf 1", "leave -", "leaf 2", "leave -" };
+		assertEquals(expected.length, recorder.events.size());
+		for(int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], recorder.events.get(i));
+		}
+	}
+	
+	public void testVeryDeepTree() {
+		ParseNode tree = number("0");
+		for(int i = 0; i < DEPTH; i++) {
+			tree = minus(tree);
+		}
+		Recorder recorder = new Recorder();
+		tree.accept(recorder);
+		
+		assertEquals(2 * DEPTH + 1, recorder.events.size());
+		assertEquals("leaf 0", recorder.events.get(DEPTH));
+	}
+	
+	public void testVeryDeeplyNestedSource() {
+		StringBuilder source = new StringBuilder("main {\n  print ");
+		for(int i = 0; i < DEPTH / 10; i++) {
+			source.append('(');
+		}
+		source.append('1');
+		for(int i = 0; i < DEPTH / 10; i++) {
+			source.append(')');
+		}
+		source.append(";\n}\n");
+		
+		new CompilationContext().run(() -> {
+			ParseNode tree = parse(source.toString());
+			
+			Recorder recorder = new Recorder();
+			tree.accept(recorder);
+			
+			assertEquals(0, CompilationContext.current().getNumMessages());
+			assertTrue(recorder.events.contains("leaf 1"));
+		});
+	}
+	
+	public void testVeryDeeplyNestedBlocks() {
+		StringBuilder source = new StringBuilder("main {\n");
+		for(int i = 0; i < DEPTH; i++) {
+			source.append(i % 2 == 0 ? "{ " : "if (x) { ");
+		}
+		source.append("print 1;");
+		for(int i = DEPTH - 1; i >= 0; i--) {
+			source.append(i % 2 == 0 ? "} " : "} else {} ");
+		}
+		source.append("\n}\n");
+		
+		new CompilationContext().run(() -> {
+			ParseNode tree = parse(source.toString());
+			
+			Recorder recorder = new Recorder();
+			tree.accept(recorder);
+			
+			assertEquals(0, CompilationContext.current().getNumMessages());
+			assertTrue(recorder.events.contains("leaf 1"));
+		});
+	}
+	
+	private static ParseNode minus(ParseNode operand) {
+		ParseNode result = new UnaryOperatorNode(LextantToken.make(null, "-", Punctuator.SUBTRACT));
+		result.appendChild(operand);
+		return result;
+	}
+	private static ParseNode number(String lexeme) {
+		return new IntegerConstantNode(IntegerToken.make(null, lexeme));
+	}
+}
@@ -0,0 +1,109 @@
+package parseTree.tests;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Punctuator;
+import parseTree.ParseNode;
+import parseTree.ParseTreePrinter;
+import parseTree.nodeTypes.IntegerConstantNode;
+import parseTree.nodeTypes.StringConstantNode;
+import parseTree.nodeTypes.UnaryOperatorNode;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import tokens.StringToken;
+import utilities.CompilationContext;
+
+public class TestParseTreePrinter extends TestCase {
+	private static final String FILENAME = "input/grouse-0/coins.grouse";
+	private static final int DEPTH = 100000;
+	private static final String TERMINATOR = System.getProperty("line.separator");
+	
+	public void testStreamingMatchesToString() {
+		new CompilationContext().run(() -> {
+			ParseNode tree = analyzedTree();
+			StringWriter out = new StringWriter();
+			ParseTreePrinter.print(tree, out);
+			
+			assertEquals(tree.toString(), out.toString());
+		});
+	}
+	
+	public void testJsonLines() {
+		new CompilationContext().run(() -> {
+			ParseNode tree = analyzedTree();
+			StringWriter out = new StringWriter();
+			ParseTreePrinter.printJsonLines(tree, out);
+			String[] lines = out.toString().split(TERMINATOR);
+			
+			assertEquals(tree.toString().split(TERMINATOR).length, lines.length);
+			assertTrue(lines[0], lines[0].startsWith("{\"depth\":0,\"node\":\"ProgramNode\","));
+			assertTrue(lines[0], lines[0].endsWith(",\"scope\":" + tree.getScope().getAllocatedSize() + "}"));
+			assertTrue(lines[1], lines[1].startsWith("{\"depth\":1,"));
+		});
+	}
+	
+	public void testJsonStringsAreEscaped() {
+		ParseNode node = new StringConstantNode(StringToken.make(null, "a\"b\\c\n"));
+		StringWriter out = new StringWriter();
+		ParseTreePrinter.printJsonLines(node, out);
+		
+		assertEquals("{\"depth\":0,\"node\":\"StringConstantNode\",\"token\":\"StringToken\","
+				+ "\"lexeme\":\"a\\\"b\\\\c\\n\",\"line\":-1,\"position\":-1,\"type\":\"\",\"scope\":-1}"
+				+ TERMINATOR, out.toString());
+	}
+	
+	public void testVeryDeepTree() {
+		ParseNode tree = new IntegerConstantNode(IntegerToken.make(null, "0"));
+		for(int i = 0; i < DEPTH; i++) {
+			ParseNode minus = new UnaryOperatorNode(LextantToken.make(null, "-", Punctuator.SUBTRACT));
+			minus.appendChild(tree);
+			tree = minus;
+		}
+		int[] lines = new int[1];
+		ParseTreePrinter.print(tree, new Appendable() {
+			public Appendable append(CharSequence csq) {
+				lines[0]++;
+				return this;
+			}
+			public Appendable append(CharSequence csq, int start, int end) {
+				return append(csq.subSequence(start, end));
+			}
+			public Appendable append(char c) {
+				return append(String.valueOf(c));
+			}
+		});
+		
+		assertEquals(DEPTH + 1, lines[0]);
+	}
+	
+	public void testWriteFailuresAreUnchecked() {
+		ParseNode node = new IntegerConstantNode(IntegerToken.make(null, "0"));
+		try {
+			ParseTreePrinter.print(node, new Appendable() {
+				public Appendable append(CharSequence csq) throws IOException {
+					throw new IOException("disk full");
+				}
+				public Appendable append(CharSequence csq, int start, int end) throws IOException {
+					return append(csq);
+				}
+				public Appendable append(char c) throws IOException {
+					return append(String.valueOf(c));
+				}
+			});
+			fail("expected an UncheckedIOException");
+		}
+		catch(UncheckedIOException e) {
+			assertEquals("disk full", e.getCause().getMessage());
+		}
+	}
+	
+	private static ParseNode analyzedTree() {
+		return SemanticAnalyzer.analyze(Parser.parse(LexicalAnalyzer.make(FILENAME)));
+	}
+}
@@ -0,0 +1,59 @@
+package parser;
+
+import lexicalAnalyzer.Punctuator;
+
+/** The binding powers of Grouse's operators, for the Parser's precedence-climbing expression
+ *  parser, indexed by TokenKindSet kind.  A binary operator binds more tightly the higher
+ *  its power; tokens that are not binary operators have power NONE.
+ * <p>
+ *  Operators at a CHAINING level may follow one another (a + b - c groups to the left).  At
+ *  the other levels an operator is applied at most once: in a || b || c, a < b < c and
+ *  a && b && c, parsing stops before the second operator.
+ */
+public class BindingPowers {
+	public static final int NONE = 0;
+	public static final int OR = 1;
+	public static final int AND = 2;
+	public static final int COMPARISON = 3;
+	public static final int ADDITIVE = 4;
+	public static final int MULTIPLICATIVE = 5;
+	public static final int OPERAND = 6;
+	
+	public static final int LOWEST = OR;
+	
+	public static final TokenKindSet PREFIX_OPERATORS =
+			TokenKindSet.of(Punctuator.NOT, Punctuator.REFCOUNT, Punctuator.RECORD_NUMBER, Punctuator.ADDRESS_OF);
+	
+	private static final int[] binaryPowers = new int[TokenKindSet.OTHER + 1];
+	private static final boolean[] chaining = new boolean[OPERAND];
+	
+	static {
+		binary(OR, false, Punctuator.OR);
+		binary(AND, false, Punctuator.AND);
+		binary(COMPARISON, false, Punctuator.LESSER, Punctuator.LESSER_OR_EQUAL, Punctuator.EQUAL,
+				Punctuator.NOT_EQUAL, Punctuator.GREATER, Punctuator.GREATER_OR_EQUAL);
+		binary(ADDITIVE, true, Punctuator.ADD, Punctuator.SUBTRACT);
+		binary(MULTIPLICATIVE, true, Punctuator.MULTIPLY, Punctuator.DIVIDE);
+	}
+	private static void binary(int power, boolean chains, Punctuator ...operators) {
+		for(Punctuator operator: operators) {
+			binaryPowers[TokenKindSet.kindOf(operator)] = power;
+		}
+		chaining[power] = chains;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	/** Get the binding power of a token of the given kind as a binary operator, or NONE. */
+	public static int binaryPowerOf(int kind) {
+		return binaryPowers[kind];
+	}
+	public static boolean isPrefixOperator(int kind) {
+		return PREFIX_OPERATORS.contains(kind);
+	}
+	/** Whether operators of the given power may follow one another. */
+	public static boolean chains(int power) {
+		return chaining[power];
+	}
+}
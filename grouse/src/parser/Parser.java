@@ -1,7 +1,9 @@
 package parser;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 import logging.GrouseLogger;
@@ -38,21 +40,81 @@ import parseTree.nodeTypes.UnaryOperatorNode;
 import parseTree.nodeTypes.WhileStatementNode;
 import semanticAnalyzer.types.PrimitiveType;
 import tokens.*;
+import utilities.CompilationContext;
 import utilities.Debug;
 import lexicalAnalyzer.Keyword;
 import lexicalAnalyzer.Lextant;
 import lexicalAnalyzer.Punctuator;
 import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenArray;
+import lexicalAnalyzer.TokenBuffer;
 
 // PARSER (AKA SYNTACTICAL ANALYZER)
 // Input: Tokens
 // Output: Abstract State Tree
 public class Parser {
 	private static Debug debug = new Debug();
+	public static final int MAXIMUM_SYNTAX_ERRORS = 100;
 	
-	private Scanner scanner;
+	private TokenBuffer tokens;
+	private CompilationContext context;
 	private Token nowReading;
+	private int nowReadingKind;
 	private Token previouslyRead;
+	private boolean recovering;
+	private int syntaxErrorCount;
+	
+	////////////////////////////////////////////////////////////
+	// FIRST SETS: the token kinds each nonterminal can start with, as TokenKindSets, so
+	// that each startsXxx predicate is a single lookup.
+	////////////////////////////////////////////////////////////
+	
+	private static final TokenKindSet IDENTIFIER = TokenKindSet.ofKinds(TokenKindSet.IDENTIFIER);
+	private static final TokenKindSet INTEGER_CONSTANT = TokenKindSet.ofKinds(TokenKindSet.INTEGER);
+	private static final TokenKindSet FLOAT_CONSTANT = TokenKindSet.ofKinds(TokenKindSet.FLOAT);
+	private static final TokenKindSet CHARACTER_CONSTANT = TokenKindSet.ofKinds(TokenKindSet.CHARACTER);
+	private static final TokenKindSet STRING_CONSTANT = TokenKindSet.ofKinds(TokenKindSet.STRING);
+	private static final TokenKindSet BOOLEAN_CONSTANT = TokenKindSet.of(Keyword.TRUE, Keyword.FALSE);
+	private static final TokenKindSet LITERAL = TokenKindSet.union(INTEGER_CONSTANT, FLOAT_CONSTANT,
+			CHARACTER_CONSTANT, STRING_CONSTANT, IDENTIFIER, BOOLEAN_CONSTANT);
+	private static final TokenKindSet PARENTHESIZED_EXPRESSION = TokenKindSet.of(Punctuator.OPEN_ROUND_BRACKET);
+	private static final TokenKindSet EXPRESSION = TokenKindSet.union(PARENTHESIZED_EXPRESSION,
+			BindingPowers.PREFIX_OPERATORS, LITERAL);
+	
+	private static final TokenKindSet TYPE = TokenKindSet.union(IDENTIFIER,
+			TokenKindSet.of(Keyword.INT, Keyword.FLOAT, Keyword.BOOL, Keyword.CHAR, Keyword.STRING));
+	private static final TokenKindSet PARAMETER_TUPLE = TokenKindSet.union(IDENTIFIER, TokenKindSet.of(Punctuator.OPEN_ROUND_BRACKET));
+	private static final TokenKindSet PARAMETER_LIST = TokenKindSet.union(TYPE, TokenKindSet.of(Punctuator.CLOSE_ROUND_BRACKET));
+	
+	private static final TokenKindSet DECLARATION = TokenKindSet.of(Keyword.STATIC, Keyword.IMMUTABLE, Keyword.VARIABLE);
+	private static final TokenKindSet TUPLE_DEFINITION = TokenKindSet.of(Keyword.TUPLE);
+	private static final TokenKindSet FUNCTION_DEFINITION = TokenKindSet.of(Keyword.FUNCTION);
+	private static final TokenKindSet GLOBAL_DEFINITION = TokenKindSet.union(TUPLE_DEFINITION, FUNCTION_DEFINITION, DECLARATION);
+	
+	private static final TokenKindSet BLOCK_STATEMENT = TokenKindSet.of(Punctuator.OPEN_CURLY_BRACKET);
+	private static final TokenKindSet LET_STATEMENT = TokenKindSet.of(Keyword.LET);
+	private static final TokenKindSet PRINT_STATEMENT = TokenKindSet.of(Keyword.PRINT);
+	private static final TokenKindSet PRINT_EXPRESSION = TokenKindSet.union(EXPRESSION, TokenKindSet.of(Punctuator.SEPARATOR, Keyword.NEWLINE));
+	private static final TokenKindSet IF_STATEMENT = TokenKindSet.of(Keyword.IF);
+	private static final TokenKindSet ELSE_STATEMENT = TokenKindSet.of(Keyword.ELSE);
+	private static final TokenKindSet WHILE_STATEMENT = TokenKindSet.of(Keyword.WHILE);
+	private static final TokenKindSet FOR_STATEMENT = TokenKindSet.of(Keyword.FOR);
+	private static final TokenKindSet FOR_EVER_CONTROL_PHRASE = TokenKindSet.of(Keyword.EVER);
+	private static final TokenKindSet FOR_COUNT_CONTROL_PHRASE = TokenKindSet.of(Keyword.COUNT);
+	private static final TokenKindSet FOR_PAIR_CONTROL_PHRASE = TokenKindSet.of(Keyword.PAIR);
+	private static final TokenKindSet FOR_CONTROL_PHRASE = TokenKindSet.union(FOR_EVER_CONTROL_PHRASE, FOR_COUNT_CONTROL_PHRASE);
+	private static final TokenKindSet BREAK_STATEMENT = TokenKindSet.of(Keyword.BREAK);
+	private static final TokenKindSet DIAG_STATEMENT = TokenKindSet.of(Keyword.DIAG);
+	private static final TokenKindSet STATEMENT = TokenKindSet.union(BLOCK_STATEMENT, DECLARATION, LET_STATEMENT,
+			PRINT_STATEMENT, IF_STATEMENT, WHILE_STATEMENT, FOR_STATEMENT, BREAK_STATEMENT, DIAG_STATEMENT);
+	
+	// the tokens at which the parser resumes after a syntax error: the ends of statements and
+	// blocks, the keywords that start statements and top-level definitions, and the end of
+	// input.  ({ is left out: a stray { would otherwise take the statements after it into a block.)
+	private static final TokenKindSet SYNCHRONIZING = TokenKindSet.union(DECLARATION, LET_STATEMENT,
+			PRINT_STATEMENT, IF_STATEMENT, WHILE_STATEMENT, FOR_STATEMENT, BREAK_STATEMENT, DIAG_STATEMENT, GLOBAL_DEFINITION,
+			TokenKindSet.of(Punctuator.TERMINATOR, Punctuator.CLOSE_CURLY_BRACKET, Keyword.MAIN),
+			TokenKindSet.ofKinds(TokenKindSet.END));
 	
 	// Constructor
 	// Called once by GrouseCompiler
@@ -61,15 +123,32 @@ public class Parser {
 		
 		return parser.parse();
 	}
+	public static ParseNode parse(TokenArray tokens) {
+		return parse(tokens.scanner());
+	}
 	
+	// A TokenBuffer (possibly with a producer thread) is read as is; any other Scanner is buffered here.
 	public Parser(Scanner scanner) {
 		super();
-		this.scanner = scanner;
+		this.tokens = (scanner instanceof TokenBuffer) ? (TokenBuffer)scanner : TokenBuffer.make(scanner);
+		this.context = CompilationContext.current();
 	}
 	
+	/** Parse the whole input, on the calling thread.  Blocks and parentheses, which nest to
+	 *  any depth, are parsed with stacks of their own rather than by recursion, so very deeply
+	 *  nested (generated) sources need no bigger thread stack.
+	 */
 	public ParseNode parse() {
-		readToken();
-		return parseProgram();
+		return context.call(this::parseInContext);
+	}
+	private ParseNode parseInContext() {
+		try {
+			readToken();
+			return parseProgram();
+		}
+		finally {
+			tokens.close();
+		}
 	}
 
 	////////////////////////////////////////////////////////////
@@ -78,13 +157,13 @@ public class Parser {
 	
 	// S -> globalDefinition* main { block }
 	private ParseNode parseProgram() {
-		if (!startsGlobalDefinition(nowReading) && !nowReading.isLextant(Keyword.MAIN)) return syntaxErrorNode("program node");
+		if (!startsGlobalDefinition(nowReadingKind) && !nowReadingIs(Keyword.MAIN)) return syntaxErrorNode("program node");
 		
 		// S -> ...
 		ParseNode program = new ProgramNode(nowReading);
 		
 		// ... globalDefinitions* ...
-		while (startsGlobalDefinition(nowReading)) { 
+		while (startsGlobalDefinition(nowReadingKind)) { 
 			program.appendChild(parseGlobalDefinition());
 		}
 		
@@ -104,22 +183,20 @@ public class Parser {
 	///////////////////////////////////////////////////////////
 
 	private ParseNode parseGlobalDefinition() {
-		if (!startsGlobalDefinition(nowReading))	return syntaxErrorNode("global definition");
+		if (!startsGlobalDefinition(nowReadingKind))	return syntaxErrorNode("global definition");
 		
-		if (startsTupleDefinition(nowReading)) 		return parseTupleDefinition();
+		if (startsTupleDefinition(nowReadingKind)) 		return parseTupleDefinition();
 		
-		if (startsFunctionDefinition(nowReading)) 	return parseFunctionDefinition();
+		if (startsFunctionDefinition(nowReadingKind)) 	return parseFunctionDefinition();
 		
-		if (startsDeclaration(nowReading)) 			return parseDeclaration();
+		if (startsDeclaration(nowReadingKind)) 			return parseDeclaration();
 		
 		assert false : "bad token " + nowReading + " in parseGlobalDefinition()";
 		return null;
 	}
 	
-	private boolean startsGlobalDefinition(Token token) {
-		return (startsTupleDefinition(token) || 
-				startsFunctionDefinition(token) || 
-				startsDeclaration(token));
+	private boolean startsGlobalDefinition(int kind) {
+		return GLOBAL_DEFINITION.contains(kind);
 	}
 	
 	/********************/
@@ -128,7 +205,7 @@ public class Parser {
 	
 	// tupleDefinition -> tuple identifier parameterTuple
 	private ParseNode parseTupleDefinition() { // UNFINISHED
-		if (!startsTupleDefinition(nowReading)) return syntaxErrorNode("parse Tuple Definition");
+		if (!startsTupleDefinition(nowReadingKind)) return syntaxErrorNode("parse Tuple Definition");
 				
 		ParseNode tupleDefinition = new TupleDefinitionNode(nowReading);
 		
@@ -149,17 +226,17 @@ public class Parser {
 		return tupleDefinition;
 	} 
 
-	private boolean startsTupleDefinition(Token token) {
-		return token.isLextant(Keyword.TUPLE);
+	private boolean startsTupleDefinition(int kind) {
+		return TUPLE_DEFINITION.contains(kind);
 	}
 	
 	// parameterTuple - > ( parameterList ) | identifier
 	private ParseNode parseParameterTuple() {
-		if (!startsParameterTuple(nowReading)) return syntaxErrorNode("parse parameter tuple: not an identifier or parameter list");
+		if (!startsParameterTuple(nowReadingKind)) return syntaxErrorNode("parse parameter tuple: not an identifier or parameter list");
 		
 		ParseNode parseNode;
 		
-		if (nowReading instanceof IdentifierToken) {
+		if (startsIdentifier(nowReadingKind)) {
 			// Identifier
 			// must be a tuple's name
 			
@@ -182,19 +259,18 @@ public class Parser {
 		return parseNode;
 	}
 	
-	private boolean startsParameterTuple(Token token) {
-		return token.isLextant(Punctuator.OPEN_ROUND_BRACKET) ||
-				token instanceof IdentifierToken;
+	private boolean startsParameterTuple(int kind) {
+		return PARAMETER_TUPLE.contains(kind);
 	}
 	
 	
 	// parameterList -> parameterSpecification*
 	private ParseNode parseParameterList() {
-		if (!startsParameterList(nowReading)) return syntaxErrorNode("parse parameter list - invalid type");
+		if (!startsParameterList(nowReadingKind)) return syntaxErrorNode("parse parameter list - invalid type");
 		
 		ParseNode parseNode;
 		
-		if (nowReading.isLextant(Punctuator.CLOSE_ROUND_BRACKET)) {
+		if (nowReadingIs(Punctuator.CLOSE_ROUND_BRACKET)) {
 			// ... ();
 			VoidToken token = VoidToken.make(nowReading.getLocation());
 			
@@ -203,18 +279,18 @@ public class Parser {
 			// ... [(type identifier)* , ...]
 			parseNode = new ParameterListNode(nowReading);
 			
-			while (!nowReading.isLextant(Punctuator.CLOSE_ROUND_BRACKET)) {
+			while (!nowReadingIs(Punctuator.CLOSE_ROUND_BRACKET) && !recovering) {
 				parseNode.appendChild(parseParameter());
 				
-				if (nowReading.isLextant(Punctuator.SEPARATOR)) readToken();
+				if (nowReadingIs(Punctuator.SEPARATOR)) readToken();
 			}
 		}
 		
 		return parseNode;
 	}
 	
-	private boolean startsParameterList(Token token) {
-		return isTypeToken(token) || token.isLextant(Punctuator.CLOSE_ROUND_BRACKET);
+	private boolean startsParameterList(int kind) {
+		return PARAMETER_LIST.contains(kind);
 	}
 	
 	// parameterSpecification -> type identifier
@@ -232,7 +308,7 @@ public class Parser {
 	
 	// type -> identifier | primitiveType | arrayType 
 	private ParseNode parseType() {
-		if (!isTypeToken(nowReading)) return syntaxErrorNode("parse type - invalid type");
+		if (!isTypeToken(nowReadingKind)) return syntaxErrorNode("parse type - invalid type");
 		
 		readToken();
 		
@@ -240,9 +316,8 @@ public class Parser {
 	}
 	
 	// parseType Helper Functions
-	private boolean isTypeToken(Token token) { 
-		return token.isLextant(Keyword.INT, Keyword.FLOAT, Keyword.BOOL, Keyword.CHAR, Keyword.STRING) ||
-				token instanceof IdentifierToken;
+	private boolean isTypeToken(int kind) {
+		return TYPE.contains(kind);
 	}
 	
 	
@@ -252,7 +327,7 @@ public class Parser {
 	
 	// functionDefinition  -> func identifier ( parameterList ) -> parameterTuple body
 	private ParseNode parseFunctionDefinition() {
-		if (!startsFunctionDefinition(nowReading)) return syntaxErrorNode("function definition");
+		if (!startsFunctionDefinition(nowReadingKind)) return syntaxErrorNode("function definition");
 		
 		// func ...
 		expect(Keyword.FUNCTION);
@@ -278,8 +353,8 @@ public class Parser {
 		return FunctionDefinitionNode.withChildren(token, identifierNode, parameterListNode, parameterTupleNode, blockStatementNode);
 	}
 		
-	private boolean startsFunctionDefinition(Token token) {
-		return token.isLextant(Keyword.FUNCTION);
+	private boolean startsFunctionDefinition(int kind) {
+		return FUNCTION_DEFINITION.contains(kind);
 	}
 	
 	///////////////////////////////////////////////////////////
@@ -288,71 +363,111 @@ public class Parser {
 	
 	// statement -> blockStmt | printStmt | declaration | letStmt | if statement | while statement | for statement
 	
-	// Parses each statement of a block statement
+	// Parses each statement of a block statement that holds no block; those that do are
+	// begun by beginStatement.
 	private ParseNode parseStatement() {
-		if (!startsStatement(nowReading)) 		return syntaxErrorNode("statement");
-
-		if (startsBlockStatement(nowReading)) 	return parseBlockStatement();
-		
-		if (startsDeclaration(nowReading)) 		return parseDeclaration();
+		if (!startsStatement(nowReadingKind)) 		return syntaxErrorNode("statement");
 		
-		if (startsLetStatement(nowReading)) 	return parseLetStatement();
+		if (startsDeclaration(nowReadingKind)) 		return parseDeclaration();
 		
-		if (startsPrintStatement(nowReading)) 	return parsePrintStatement();
+		if (startsLetStatement(nowReadingKind)) 	return parseLetStatement();
 		
-		if (startsIfStatement(nowReading)) 		return parseIfStatement();
-
-		if (startsWhileStatement(nowReading))	return parseWhileStatement();
-
-		if (startsForStatement(nowReading))		return parseForStatement();
+		if (startsPrintStatement(nowReadingKind)) 	return parsePrintStatement();
 		
-		if (startsBreakStatement(nowReading))	return parseBreakStatement();
+		if (startsBreakStatement(nowReadingKind))	return parseBreakStatement();
 		
-		if (startsDiagStatement(nowReading))	return parseDiagStatement();
+		if (startsDiagStatement(nowReadingKind))	return parseDiagStatement();
 		
 		assert false : "bad token " + nowReading + " in parseStatement()";
 		return null;
 	}
 	
-	private boolean startsStatement(Token token) {
-		return startsBlockStatement(token) ||
-				startsDeclaration(token) ||
-				startsLetStatement(token) || 
-				startsPrintStatement(token) || 
-				startsIfStatement(token) ||
-				startsWhileStatement(token) ||
-				startsForStatement(token) ||
-				startsBreakStatement(token)||
-				startsDiagStatement(token);
+	private boolean startsStatement(int kind) {
+		return STATEMENT.contains(kind);
 	}
 
 	/*******************/
 	/* BLOCK STATEMENT */	
 	/*******************/
 	
+	// Blocks nest to any depth, in block statements and in if, while and for statements, so
+	// they are parsed by one loop over a stack of the constructs that are open, instead of by
+	// recursion: a block collecting its statements, or a statement waiting for its block.
+	private abstract class OpenStatement {
+		// Take the finished statement (for a block) or block (for a statement).  Returns the
+		// finished construct, or null if it is still open.
+		abstract ParseNode take(ParseNode node);
+	}
+	private class OpenBlock extends OpenStatement {
+		private final ParseNode block;
+		
+		OpenBlock(ParseNode block) {
+			this.block = block;
+		}
+		ParseNode take(ParseNode statement) {
+			block.appendChild(statement);
+			return null;
+		}
+	}
+	
 	// block -> { statement* }
 	private ParseNode parseBlockStatement() {
-		if (!startsBlockStatement(nowReading)) return syntaxErrorNode("block statement");
+		Deque<OpenStatement> open = new ArrayDeque<OpenStatement>();
+		ParseNode finished = openBlock(open);
+		
+		while (!open.isEmpty()) {
+			if (finished != null) {
+				OpenStatement construct = open.peek();
+				finished = construct.take(finished);
+				if (finished != null) {
+					open.pop();
+				}
+				else if (!(construct instanceof OpenBlock)) {
+					finished = openBlock(open);
+				}
+			}
+			// Parse each statement in between the opening and closing braces ...
+			else if (startsStatement(nowReadingKind)) {
+				finished = beginStatement(open);
+			}
+			// ... } ...
+			else {
+				expect(Punctuator.CLOSE_CURLY_BRACKET);
+				finished = ((OpenBlock)open.pop()).block;
+			}
+		}
+		return finished;
+	}
+	
+	// ... { ...  Returns null once the block is open, or the error node for a missing block.
+	private ParseNode openBlock(Deque<OpenStatement> open) {
+		if (!startsBlockStatement(nowReadingKind)) return syntaxErrorNode("block statement");
 		
 		ParseNode block = new BlockStatementNode(previouslyRead);
-		
-		// ... { ...
 		expect(Punctuator.OPEN_CURLY_BRACKET);
+		open.push(new OpenBlock(block));
 		
-		// Parse each statement in between the opening and closing braces
-		while (startsStatement(nowReading)) {
-			ParseNode statement = parseStatement();
-			block.appendChild(statement);
-		}
+		return null;
+	}
+	
+	// Begins a statement that holds a block, and parses any other statement.  Returns null
+	// if the statement was left open.
+	private ParseNode beginStatement(Deque<OpenStatement> open) {
+		if (startsBlockStatement(nowReadingKind)) 	return openBlock(open);
+		
+		if (startsIfStatement(nowReadingKind)) 		open.push(beginIfStatement());
+		
+		else if (startsWhileStatement(nowReadingKind))	open.push(beginWhileStatement());
+		
+		else if (startsForStatement(nowReadingKind))	open.push(beginForStatement());
 		
-		// ... } ...
-		expect(Punctuator.CLOSE_CURLY_BRACKET);
+		else return parseStatement();
 		
-		return block;
+		return openBlock(open);
 	}
 	
-	private boolean startsBlockStatement(Token token) {
-		return token.isLextant(Punctuator.OPEN_CURLY_BRACKET);
+	private boolean startsBlockStatement(int kind) {
+		return BLOCK_STATEMENT.contains(kind);
 	}
 		
 	/*******************/
@@ -361,7 +476,7 @@ public class Parser {
 	
 	// printStmt -> PRINT printExpressionList ;
 	private ParseNode parsePrintStatement() {
-		if (!startsPrintStatement(nowReading)) return syntaxErrorNode("print statement");
+		if (!startsPrintStatement(nowReadingKind)) return syntaxErrorNode("print statement");
 			
 		PrintStatementNode result = new PrintStatementNode(nowReading);
 		
@@ -372,14 +487,14 @@ public class Parser {
 		return result;
 	}
 	
-	private boolean startsPrintStatement(Token token) {
-		return token.isLextant(Keyword.PRINT);
+	private boolean startsPrintStatement(int kind) {
+		return PRINT_STATEMENT.contains(kind);
 	}	
 
 	// This adds the printExpressions it parses to the children of the given parent
 	// printExpressionList -> printExpression*   (note that this is nullable)
 	private PrintStatementNode parsePrintExpressionList(PrintStatementNode parent) {
-		while (startsPrintExpression(nowReading)) {
+		while (startsPrintExpression(nowReadingKind)) {
 			parsePrintExpression(parent);
 		}
 		return parent;
@@ -388,26 +503,26 @@ public class Parser {
 	// This adds the printExpression it parses to the children of the given parent
 	// printExpression -> expr? ,? nl? 
 	private void parsePrintExpression(PrintStatementNode parent) {
-		if (startsExpression(nowReading)) {
+		if (startsExpression(nowReadingKind)) {
 			ParseNode child = parseExpression();
 			parent.appendChild(child);
 		}
 		
-		if (nowReading.isLextant(Punctuator.SEPARATOR)) {
+		if (nowReadingIs(Punctuator.SEPARATOR)) {
 			readToken();
 			ParseNode child = new SeparatorNode(previouslyRead);
 			parent.appendChild(child);
 		}
 		
-		if (nowReading.isLextant(Keyword.NEWLINE)) {
+		if (nowReadingIs(Keyword.NEWLINE)) {
 			readToken();
 			ParseNode child = new NewlineNode(previouslyRead);
 			parent.appendChild(child);
 		}
 	}
 	
-	private boolean startsPrintExpression(Token token) {
-		return startsExpression(token) || token.isLextant(Punctuator.SEPARATOR, Keyword.NEWLINE) ;
+	private boolean startsPrintExpression(int kind) {
+		return PRINT_EXPRESSION.contains(kind);
 	}
 	
 	/*************************/
@@ -416,7 +531,7 @@ public class Parser {
 	
 	// declaration -> static? [IMMUTABLE|VARIABLE] identifier := expression ;
 	private ParseNode parseDeclaration() {
-		if (!startsDeclaration(nowReading)) return syntaxErrorNode("declaration");
+		if (!startsDeclaration(nowReadingKind)) return syntaxErrorNode("declaration");
 
 		ParseNode staticNode = null;
 		Token declarationToken;
@@ -456,8 +571,8 @@ public class Parser {
 		
 	}
 	
-	private boolean startsDeclaration(Token token) {
-		return token.isLextant(Keyword.STATIC, Keyword.IMMUTABLE, Keyword.VARIABLE);
+	private boolean startsDeclaration(int kind) {
+		return DECLARATION.contains(kind);
 	}
 	
 	/*****************/
@@ -466,7 +581,7 @@ public class Parser {
 	
 	// letStatement -> target := expression;
 	private ParseNode parseLetStatement() {
-		if (!startsLetStatement(nowReading)) return syntaxErrorNode("let statement");
+		if (!startsLetStatement(nowReadingKind)) return syntaxErrorNode("let statement");
 		
 		// let ...
 		Token letStatementToken = nowReading;
@@ -487,8 +602,8 @@ public class Parser {
 		return LetStatementNode.withChildren(letStatementToken, target, initializer);
 	}
 	
-	private boolean startsLetStatement(Token token) {
-		return token.isLextant(Keyword.LET);
+	private boolean startsLetStatement(int kind) {
+		return LET_STATEMENT.contains(kind);
 	}
 	
 	/****************/
@@ -496,11 +611,7 @@ public class Parser {
 	/****************/
 	
 	// ifStatement -> if (expression) block (else block)?
-	private ParseNode parseIfStatement() {
-		if (!startsIfStatement(nowReading)) return syntaxErrorNode("if statement");
-		
-		ParseNode ifStatementBlock;
-		
+	private OpenStatement beginIfStatement() {
 		// if ...
 		Token ifStatementToken = nowReading;
 		readToken();
@@ -511,31 +622,32 @@ public class Parser {
 		expect(Punctuator.CLOSE_ROUND_BRACKET);
 		
 		// ... { block } ...
-		ifStatementBlock = parseBlockStatement();
-		
-		// OPTIONAL:
-		// ... else { block }
-		if (startsElseStatement(nowReading)) {
-			ParseNode elseStatementBlock;
-			
-			// ... else ...
-			expect(Keyword.ELSE);
-			
-			// ... { block }
-			elseStatementBlock = parseBlockStatement();
+		return new OpenStatement() {
+			private ParseNode ifStatementBlock = null;
 			
-			return IfStatementNode.withChildren(ifStatementToken, expression, ifStatementBlock, elseStatementBlock);
-		}
-		
-		return IfStatementNode.withChildren(ifStatementToken, expression, ifStatementBlock);
+			ParseNode take(ParseNode block) {
+				if (ifStatementBlock != null) {
+					return IfStatementNode.withChildren(ifStatementToken, expression, ifStatementBlock, block);
+				}
+				ifStatementBlock = block;
+				
+				// OPTIONAL:
+				// ... else { block }
+				if (startsElseStatement(nowReadingKind)) {
+					expect(Keyword.ELSE);
+					return null;
+				}
+				return IfStatementNode.withChildren(ifStatementToken, expression, ifStatementBlock);
+			}
+		};
 	}
 	
-	private boolean startsIfStatement(Token token) {
-		return token.isLextant(Keyword.IF);
+	private boolean startsIfStatement(int kind) {
+		return IF_STATEMENT.contains(kind);
 	}
 	
-	private boolean startsElseStatement(Token token) {
-		return token.isLextant(Keyword.ELSE);
+	private boolean startsElseStatement(int kind) {
+		return ELSE_STATEMENT.contains(kind);
 	}
 	
 	/*******************/
@@ -543,11 +655,7 @@ public class Parser {
 	/*******************/
 	
 	// whileStatement -> while (expression) block
-	private ParseNode parseWhileStatement() {
-		if (!startsWhileStatement(nowReading)) return syntaxErrorNode("while statement");
-		
-		ParseNode whileStatementBlock;
-		
+	private OpenStatement beginWhileStatement() {
 		// while ...
 		Token whileStatementToken = nowReading;
 		readToken();
@@ -558,13 +666,15 @@ public class Parser {
 		expect(Punctuator.CLOSE_ROUND_BRACKET);
 		
 		// ... { block } ...
-		whileStatementBlock = parseBlockStatement();
-		
-		return WhileStatementNode.withChildren(whileStatementToken, expression, whileStatementBlock);
+		return new OpenStatement() {
+			ParseNode take(ParseNode whileStatementBlock) {
+				return WhileStatementNode.withChildren(whileStatementToken, expression, whileStatementBlock);
+			}
+		};
 	}
 	
-	private boolean startsWhileStatement(Token token) {
-		return token.isLextant(Keyword.WHILE);
+	private boolean startsWhileStatement(int kind) {
+		return WHILE_STATEMENT.contains(kind);
 	}
 	
 	/*****************/
@@ -572,11 +682,7 @@ public class Parser {
 	/*****************/
 	
 	// forStatement -> for ( forControlPhase ) block
-	private ParseNode parseForStatement() {
-		if (!startsForStatement(nowReading)) return syntaxErrorNode("for statement");
-		
-		ParseNode forStatementBlock;
-
+	private OpenStatement beginForStatement() {
 		// for ...
 		Token forStatementToken = nowReading;
 		readToken();
@@ -587,47 +693,48 @@ public class Parser {
 		expect(Punctuator.CLOSE_ROUND_BRACKET);
 		
 		// ... { block } ...
-		forStatementBlock = parseBlockStatement();
-		
-		return ForStatementNode.withChildren(forStatementToken, forControlPhase, forStatementBlock);
+		return new OpenStatement() {
+			ParseNode take(ParseNode forStatementBlock) {
+				return ForStatementNode.withChildren(forStatementToken, forControlPhase, forStatementBlock);
+			}
+		};
 	}
 	
-	private boolean startsForStatement(Token token) {
-		return token.isLextant(Keyword.FOR);
+	private boolean startsForStatement(int kind) {
+		return FOR_STATEMENT.contains(kind);
 	}
 	
 	// forControlPhase -> ever | count ( expression lessOp )? identifier lessOp expression
 	
 	// Parses each For Control Phrase of a For Statement
 	private ParseNode parseForControlPhrase() {
-		if (!startsForControlPhrase(nowReading))		return syntaxErrorNode("for control phrase");
+		if (!startsForControlPhrase(nowReadingKind))		return syntaxErrorNode("for control phrase");
 
-		if (startsForEverControlPhrase(nowReading)) 	return parseForEverControlPhrase();
+		if (startsForEverControlPhrase(nowReadingKind)) 	return parseForEverControlPhrase();
 		
-		if (startsForCountControlPhrase(nowReading)) 	return parseForCountControlPhrase();
+		if (startsForCountControlPhrase(nowReadingKind)) 	return parseForCountControlPhrase();
 		
-		if (startsForPairControlPhrase(nowReading)) 	return parseForPairControlPhrase();
+		if (startsForPairControlPhrase(nowReadingKind)) 	return parseForPairControlPhrase();
 		
 		assert false : "bad token " + nowReading + " in parseForControlPhrase()";
 		return null;
 	}
 	
-	private boolean startsForControlPhrase(Token token) {
-		return startsForEverControlPhrase(token) ||
-				startsForCountControlPhrase(token);
+	private boolean startsForControlPhrase(int kind) {
+		return FOR_CONTROL_PHRASE.contains(kind);
 	}
 	
 	// forControlPhrase -> ever
 	private ParseNode parseForEverControlPhrase() {
-		if (!startsForEverControlPhrase(nowReading)) return syntaxErrorNode("parse for ever control phrase");
+		if (!startsForEverControlPhrase(nowReadingKind)) return syntaxErrorNode("parse for ever control phrase");
 		
 		readToken();
 		
 		return new ForEverNode(previouslyRead);
 	}
 	
-	private boolean startsForEverControlPhrase(Token token) {
-		return token.isLextant(Keyword.EVER);
+	private boolean startsForEverControlPhrase(int kind) {
+		return FOR_EVER_CONTROL_PHRASE.contains(kind);
 	}
 	
 	// forControlPhrase -> count ( expression lessOp )? identifier lessOp expression
@@ -635,21 +742,21 @@ public class Parser {
 		return null;
 	}
 	
-	private boolean startsForCountControlPhrase(Token token) {
-		return token.isLextant(Keyword.COUNT);
+	private boolean startsForCountControlPhrase(int kind) {
+		return FOR_COUNT_CONTROL_PHRASE.contains(kind);
 	}
 	
 	// forControlPhrase -> pair identifier, identifier of expression
 	private ParseNode parseForPairControlPhrase() {
-		if (!startsForEverControlPhrase(nowReading)) return syntaxErrorNode("parse for pair");
+		if (!startsForEverControlPhrase(nowReadingKind)) return syntaxErrorNode("parse for pair");
 		
 		readToken();
 		
 		return new ForEverNode(previouslyRead);
 	}
 	
-	private boolean startsForPairControlPhrase(Token token) {
-		return token.isLextant(Keyword.PAIR);
+	private boolean startsForPairControlPhrase(int kind) {
+		return FOR_PAIR_CONTROL_PHRASE.contains(kind);
 	}
 	
 	/*******************/
@@ -658,7 +765,7 @@ public class Parser {
 	
 	// breakStatement -> break ;
 	private ParseNode parseBreakStatement(){
-		if (!startsBreakStatement(nowReading)) return syntaxErrorNode("break statement");
+		if (!startsBreakStatement(nowReadingKind)) return syntaxErrorNode("break statement");
 		
 		Token breakToken = nowReading;
 		readToken();
@@ -668,8 +775,8 @@ public class Parser {
 		return new BreakNode(breakToken);
 	}
 	
-	private boolean startsBreakStatement(Token token){
-		   return token.isLextant(Keyword.BREAK);
+	private boolean startsBreakStatement(int kind) {
+		return BREAK_STATEMENT.contains(kind);
 	}
 	
 	/******************/
@@ -678,7 +785,7 @@ public class Parser {
 	
 	// diagStatement -> expression (:: expression (, expression)*)? ;
 	private ParseNode parseDiagStatement(){
-		if (!startsDiagStatement(nowReading)) return syntaxErrorNode("diag statement");
+		if (!startsDiagStatement(nowReadingKind)) return syntaxErrorNode("diag statement");
 		
 		ArrayList<ParseNode> expressionList = new ArrayList<ParseNode>();
 		
@@ -690,13 +797,13 @@ public class Parser {
 		ParseNode diagExpression = parseExpression();
 		expressionList.add(diagExpression);
 		
-		if (nowReading.isLextant(Punctuator.DOUBLE_COLON)) {
+		if (nowReadingIs(Punctuator.DOUBLE_COLON)) {
 			readToken();
 			
 			diagExpression = parseExpression();
 			expressionList.add(diagExpression);
 			
-			while (!nowReading.isLextant(Punctuator.TERMINATOR)) {
+			while (!nowReadingIs(Punctuator.TERMINATOR) && !recovering) {
 				expect(Punctuator.SEPARATOR);
 				
 				diagExpression = parseExpression();
@@ -710,128 +817,120 @@ public class Parser {
 		return DiagStatementNode.withChildren(diagToken, expressionList);
 	}
 	
-	private boolean startsDiagStatement(Token token){
-		   return token.isLextant(Keyword.DIAG);
+	private boolean startsDiagStatement(int kind) {
+		return DIAG_STATEMENT.contains(kind);
 	}
 	
 	///////////////////////////////////////////////////////////
 	// EXPRESSIONS
 	// expr  -> exprBooleanComparison_Or
-	// exprBooleanComparison_Or -> exprBooleanComparison_And || exprBooleanComparison_And
-	// exprBooleanComparison_And -> exprComparisonOperators && exprComparisonOperators
+	// exprBooleanComparison_Or -> exprBooleanComparison_And [|| exprBooleanComparison_And]?
+	// exprBooleanComparison_And -> exprComparisonOperators [&& exprComparisonOperators]?
 	// exprComparisonOperators -> expr2 [(<|<=|==|!=|>|>=) expr2]?
 	// expr2 -> expr3 [(+|-) expr3]*  (left-assoc)
-	// expr3 -> exprCast [(*|/) exprCast]*  (left-assoc)
-	// exprCast -> expr5 : type
+	// expr3 -> exprUnary [(*|/) exprUnary]*  (left-assoc)
+	// exprUnary -> (!|#|$|@)? expr5
 	// expr5 -> literal OR ( expr )
 	// literal -> intNumber | floatNumber | characterConstant | booleanConstant | stringConstant | identifier
-	// expr -> parseExpressionInBetweenParentheses
+	//
+	// The binary levels are parsed by precedence climbing, with the binding powers of
+	// BindingPowers: one loop handles every level, instead of a method per level.  Since
+	// parentheses nest to any depth, the constructs waiting for an operand (binary levels,
+	// prefix operators and parentheses) are kept on a stack, as blocks are, instead of in
+	// recursive calls.
 	///////////////////////////////////////////////////////////
 	
-	// expr  -> exprBooleanComparison_Or
-	private ParseNode parseExpression() {		
-		if (!startsExpression(nowReading)) return syntaxErrorNode("expression");
-		
-		return parseBooleanOperator_Or();
-	}
-	
-	// exprBooleanComparison_Or -> exprBooleanOperator_And
-	private ParseNode parseBooleanOperator_Or() {
-		if (!startsBooleanOperator_Or(nowReading)) return syntaxErrorNode("BooleanOperator_Or");
-		
-		ParseNode left = parseBooleanOperator_And();
-		
-		if (nowReading.isLextant(Punctuator.OR)) {
-			Token compareToken = nowReading;
-			readToken();
-			
-			ParseNode right = parseBooleanOperator_And();
-			
-			return BinaryOperatorNode.withChildren(compareToken, left, right);
+	// the nonterminal each binding power starts, for error messages
+	private static final String[] OPERAND_NAMES = {
+		"expression", "BooleanOperator_Or", "BooleanOperator_And", "expression<1>", "expression<2>", "expression<3>", "expression<cast>",
+	};
+	
+	private abstract class OpenExpression {
+		// Take the finished operand.  Returns the finished construct, or null if it read
+		// an operator and now waits for the operand of power operandPower().
+		abstract ParseNode take(ParseNode operand);
+		int operandPower() {
+			return BindingPowers.OPERAND;
 		}
-		
-		return left;
 	}
 	
-	// exprBooleanOperator_And -> BooleanComparison
-	private ParseNode parseBooleanOperator_And() {
-		if (!startsBooleanOperator_And(nowReading)) return syntaxErrorNode("BooleanOperator_And");
-		
-		ParseNode left = parseComparisonOperators();
-		
-		if (nowReading.isLextant(Punctuator.AND)) {
-			Token compareToken = nowReading;
-			readToken();
-			
-			ParseNode right = parseComparisonOperators();
-			
-			return BinaryOperatorNode.withChildren(compareToken, left, right);
+	// expr  -> exprBooleanComparison_Or
+	private ParseNode parseExpression() {
+		Deque<OpenExpression> open = new ArrayDeque<OpenExpression>();
+		ParseNode finished = beginOperand(open, BindingPowers.LOWEST, "expression");
+		
+		while (!open.isEmpty()) {
+			OpenExpression construct = open.peek();
+			finished = construct.take(finished);
+			if (finished == null) {
+				int power = construct.operandPower();
+				finished = beginOperand(open, power, OPERAND_NAMES[power]);
+			}
+			else {
+				open.pop();
+			}
 		}
-		
-		return left;
+		return finished;
 	}
 	
-	// exprComparisonOperators -> expr2 [(<|<=|==|!=|>|>=) expr2]?
-	private ParseNode parseComparisonOperators() {
-		if (!startsComparisonOperators(nowReading)) return syntaxErrorNode("expression<1>");
-		
-		ParseNode left = parseExpression2();
-		
-		if (nowReading.isLextant(Punctuator.GREATER) ||
-				nowReading.isLextant(Punctuator.LESSER) ||
-				nowReading.isLextant(Punctuator.LESSER_OR_EQUAL) ||
-				nowReading.isLextant(Punctuator.EQUAL) ||
-				nowReading.isLextant(Punctuator.NOT_EQUAL) ||
-				nowReading.isLextant(Punctuator.GREATER) ||
-				nowReading.isLextant(Punctuator.GREATER_OR_EQUAL)) {
-			Token compareToken = nowReading;
-			readToken();
+	// An operand of binding power at least minimumPower: the right operand of an operator
+	// of power minimumPower - 1, or a whole expression.  This parses up to the first
+	// primary expression that is not in parentheses, and returns it, with the constructs
+	// waiting for it pushed on open.
+	private ParseNode beginOperand(Deque<OpenExpression> open, int minimumPower, String expectedSymbol) {
+		while (true) {
+			if (!startsExpression(nowReadingKind)) return syntaxErrorNode(expectedSymbol);
 			
-			ParseNode right = parseExpression2();
+			if (minimumPower != BindingPowers.OPERAND) {
+				open.push(new BinaryLevel(minimumPower));
+			}
+			beginUnaryExpression(open);
 			
-			return BinaryOperatorNode.withChildren(compareToken, left, right);
+			if (!startsExpressionInBetweenParentheses(nowReadingKind)) {
+				return parsePrimaryExpression();
+			}
+			beginExpressionInBetweenParentheses(open);
+			minimumPower = BindingPowers.LOWEST;
+			expectedSymbol = "expression";
 		}
-		
-		return left;
 	}
 	
-	// expr2 -> expr3 [(+|-) expr3]*  (left-assoc)
-	private ParseNode parseExpression2() {
-		if (!startsExpression2(nowReading)) return syntaxErrorNode("expression<2>");
-		
-		ParseNode left = parseExpression3();
+	// Apply the binary operators of power at least minimumPower, left to right.  Once an
+	// operator of a level that does not chain has been applied, operators of that level
+	// and above end the expression.
+	private class BinaryLevel extends OpenExpression {
+		private final int minimumPower;
+		private ParseNode left = null;
+		private Token operatorToken;
+		private int power;
+		private int ceiling = BindingPowers.OPERAND;
 		
-		while(nowReading.isLextant(Punctuator.ADD) || nowReading.isLextant(Punctuator.SUBTRACT)) {
-			Token token = nowReading;
-			readToken();
-			
-			ParseNode right = parseExpression3();
-			
-			left = BinaryOperatorNode.withChildren(token, left, right);
+		BinaryLevel(int minimumPower) {
+			this.minimumPower = minimumPower;
 		}
-		
-		return left;
-	}
-
-	// expr3 -> expr4 [(*|/) expr4]*  (left-assoc)
-	private ParseNode parseExpression3() {
-		if (!startsExpression3(nowReading)) return syntaxErrorNode("expression<3>");
-		
-		ParseNode left = parseCastExpression();
-		
-		while (nowReading.isLextant(Punctuator.MULTIPLY) || nowReading.isLextant(Punctuator.DIVIDE)) {
-			Token token = nowReading;
-			readToken();
-			
-			ParseNode right = parseCastExpression();
+		ParseNode take(ParseNode operand) {
+			if (left == null) {
+				left = operand;
+			}
+			else {
+				left = BinaryOperatorNode.withChildren(operatorToken, left, operand);
+				ceiling = BindingPowers.chains(power) ? power + 1 : power;
+			}
+			power = BindingPowers.binaryPowerOf(nowReadingKind);
 			
-			left = BinaryOperatorNode.withChildren(token, left, right);
+			if (power >= minimumPower && power < ceiling) {
+				operatorToken = nowReading;
+				readToken();
+				return null;
+			}
+			return left;
+		}
+		int operandPower() {
+			return power + 1;
 		}
-		
-		return left;
 	}
 	
-	// exprCastExpression -> expr5 : type
+	// exprCast -> expr5 : type is not parsed yet; casts are disabled in the grammar.
 	/*
 	 * -Booleans can't be cast to any other type
 	 * -Chars may be cast to integers (they yield an integer between 0 and 127)
@@ -843,104 +942,52 @@ public class Parser {
 	 * -No other casts are allowed
 	 */
 	
-	private ParseNode parseCastExpression() {
-		if (!startsCastExpression(nowReading)) return syntaxErrorNode("expression<cast>");
-		
-		ParseNode left = parseExpression5();
-	
-		/*if (nowReading.isLextant(Punctuator.COLON)) {
-			// expr : ...
-			Token colonToken = nowReading;
-			expect(Punctuator.COLON);
-			
-			debug.out("NOW READING (after COLON): " + nowReading);
-			
-			/// ... type
-			Token typeToken = nowReading;
-			
-			readToken();
-			
-			ParseNode right = new TypeNode(typeToken);
-			
-			return CastNode.withChildren(colonToken, left, right);
-		}*/
-			
-		return left;
-	}
-	
-	// expr4 -> (!|#) expr 
-	private ParseNode parseExpression5() {
-		if (!startsExpressionWithHighestPrecendence(nowReading)) return syntaxErrorNode("expression<5>");
-		
-		if (nowReading.isLextant(Punctuator.NOT)) {
-			Token negateToken = nowReading;
+	// exprUnary -> (!|#|$|@)? expr5
+	private void beginUnaryExpression(Deque<OpenExpression> open) {
+		if (BindingPowers.isPrefixOperator(nowReadingKind)) {
+			Token operatorToken = nowReading;
 			readToken();
 			
-			ParseNode node = parseExpression6();
-			
-			return UnaryOperatorNode.withChild(negateToken, node);
-		} else if (nowReading.isLextant(Punctuator.REFCOUNT)) {
-			Token refcountToken = nowReading;
-			readToken();
-			
-			ParseNode node = parseExpression6();
-			
-			return UnaryOperatorNode.withChild(refcountToken, node);
-		} else if (nowReading.isLextant(Punctuator.RECORD_NUMBER)) {
-			Token recordNumberToken = nowReading;
-			readToken();
-			
-			ParseNode node = parseExpression6();
-			
-			return UnaryOperatorNode.withChild(recordNumberToken, node);
-		} else if (nowReading.isLextant(Punctuator.ADDRESS_OF)) {
-			Token addressOfToken = nowReading;
-			readToken();
-			
-			ParseNode node = parseExpression6();
-			
-			return UnaryOperatorNode.withChild(addressOfToken, node);
+			open.push(new OpenExpression() {
+				ParseNode take(ParseNode node) {
+					return UnaryOperatorNode.withChild(operatorToken, node);
+				}
+			});
 		}
-		
-		return parseExpression6();
 	}
 	
-	// expr5 -> literal OR ( expr )
-	private ParseNode parseExpression6() {
-		if (!startsExpressionWithHighestPrecendence(nowReading)) return syntaxErrorNode("expression<6>");
+	// expr5 -> literal OR ( expr ); parentheses are begun by beginOperand.
+	private ParseNode parsePrimaryExpression() {
+		if (!startsExpression(nowReadingKind)) return syntaxErrorNode("expression<6>");
 		
-		if (nowReading.isLextant(Punctuator.OPEN_ROUND_BRACKET)) {
-			return parseExpressionInBetweenParentheses();
-		} else {
-			return parseLiteral();
-		}
+		return parseLiteral();
 	}
 	
 	// literal -> integerConst | floatConst | booleanConst | characterConst| stringConst | identifier 
 	private ParseNode parseLiteral() {
-		if (!startsLiteral(nowReading)) return syntaxErrorNode("literal");
+		if (!startsLiteral(nowReadingKind)) return syntaxErrorNode("literal");
 		
-		if (startsIntNumber(nowReading)) {
+		if (startsIntNumber(nowReadingKind)) {
 			return parseIntNumber();
 		}
 		
-		if (startsFloatNumber(nowReading)) {
+		if (startsFloatNumber(nowReadingKind)) {
 			return parseFloatNumber();
 		}
 		
-		if (startsBooleanConstant(nowReading)) {
+		if (startsBooleanConstant(nowReadingKind)) {
 			return parseBooleanConstant();
 		}
 
-		if (startsCharacterConstant(nowReading)) {
+		if (startsCharacterConstant(nowReadingKind)) {
 			return parseCharacterConstant();
 		}
 		
-		if (startsStringConstant(nowReading)) {
+		if (startsStringConstant(nowReadingKind)) {
 			return parseStringConstant();
 		}
 		
-		if (startsIdentifier(nowReading)) {
+		if (startsIdentifier(nowReadingKind)) {
 			return parseIdentifier();
 		}
 		
@@ -949,93 +996,33 @@ public class Parser {
 	}
 
 	// expr -> ( expr )
-	private ParseNode parseExpressionInBetweenParentheses() {
-		if (!startsExpressionInBetweenParentheses(nowReading)) return syntaxErrorNode("statement in parentheses");
-		
-		ParseNode left;
-		
+	private void beginExpressionInBetweenParentheses(Deque<OpenExpression> open) {
 		expect(Punctuator.OPEN_ROUND_BRACKET);
 		
-		left = parseExpression();
-		
-		expect(Punctuator.CLOSE_ROUND_BRACKET);
-		
-		return left;
+		open.push(new OpenExpression() {
+			ParseNode take(ParseNode left) {
+				expect(Punctuator.CLOSE_ROUND_BRACKET);
+				return left;
+			}
+		});
 	}
 	
 	// starts expressions
-	private boolean startsExpression(Token token) {
-		return startsBooleanOperator_Or(token);
-	}
-	
-	private boolean startsBooleanOperator_Or(Token token) {
-		return startsBooleanOperator_And(token);
-	}
-	
-	private boolean startsBooleanOperator_And(Token token) {
-		return startsComparisonOperators(token);
-	}
-	
-	private boolean startsComparisonOperators(Token token) {
-		return startsExpression2(token);
-	}
-	
-	private boolean startsExpression2(Token token) {
-		return startsExpression3(token);
-	}	
-	
-	private boolean startsExpression3(Token token) {
-		return startsCastExpression(token);
-	}
-	
-	private boolean startsCastExpression(Token token) {
-		return startsExpression5(token);
+	private boolean startsExpression(int kind) {
+		return EXPRESSION.contains(kind);
 	}
 	
-	private boolean startsExpression5(Token token) {
-		return startsExpressionWithHighestPrecendence(token);
-	}
-	
-	private boolean startsExpressionWithHighestPrecendence(Token token) {
-		if (isValidExpression()) {
-			return true;
-		} else {
-			return startsLiteral(token);
-		}
-	}
-	
-	private boolean startsLiteral(Token token) {
-		return startsIntNumber(token) || 
-				startsFloatNumber(token) || 
-				startsCharacterConstant(token) || 
-				startsStringConstant(token) || 
-				startsIdentifier(token) || 
-				startsBooleanConstant(token);
+	private boolean startsLiteral(int kind) {
+		return LITERAL.contains(kind);
 	}
 
-	private boolean startsExpressionInBetweenParentheses(Token token) {
-		if (token.isLextant(Punctuator.OPEN_ROUND_BRACKET)) {
-			return true;
-		} else {
-			return false;
-		}
-	}
-	
-	private boolean isValidExpression() {
-		if (nowReading.isLextant(Punctuator.OPEN_ROUND_BRACKET) ||
-				nowReading.isLextant(Punctuator.NOT) ||
-				nowReading.isLextant(Punctuator.REFCOUNT) ||
-				nowReading.isLextant(Punctuator.RECORD_NUMBER)||
-				nowReading.isLextant(Punctuator.ADDRESS_OF)) {
-			return true;
-		} else {
-			return false;
-		}
+	private boolean startsExpressionInBetweenParentheses(int kind) {
+		return PARENTHESIZED_EXPRESSION.contains(kind);
 	}
 	
 	// number (terminal)
 	private ParseNode parseIntNumber() {
-		if (!startsIntNumber(nowReading)) return syntaxErrorNode("integer constant"); 
+		if (!startsIntNumber(nowReadingKind)) return syntaxErrorNode("integer constant"); 
 		
 		readToken();
 		
@@ -1043,71 +1030,71 @@ public class Parser {
 	}
 	
 	private ParseNode parseFloatNumber() {
-		if (!startsFloatNumber(nowReading)) return syntaxErrorNode("float constant");
+		if (!startsFloatNumber(nowReadingKind)) return syntaxErrorNode("float constant");
 		
 		readToken();
 		
 		return new FloatConstantNode(previouslyRead);
 	}
 	
-	private boolean startsIntNumber(Token token) {
-		return token instanceof IntegerToken;
+	private boolean startsIntNumber(int kind) {
+		return INTEGER_CONSTANT.contains(kind);
 	}
 	
-	private boolean startsFloatNumber(Token token) {
-		return token instanceof FloatToken;
+	private boolean startsFloatNumber(int kind) {
+		return FLOAT_CONSTANT.contains(kind);
 	}
 
 	// character (terminal)
 	private ParseNode parseCharacterConstant() {
-		if (!startsCharacterConstant(nowReading)) return syntaxErrorNode("character constant");
+		if (!startsCharacterConstant(nowReadingKind)) return syntaxErrorNode("character constant");
 		
 		readToken();
 		
 		return new CharacterConstantNode(previouslyRead);
 	}
 	
-	private boolean startsCharacterConstant(Token token) {
-		return token instanceof CharacterToken;
+	private boolean startsCharacterConstant(int kind) {
+		return CHARACTER_CONSTANT.contains(kind);
 	}
 	
 	// string (terminal)
 	private ParseNode parseStringConstant() {
-		if (!startsStringConstant(nowReading)) return syntaxErrorNode("string constant");
+		if (!startsStringConstant(nowReadingKind)) return syntaxErrorNode("string constant");
 		
 		readToken();
 		
 		return new StringConstantNode(previouslyRead);
 	}
 	
-	private boolean startsStringConstant(Token token) {
-		return token instanceof StringToken;
+	private boolean startsStringConstant(int kind) {
+		return STRING_CONSTANT.contains(kind);
 	}
 		
 	// identifier (terminal)
 	private ParseNode parseIdentifier() {
-		if (!startsIdentifier(nowReading)) return syntaxErrorNode("identifier");
+		if (!startsIdentifier(nowReadingKind)) return syntaxErrorNode("identifier");
 		
 		readToken();
 		
 		return new IdentifierNode(previouslyRead);
 	}
 	
-	private boolean startsIdentifier(Token token) {
-		return token instanceof IdentifierToken;
+	private boolean startsIdentifier(int kind) {
+		return IDENTIFIER.contains(kind);
 	}
 
 	// boolean constant (terminal)
 	private ParseNode parseBooleanConstant() {
-		if (!startsBooleanConstant(nowReading)) return syntaxErrorNode("boolean constant");
+		if (!startsBooleanConstant(nowReadingKind)) return syntaxErrorNode("boolean constant");
 	
 		readToken();
 		
 		return new BooleanConstantNode(previouslyRead);
 	}
 	
-	private boolean startsBooleanConstant(Token token) {
-		return token.isLextant(Keyword.TRUE, Keyword.FALSE);
+	private boolean startsBooleanConstant(int kind) {
+		return BOOLEAN_CONSTANT.contains(kind);
 	}
 	
 	/**********/
@@ -1115,7 +1102,7 @@ public class Parser {
 	/**********/
 	
 	private ParseNode parseTarget() {
-		if (startsIdentifier(nowReading)) {
+		if (startsIdentifier(nowReadingKind)) {
 			return parseIdentifier();
 		}
 		
@@ -1128,38 +1115,81 @@ public class Parser {
 	
 	private void readToken() {
 		previouslyRead = nowReading;
+		recovering = false;
 		
 		//debug.out("LAST READ TOKEN: " + nowReading); // TODO: zTOKEN PRINT
 		
-		nowReading = scanner.next();
+		nowReading = tokens.next();
+		nowReadingKind = TokenKindSet.kindOf(nowReading);
+	}
+	
+	private boolean nowReadingIs(Lextant lextant) {
+		return nowReadingKind == TokenKindSet.kindOf(lextant);
 	}
 	
 	/*****************/
 	/* ERROR RELATED */
 	/*****************/
 	
-	// if the current token is one of the given lextants, read the next token.
-	// otherwise, give a syntax error and read next token (to avoid endless looping).
-	private void expect(Lextant ...lextants ) { // ... means we can pass in 0 or more Lextants
-		if (!nowReading.isLextant(lextants)) syntaxError(nowReading, "expecting " + Arrays.toString(lextants));
-		
+	// Syntax errors are recovered from in panic mode.  The first error is reported, and the
+	// tokens up to the next SYNCHRONIZING token are skipped (a ; is skipped too, as it ends
+	// the broken statement).  Until the parser next reads a token it expected, it is
+	// recovering: further errors are the same mistake seen from enclosing constructs, so they
+	// are neither reported nor skipped over, and the enclosing constructs unwind to a point
+	// that accepts the synchronizing token.  Each mistake gives one message, and loops that
+	// are not controlled by a FIRST set stop while recovering.  After MAXIMUM_SYNTAX_ERRORS
+	// messages the rest of the input is skipped.
+	
+	// if the current token is the given lextant, read the next token.
+	// otherwise, give a syntax error and skip to a synchronizing token.
+	private void expect(Lextant lextant) {
+		if (!nowReadingIs(lextant)) {
+			syntaxError(nowReading, "expecting " + Arrays.toString(new Lextant[] {lextant}));
+			return;
+		}
 		readToken();
 	}	
 	
 	private ErrorNode syntaxErrorNode(String expectedSymbol) {
-		syntaxError(nowReading, "expecting " + expectedSymbol);
 		ErrorNode errorNode = new ErrorNode(nowReading);
-		readToken();
+		syntaxError(nowReading, "expecting " + expectedSymbol);
 		return errorNode;
 	}
 	
 	private void syntaxError(Token token, String errorDescription) {
+		if (recovering) {
+			return;
+		}
 		String message = "" + token.getLocation() + " " + errorDescription;
 		error(message);
+		
+		syntaxErrorCount++;
+		if (syntaxErrorCount < MAXIMUM_SYNTAX_ERRORS) {
+			synchronize();
+		} else {
+			error("" + token.getLocation() + " too many syntax errors; the rest of the input is skipped");
+			skipToEnd();
+		}
+	}
+	
+	private void synchronize() {
+		while (!SYNCHRONIZING.contains(nowReadingKind)) {
+			readToken();
+		}
+		if (nowReadingIs(Punctuator.TERMINATOR)) {
+			readToken();
+		}
+		recovering = true;
+	}
+	private void skipToEnd() {
+		while (nowReadingKind != TokenKindSet.END) {
+			readToken();
+		}
+		recovering = true;
 	}
 	
 	private void error(String message) {
-		GrouseLogger log = GrouseLogger.getLogger("compiler.Parser");
+		GrouseLogger log = context.getLogger("compiler.Parser");
 		log.severe("syntax error: " + message);
 	}	
 }
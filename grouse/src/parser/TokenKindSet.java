@@ -0,0 +1,134 @@
+package parser;
+
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Lextant;
+import lexicalAnalyzer.Punctuator;
+import tokens.CharacterToken;
+import tokens.FloatToken;
+import tokens.IdentifierToken;
+import tokens.IntegerToken;
+import tokens.LextantToken;
+import tokens.NullToken;
+import tokens.StringToken;
+import tokens.Token;
+
+/** An immutable set of token kinds, kept as a bitmask, for the Parser's FIRST sets.
+ * <p>
+ *  A token's kind is a small ordinal: each Keyword and each Punctuator has its own kind, and
+ *  identifiers, integers, floats, characters and strings have one kind apiece, as does the
+ *  NullToken at the end of input.  Every other token is of kind OTHER, which no set
+ *  contains.  Since there are fewer than 128 kinds, a set is two longs, and asking whether
+ *  it contains a kind is a shift and a mask.
+ */
+public final class TokenKindSet {
+	private static final int PUNCTUATOR_BASE = Keyword.values().length;
+	public static final int IDENTIFIER = PUNCTUATOR_BASE + Punctuator.values().length;
+	public static final int INTEGER = IDENTIFIER + 1;
+	public static final int FLOAT = IDENTIFIER + 2;
+	public static final int CHARACTER = IDENTIFIER + 3;
+	public static final int STRING = IDENTIFIER + 4;
+	public static final int END = IDENTIFIER + 5;
+	public static final int OTHER = IDENTIFIER + 6;
+	
+	private static final int WORD_SIZE = 64;
+	static {
+		assert OTHER < 2 * WORD_SIZE : "too many token kinds for a TokenKindSet";
+	}
+	
+	public static final TokenKindSet EMPTY = new TokenKindSet(0L, 0L);
+	
+	private final long low;			// kinds [0, 64)
+	private final long high;		// kinds [64, 128)
+	
+	private TokenKindSet(long low, long high) {
+		this.low = low;
+		this.high = high;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// kinds
+	
+	public static int kindOf(Lextant lextant) {
+		if(lextant instanceof Keyword) {
+			return ((Keyword)lextant).ordinal();
+		}
+		if(lextant instanceof Punctuator) {
+			return PUNCTUATOR_BASE + ((Punctuator)lextant).ordinal();
+		}
+		throw new IllegalArgumentException("token kind: unknown lextant " + lextant);
+	}
+	public static int kindOf(Token token) {
+		if(token instanceof LextantToken) {
+			return kindOf(((LextantToken)token).getLextant());
+		}
+		if(token instanceof IdentifierToken) {
+			return IDENTIFIER;
+		}
+		if(token instanceof IntegerToken) {
+			return INTEGER;
+		}
+		if(token instanceof FloatToken) {
+			return FLOAT;
+		}
+		if(token instanceof CharacterToken) {
+			return CHARACTER;
+		}
+		if(token instanceof StringToken) {
+			return STRING;
+		}
+		if(token instanceof NullToken) {
+			return END;
+		}
+		return OTHER;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// construction
+	
+	public static TokenKindSet of(Lextant ...lextants) {
+		TokenKindSet result = EMPTY;
+		for(Lextant lextant: lextants) {
+			result = result.with(kindOf(lextant));
+		}
+		return result;
+	}
+	public static TokenKindSet ofKinds(int ...kinds) {
+		TokenKindSet result = EMPTY;
+		for(int kind: kinds) {
+			result = result.with(kind);
+		}
+		return result;
+	}
+	public static TokenKindSet union(TokenKindSet ...sets) {
+		long low = 0L;
+		long high = 0L;
+		for(TokenKindSet set: sets) {
+			low |= set.low;
+			high |= set.high;
+		}
+		return new TokenKindSet(low, high);
+	}
+	
+	private TokenKindSet with(int kind) {
+		if(kind < 0 || kind >= OTHER) {
+			throw new IllegalArgumentException("token kind set: bad kind " + kind);
+		}
+		if(kind < WORD_SIZE) {
+			return new TokenKindSet(low | (1L << kind), high);
+		}
+		return new TokenKindSet(low, high | (1L << (kind - WORD_SIZE)));
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	public boolean contains(int kind) {
+		if(kind < WORD_SIZE) {
+			return ((low >>> kind) & 1L) != 0;
+		}
+		return ((high >>> (kind - WORD_SIZE)) & 1L) != 0;
+	}
+	public boolean contains(Token token) {
+		return contains(kindOf(token));
+	}
+}
@@ -0,0 +1,29 @@
+package parser.tests;
+
+import inputHandler.MappedSourceBuffer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenArray;
+import parseTree.ParseNode;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+
+/** Short programs given as text, taken through the front end for the tests of the parser and
+ *  of the passes after it.  Everything is done in the current CompilationContext, so a test
+ *  runs these in the context it means to check: new CompilationContext().call(() -> parse(text)).
+ */
+public class ParserFixtures {
+	public static final String SOURCE_NAME = "fixture";
+	
+	/** The tokens of text, from the current context's choice of lexer. */
+	public static TokenArray tokens(String text) {
+		MappedSourceBuffer source = MappedSourceBuffer.fromString(SOURCE_NAME, text);
+		return TokenArray.fromScanner(LexicalAnalyzer.make(source, LexicalAnalyzer.getImplementation()), source);
+	}
+	public static ParseNode parse(String text) {
+		return Parser.parse(tokens(text));
+	}
+	/** The tree of text, decorated by semantic analysis. */
+	public static ParseNode analyze(String text) {
+		return SemanticAnalyzer.analyze(parse(text));
+	}
+}
@@ -0,0 +1,175 @@
+package parser.tests;
+
+import static parser.tests.ParserFixtures.parse;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import logging.GrouseLogger;
+import parseTree.ParseNode;
+import parseTree.ParseTreePrinter;
+import utilities.CompilationContext;
+
+// The expected trees and messages are those of the parser before expressions were parsed by
+// precedence climbing, which had a method per precedence level.
+public class TestExpressionTrees extends TestCase {
+	private ParseTreePrinter.Level savedLevel;
+	
+	@Override
+	protected void setUp() {
+		savedLevel = ParseTreePrinter.getPrintLevel();
+		ParseTreePrinter.setPrintLevel(ParseTreePrinter.Level.NODE_CLASS_AND_TOKEN);
+	}
+	@Override
+	protected void tearDown() {
+		ParseTreePrinter.setPrintLevel(savedLevel);
+	}
+	
+	public void testPrecedence() {
+		assertTree("1 + 2 * 3",
+				"BinaryOperatorNode (ADD)",
+				"    IntegerConstantNode (number, 1)",
+				"    BinaryOperatorNode (MULTIPLY)",
+				"        IntegerConstantNode (number, 2)",
+				"        IntegerConstantNode (number, 3)");
+		assertTree("1 * 2 + 3",
+				"BinaryOperatorNode (ADD)",
+				"    BinaryOperatorNode (MULTIPLY)",
+				"        IntegerConstantNode (number, 1)",
+				"        IntegerConstantNode (number, 2)",
+				"    IntegerConstantNode (number, 3)");
+		assertTree("1 - 2 + 3 * 4 / 5",
+				"BinaryOperatorNode (ADD)",
+				"    BinaryOperatorNode (SUBTRACT)",
+				"        IntegerConstantNode (number, 1)",
+				"        IntegerConstantNode (number, 2)",
+				"    BinaryOperatorNode (DIVIDE)",
+				"        BinaryOperatorNode (MULTIPLY)",
+				"            IntegerConstantNode (number, 3)",
+				"            IntegerConstantNode (number, 4)",
+				"        IntegerConstantNode (number, 5)");
+		assertTree("(1 + 2) * 3",
+				"BinaryOperatorNode (MULTIPLY)",
+				"    BinaryOperatorNode (ADD)",
+				"        IntegerConstantNode (number, 1)",
+				"        IntegerConstantNode (number, 2)",
+				"    IntegerConstantNode (number, 3)");
+		assertTree("a < b + 1",
+				"BinaryOperatorNode (LESSER)",
+				"    IdentifierNode (identifier, a)",
+				"    BinaryOperatorNode (ADD)",
+				"        IdentifierNode (identifier, b)",
+				"        IntegerConstantNode (number, 1)");
+		assertTree("a + 1 == b * 2",
+				"BinaryOperatorNode (EQUAL)",
+				"    BinaryOperatorNode (ADD)",
+				"        IdentifierNode (identifier, a)",
+				"        IntegerConstantNode (number, 1)",
+				"    BinaryOperatorNode (MULTIPLY)",
+				"        IdentifierNode (identifier, b)",
+				"        IntegerConstantNode (number, 2)");
+		assertTree("a < b && c || d",
+				"BinaryOperatorNode (OR)",
+				"    BinaryOperatorNode (AND)",
+				"        BinaryOperatorNode (LESSER)",
+				"            IdentifierNode (identifier, a)",
+				"            IdentifierNode (identifier, b)",
+				"        IdentifierNode (identifier, c)",
+				"    IdentifierNode (identifier, d)");
+		assertTree("a || b && c",
+				"BinaryOperatorNode (OR)",
+				"    IdentifierNode (identifier, a)",
+				"    BinaryOperatorNode (AND)",
+				"        IdentifierNode (identifier, b)",
+				"        IdentifierNode (identifier, c)");
+		assertTree("a && b || c && d",
+				"BinaryOperatorNode (OR)",
+				"    BinaryOperatorNode (AND)",
+				"        IdentifierNode (identifier, a)",
+				"        IdentifierNode (identifier, b)",
+				"    BinaryOperatorNode (AND)",
+				"        IdentifierNode (identifier, c)",
+				"        IdentifierNode (identifier, d)");
+	}
+	
+	public void testLeftAssociativity() {
+		assertTree("1 - 2 - 3",
+				"BinaryOperatorNode (SUBTRACT)",
+				"    BinaryOperatorNode (SUBTRACT)",
+				"        IntegerConstantNode (number, 1)",
+				"        IntegerConstantNode (number, 2)",
+				"    IntegerConstantNode (number, 3)");
+		assertTree("8 / 4 / 2",
+				"BinaryOperatorNode (DIVIDE)",
+				"    BinaryOperatorNode (DIVIDE)",
+				"        IntegerConstantNode (number, 8)",
+				"        IntegerConstantNode (number, 4)",
+				"    IntegerConstantNode (number, 2)");
+	}
+	
+	public void testUnaryOperators() {
+		assertTree("!a && b",
+				"BinaryOperatorNode (AND)",
+				"    UnaryOperatorNode (NOT)",
+				"        IdentifierNode (identifier, a)",
+				"    IdentifierNode (identifier, b)");
+		assertTree("!(a || b)",
+				"UnaryOperatorNode (NOT)",
+				"    BinaryOperatorNode (OR)",
+				"        IdentifierNode (identifier, a)",
+				"        IdentifierNode (identifier, b)");
+		assertTree("#a + @b * $c",
+				"BinaryOperatorNode (ADD)",
+				"    UnaryOperatorNode (REFCOUNT)",
+				"        IdentifierNode (identifier, a)",
+				"    BinaryOperatorNode (MULTIPLY)",
+				"        UnaryOperatorNode (ADDRESS_OF)",
+				"            IdentifierNode (identifier, b)",
+				"        UnaryOperatorNode (RECORD_NUMBER)",
+				"            IdentifierNode (identifier, c)");
+		assertTree("!a < !b",
+				"BinaryOperatorNode (LESSER)",
+				"    UnaryOperatorNode (NOT)",
+				"        IdentifierNode (identifier, a)",
+				"    UnaryOperatorNode (NOT)",
+				"        IdentifierNode (identifier, b)");
+	}
+	
+	// casts are not in the grammar yet, so a colon ends the expression.
+	public void testCastIsNotParsed() {
+		assertFirstError("a : int", "line 2, character 13) expecting [TERMINATOR]");
+	}
+	
+	// comparisons, && and || do not chain, and a prefix operator applies to a primary expression.
+	public void testErrors() {
+		assertFirstError("a + : 3", "line 2, character 15) expecting expression<3>");
+		assertFirstError("a < b < c", "line 2, character 17) expecting [TERMINATOR]");
+		assertFirstError("a && b && c", "line 2, character 18) expecting [TERMINATOR]");
+		assertFirstError("a || b || c", "line 2, character 18) expecting [TERMINATOR]");
+		assertFirstError("!!a", "line 2, character 12) expecting literal");
+		assertFirstError("(1 + 2", "line 2, character 17) expecting [CLOSE_ROUND_BRACKET]");
+		assertFirstError("1 + 2)", "line 2, character 16) expecting [TERMINATOR]");
+		assertFirstError("* 3", "line 2, character 11) expecting expression");
+	}
+	
+	private void assertTree(String expression, String... lines) {
+		List<GrouseLogger.Message> messages = GrouseLogger.collectMessages(() -> {
+			ParseNode declaration = parseDeclaration(expression).child(0).child(0);
+			String tree = ParseTreePrinter.print(declaration.child(1)).replace(" \n", "\n");
+			
+			assertEquals(expression, String.join("\n", lines) + "\n", tree);
+		});
+		assertEquals(expression, 0, messages.size());
+	}
+	
+	private void assertFirstError(String expression, String message) {
+		List<GrouseLogger.Message> messages = GrouseLogger.collectMessages(() -> parseDeclaration(expression));
+		
+		assertFalse(expression, messages.isEmpty());
+		assertTrue(expression + ": " + messages.get(0).getText(), messages.get(0).getText().endsWith(message));
+	}
+	
+	private static ParseNode parseDeclaration(String expression) {
+		return new CompilationContext().call(() -> parse("main {\n  imm x := " + expression + ";\n}\n"));
+	}
+}
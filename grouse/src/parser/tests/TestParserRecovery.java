@@ -0,0 +1,54 @@
+package parser.tests;
+
+import static parser.tests.ParserFixtures.parse;
+
+import junit.framework.TestCase;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.ProgramNode;
+import parser.Parser;
+import utilities.CompilationContext;
+
+public class TestParserRecovery extends TestCase {
+	private static final String STATEMENTS =
+			"  imm a := 1;\n" +
+			"  imm b := (a + 2) * 3;\n" +
+			"  print a, b nl;\n";
+	
+	public void testValidInputHasNoErrors() {
+		CompilationContext context = new CompilationContext();
+		ParseNode program = context.call(() -> parse("main {\n" + STATEMENTS + "}\n"));
+		
+		assertEquals(0, context.getNumMessages());
+		assertEquals(3, program.child(0).nChildren());
+	}
+	
+	public void testOneMessagePerMistake() {
+		assertMessagesAndStatements("main {\n  imm a := 1\n  imm b := 2;\n  print a, b nl;\n}\n", 1, 3);
+		assertMessagesAndStatements("main {\n  imm a 1;\n  imm b := 2;\n  print a, b nl;\n}\n", 1, 3);
+		assertMessagesAndStatements("main {\n  imm a := (1 + ;\n  imm b := 2;\n  print a, b nl;\n}\n", 1, 3);
+		assertMessagesAndStatements("main {\n  imm a := 1 2 3;\n  imm b := ) 2;\n  print a, b nl;\n}\n", 2, 3);
+		assertMessagesAndStatements("main {\n  diag a :: b c d;\n  print a, b nl;\n}\n", 1, 2);
+	}
+	
+	public void testMessagesAreBounded() {
+		StringBuilder text = new StringBuilder("main {\n");
+		for(int i = 0; i < 10 * Parser.MAXIMUM_SYNTAX_ERRORS; i++) {
+			text.append("  imm x").append(i).append(" ").append(i).append(";\n");
+		}
+		text.append("}\n");
+		CompilationContext context = new CompilationContext();
+		ParseNode program = context.call(() -> parse(text.toString()));
+		
+		assertTrue(program instanceof ProgramNode);
+		assertEquals(Parser.MAXIMUM_SYNTAX_ERRORS + 1, context.getNumMessages());
+	}
+	
+	private void assertMessagesAndStatements(String text, int messages, int statements) {
+		CompilationContext context = new CompilationContext();
+		ParseNode program = context.call(() -> parse(text));
+		
+		assertEquals(text, messages, context.getNumMessages());
+		assertTrue(text, program instanceof ProgramNode);
+		assertEquals(text, statements, program.child(0).nChildren());
+	}
+}
@@ -1,5 +1,6 @@
 package semanticAnalyzer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -20,6 +21,7 @@ import parseTree.nodeTypes.DiagStatementNode;
 import parseTree.nodeTypes.ErrorNode;
 import parseTree.nodeTypes.FloatConstantNode;
 import parseTree.nodeTypes.ForStatementNode;
+import parseTree.nodeTypes.FunctionDefinitionNode;
 import parseTree.nodeTypes.IdentifierNode;
 import parseTree.nodeTypes.IfStatementNode;
 import parseTree.nodeTypes.IntegerConstantNode;
@@ -36,18 +38,24 @@ import parseTree.nodeTypes.TupleDefinitionNode;
 import parseTree.nodeTypes.TypeNode;
 import parseTree.nodeTypes.UnaryOperatorNode;
 import parseTree.nodeTypes.WhileStatementNode;
+import semanticAnalyzer.signatures.FunctionSignature;
 import semanticAnalyzer.signatures.FunctionSignatures;
 import semanticAnalyzer.types.PrimitiveType;
 import semanticAnalyzer.types.TupleType;
+import semanticAnalyzer.types.TypeTable;
 import semanticAnalyzer.types.Type;
 import symbolTable.Binding;
 import symbolTable.Scope;
 import tokens.LextantToken;
 import tokens.Token;
-import utilities.Debug;
 
 class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
-	private static Debug debug = new Debug();
+	// the innermost scope around the node being visited.
+	private Scope currentScope;
+	
+	SemanticAnalysisVisitor() {
+		this.currentScope = Scope.nullInstance();
+	}
 	
 	@Override
 	public void visitLeave(ParseNode node) {
@@ -82,13 +90,10 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 	}
 	
 	public void visitEnter(TupleDefinitionNode node) {
-		debug.out("IN visitEnter - TupleDefinitionNode");
-		
 		enterSubscope(node);
 	}
 	
 	public void visitLeave(TupleDefinitionNode node) { // TODO: tuple def'n 
-		debug.out("IN visitLeave - TupleDefinitionNode");
 		// so now we have a scope for tuple
 		// now we need to add a binding of this tuple to the parent node (which is program node)
 		//addBindingToProgramNode(node);
@@ -98,6 +103,47 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 		leaveScope(node);
 	}
 	
+	///////////////////////////////////////////////////////////////////////////
+	// FUNCTION DEFINITIONS
+	// SemanticAnalyzer declares every function before it checks any function
+	// body, and may check the bodies on several threads at once.  A body binds
+	// names only in its own function's scope, which has its own allocator.
+	///////////////////////////////////////////////////////////////////////////
+	
+	// func identifier ( parameterList ) -> ( returnList ) block
+	void declareFunction(FunctionDefinitionNode node) {
+		List<Type> returnTypes = new ArrayList<Type>();
+		
+		for (ParseNode returnParameter : node.child(2).getChildren()) {
+			if (returnParameter.nChildren() == 2) {
+				ParseNode typeNode = returnParameter.child(0);
+				
+				typeNode.accept(this);
+				returnTypes.add(typeNode.getType());
+			}
+		}
+		TupleType returnType = TypeTable.getInstance().tupleOf(returnTypes);
+		node.setType(returnType);
+		
+		if (node.child(0) instanceof IdentifierNode) {
+			IdentifierNode nameOfFunction = (IdentifierNode) node.child(0);
+			
+			nameOfFunction.setType(returnType);
+			addBindingToParentsParentNode(nameOfFunction, returnType, "func");
+		}
+		
+		node.setScope(currentScope.createProcedureScope());
+	}
+	
+	void checkFunctionBody(FunctionDefinitionNode node) {
+		currentScope = node.getScope();
+		node.child(1).accept(this);		// parameters
+		node.child(2).accept(this);		// named results
+		node.child(3).accept(this);		// body
+		
+		leaveScope(node);
+	}
+	
 	///////////////////////////////////////////////////////////////////////////
 	// HELPER METHODS FOR SCOPING
 	///////////////////////////////////////////////////////////////////////////
@@ -105,16 +151,18 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 	private void enterProgramScope(ParseNode node) {
 		Scope scope = Scope.createProgramScope();
 		node.setScope(scope);
+		currentScope = scope;
 	}
 	
 	private void enterSubscope(ParseNode node) {
-		Scope baseScope = node.getLocalScope();
-		Scope scope = baseScope.createSubscope();
+		Scope scope = currentScope.createSubscope();
 		node.setScope(scope);
+		currentScope = scope;
 	}
 	
 	private void leaveScope(ParseNode node) {
 		node.getScope().leave();
+		currentScope = node.getScope().getBaseScope();
 	}
 	
 	///////////////////////////////////////////////////////////////////////////
@@ -213,7 +261,6 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 		Object			extra			= "";
 		
 		//debug.out("K--------visitLeave - Parameter Node--------\n" + identifierNode + "\n " + type + " \n" + extra + "\nK----------------------------------------");
-		debug.out("" + node.getToken().toString().contains("(void token)"));
 		 
 		if (node.getToken().toString().contains("(void token)")) {
 			//identifierNode = (IdentifierNode)node.child(1);
@@ -226,10 +273,8 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 			node.setType(type);
 			identifierNode.setType(type);
 			
-			addBindingToAboveTupleDefinition(type, identifierNode, extra);
+			addBindingToDefinitionScope(type, identifierNode, extra);
 		}
-		
-		//addBindingToAboveTupleDefinition(type, identifierNode, extra);
 	}
 
 	///////////////////////////////////////////////////////////////////////////
@@ -244,23 +289,17 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 		
 		ParseNode left  = node.child(0);
 		ParseNode right = node.child(1);
-		List<Type> childTypes = Arrays.asList(left.getType(), right.getType());
 		
 		Lextant operator = operatorFor(node);
 		
-		FunctionSignatures signature = FunctionSignatures.signaturesOf(operator);
-		
-		Type typeOfChildrenNodes = FunctionSignatures.signature(signature.getKey(), childTypes).resultType();
-
-		//debug.out("TOKEN VISIT LEAVE: \n" + FunctionSignatures.signature(signature.getKey(), childTypes).resultType());
-		//debug.out("TOKEN VISIT LEAVE: \n" + typeOfChildrenNodes);
+		FunctionSignature signature = FunctionSignatures.signaturesOf(operator).acceptingSignature(left.getType(), right.getType());
 		
 		// TODO: here maybe use the getVariant() to get the variant
 		
-		if (signature.accepts(childTypes)) {
-			node.setType(typeOfChildrenNodes);
+		if (!signature.isNull()) {
+			node.setType(signature.resultType());
 		} else { 
-			typeCheckError(node, childTypes);
+			typeCheckError(node, Arrays.asList(left.getType(), right.getType()));
 			node.setType(PrimitiveType.ERROR);
 		}
 	}
@@ -278,21 +317,14 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 		
 		ParseNode right  = node.child(0);
 		
-		List<Type> childType = Arrays.asList(right.getType());
-		
 		Lextant operator = operatorFor(node);
 		
-		FunctionSignatures signature = FunctionSignatures.signaturesOf(operator);
-		
-		Type typeOfChildNode = FunctionSignatures.signature(signature.getKey(), childType).resultType();
+		FunctionSignature signature = FunctionSignatures.signaturesOf(operator).acceptingSignature(right.getType());
 
-		//debug.out("TOKEN VISIT LEAVE: \n" + FunctionSignatures.signature(signature.getKey(), childType).resultType());
-		//debug.out("TOKEN VISIT LEAVE: \n" + typeOfChildNode);
-
-		if (signature.accepts(childType)) {
-			node.setType(typeOfChildNode);
+		if (!signature.isNull()) {
+			node.setType(signature.resultType());
 		} else { 
-			typeCheckError(node, childType);
+			typeCheckError(node, Arrays.asList(right.getType()));
 			node.setType(PrimitiveType.ERROR);
 		}
 	}
@@ -407,7 +439,7 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 	@Override
 	public void visit(IdentifierNode node) {
 		if (isChildOfTupleDefinitionNode(node)) {
-			TupleType tupleType = new TupleType();
+			TupleType tupleType = TypeTable.getInstance().tupleOf();
 
 			node.setType(tupleType);
 
@@ -422,7 +454,7 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 			
 			//addBindingToAboveTupleDefinition(identifier, type, typeOfIdentifier);
 		} else if (!isBeingDeclared(node)) {
-			Binding binding = node.findVariableBinding();
+			Binding binding = node.resolveIn(currentScope);
 
 			node.setType(binding.getType());
 			node.setBinding(binding);
@@ -450,13 +482,13 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 	}
 	
 	private void addBinding(IdentifierNode identifierNode, Type type, Object extra) {
-		Scope scope = identifierNode.getLocalScope();
+		Scope scope = currentScope;
 		
 		//debug.out("\naddBinding:\n---SCOPE---------\n" + scope.toString() + "\nNAME: " + identifierNode.getToken() + "\n-----------------");
 		
 		Binding binding = scope.createBinding(identifierNode, type, extra);
 		
-		identifierNode.setBinding(binding);
+		setBinding(identifierNode, binding, scope);
 	}
 	
 	private void addBindingToParentsParentNode(IdentifierNode node, Type type, Object extra) {
@@ -467,27 +499,23 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
 
 		Binding binding = scope.createBinding(node, type, extra);
 		
-		node.setBinding(binding);
+		setBinding(node, binding, scope);
 	}
 	
-	private void addBindingToAboveTupleDefinition(Type type, IdentifierNode node, Object extra) {
-		Scope scope = findParentTupleDefinitionNodesScope(node);
-
-		//debug.out("\nY-addBindingToAboveTupleDefinition:\n---SCOPE---------\n" + scope.toString() + "\nNAME: " + node.getToken() + "\nY-----------------------------------------------------");
-
+	// parameters are bound in the scope of the tuple or function definition they are in.
+	private void addBindingToDefinitionScope(Type type, IdentifierNode node, Object extra) {
+		Scope scope = currentScope;
 		Binding binding = scope.createBinding(node, type, extra);
 		
-		node.setBinding(binding);
+		setBinding(node, binding, scope);
 	}
 	
-	private Scope findParentTupleDefinitionNodesScope(ParseNode node) {
-		for (ParseNode current : node.pathToRoot()) {
-			if (current.getToken().getLexeme().contains("tuple")) {
-				return current.getScope();
-			}
+	// a let statement's identifier was resolved when it was visited, and may be bound in an enclosing scope.
+	private void setBinding(IdentifierNode node, Binding binding, Scope scope) {
+		node.setBinding(binding);
+		if (!node.isResolved()) {
+			node.setDeclarationScope(scope);
 		}
-		
-		return null;
 	}
 	
 	///////////////////////////////////////////////////////////////////////////
@@ -1,9 +1,30 @@
 package semanticAnalyzer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import logging.GrouseLogger;
 import parseTree.*;
+import parseTree.nodeTypes.FunctionDefinitionNode;
+import parseTree.nodeTypes.ProgramNode;
+import utilities.CompilationContext;
 
+/** Decorates a parse tree with types, scopes and bindings.
+ * <p>
+ *  A program is analyzed in two phases.  The first, in source order, declares every
+ *  tuple, function and global variable in the program scope, and so fixes the program's
+ *  bindings and memory layout.  The second checks the function bodies, which only read
+ *  the program scope, on a fork-join pool; the messages each body logs are collected and
+ *  then logged function by function, in source order.  The main block is checked last.
+ */
 public class SemanticAnalyzer {
+	public static final int PARALLEL_FUNCTION_THRESHOLD = 4;
+	
 	ParseNode ASTree;
+	CompilationContext context;
+	ForkJoinPool pool;
 	
 	public static ParseNode analyze(ParseNode ASTree) {
 		SemanticAnalyzer analyzer = new SemanticAnalyzer(ASTree);
@@ -12,11 +33,75 @@ public class SemanticAnalyzer {
 	
 	public SemanticAnalyzer(ParseNode ASTree) {
 		this.ASTree = ASTree;
+		this.context = CompilationContext.current();
+		this.pool = ForkJoinPool.commonPool();
+	}
+	
+	/** Check function bodies on pool; with a pool of parallelism 1 they are checked in turn. */
+	public SemanticAnalyzer withPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
 	}
 	
 	public ParseNode analyze() {
-		ASTree.accept(new SemanticAnalysisVisitor());
+		return context.call(() -> {
+			if (ASTree instanceof ProgramNode) {
+				analyzeProgram((ProgramNode) ASTree);
+			} else {
+				ASTree.accept(new SemanticAnalysisVisitor());
+			}
+			
+			return ASTree;
+		});
+	}
+	
+	///////////////////////////////////////////////////////////////////////////
+	// THE TWO PHASES
+	///////////////////////////////////////////////////////////////////////////
+	
+	private void analyzeProgram(ProgramNode program) {
+		SemanticAnalysisVisitor visitor = new SemanticAnalysisVisitor();
+		List<FunctionDefinitionNode> functions = new ArrayList<FunctionDefinitionNode>();
+		ParseNode mainBlock = (program.nChildren() > 0) ? program.child(program.nChildren() - 1) : null;
 		
-		return ASTree;
+		visitor.visitEnter(program);
+		for (ParseNode definition : program.getChildren()) {
+			if (definition instanceof FunctionDefinitionNode) {
+				visitor.declareFunction((FunctionDefinitionNode) definition);
+				functions.add((FunctionDefinitionNode) definition);
+			} else if (definition != mainBlock) {
+				definition.accept(visitor);
+			}
+		}
+		
+		checkFunctionBodies(functions);
+		
+		if (mainBlock != null) {
+			mainBlock.accept(visitor);
+		}
+		visitor.visitLeave(program);
+	}
+	
+	private void checkFunctionBodies(List<FunctionDefinitionNode> functions) {
+		if (functions.size() < PARALLEL_FUNCTION_THRESHOLD || pool.getParallelism() == 1) {
+			for (FunctionDefinitionNode function : functions) {
+				new SemanticAnalysisVisitor().checkFunctionBody(function);
+			}
+			return;
+		}
+		
+		List<ForkJoinTask<List<GrouseLogger.Message>>> checks = new ArrayList<ForkJoinTask<List<GrouseLogger.Message>>>();
+		for (FunctionDefinitionNode function : functions) {
+			checks.add(pool.submit(() -> checkFunctionBody(function)));
+		}
+		for (ForkJoinTask<List<GrouseLogger.Message>> check : checks) {
+			GrouseLogger.logAll(check.join());
+		}
+	}
+	
+	private List<GrouseLogger.Message> checkFunctionBody(FunctionDefinitionNode function) {
+		return context.call(() -> GrouseLogger.collectMessages(() -> {
+			new SemanticAnalysisVisitor().checkFunctionBody(function);
+		}));
 	}
 }
@@ -1,6 +1,9 @@
 package semanticAnalyzer.signatures;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,18 +14,53 @@ import semanticAnalyzer.types.PrimitiveType;
 import semanticAnalyzer.types.Type;
 import semanticAnalyzer.*;
 
+/** The signatures of one operator (or other key), tried in order.
+ * <p>
+ *  The signatures of the operators are registered in the static block below, and the maps
+ *  that find them are made unmodifiable at its end, so they are read-only by the time any
+ *  compilation can use them.  A FunctionSignatures made later is not registered.
+ * <p>
+ *  Operators are found in an EnumMap.  For one or two arguments of primitive types, the
+ *  signature accepting them is looked up in a table, indexed by the types' ordinals, that is
+ *  filled in when the signatures are made; other arguments, and signatures added later,
+ *  are matched by trying each signature in turn.
+ */
 public class FunctionSignatures extends ArrayList<FunctionSignature> {
 	private static final long serialVersionUID = -4907792488209670697L;
+	private static final PrimitiveType[] PRIMITIVE_TYPES = PrimitiveType.values();
+	
+	// filled by register(), then replaced by unmodifiable views at the end of the static block.
+	private static Map<Punctuator, FunctionSignatures> signaturesForOperator = new EnumMap<Punctuator, FunctionSignatures>(Punctuator.class);
 	private static Map<Object, FunctionSignatures> signaturesForKey = new HashMap<Object, FunctionSignatures>();
 	
 	Object key;
+	private FunctionSignature[] acceptingOneArgument;		// indexed by the argument type's ordinal
+	private FunctionSignature[] acceptingTwoArguments;		// indexed by both ordinals
+	private int indexedModCount;
 	
 	public FunctionSignatures(Object key, FunctionSignature ...functionSignatures) {
 		this.key = key;
 		for(FunctionSignature functionSignature: functionSignatures) {
 			add(functionSignature);
 		}
-		signaturesForKey.put(key, this);
+		buildIndex();
+	}
+	
+	private void buildIndex() {
+		int types = PRIMITIVE_TYPES.length;
+		acceptingOneArgument = new FunctionSignature[types];
+		acceptingTwoArguments = new FunctionSignature[types * types];
+		
+		for(PrimitiveType first: PRIMITIVE_TYPES) {
+			acceptingOneArgument[first.ordinal()] = acceptingSignature(Arrays.<Type>asList(first));
+			for(PrimitiveType second: PRIMITIVE_TYPES) {
+				acceptingTwoArguments[first.ordinal() * types + second.ordinal()] = acceptingSignature(Arrays.<Type>asList(first, second));
+			}
+		}
+		indexedModCount = modCount;
+	}
+	private boolean isIndexed() {
+		return modCount == indexedModCount;
 	}
 	
 	public Object getKey() {
@@ -43,6 +81,21 @@ public class FunctionSignatures extends ArrayList<FunctionSignature> {
 		return FunctionSignature.nullInstance();
 	}
 	
+	public FunctionSignature acceptingSignature(Type type) {
+		if(type instanceof PrimitiveType && isIndexed()) {
+			return acceptingOneArgument[((PrimitiveType)type).ordinal()];
+		}
+		return acceptingSignature(Arrays.asList(type));
+	}
+	
+	public FunctionSignature acceptingSignature(Type first, Type second) {
+		if(first instanceof PrimitiveType && second instanceof PrimitiveType && isIndexed()) {
+			int index = ((PrimitiveType)first).ordinal() * PRIMITIVE_TYPES.length + ((PrimitiveType)second).ordinal();
+			return acceptingTwoArguments[index];
+		}
+		return acceptingSignature(Arrays.asList(first, second));
+	}
+	
 	public boolean accepts(List<Type> types) {
 		return !acceptingSignature(types).isNull();
 	}
@@ -53,16 +106,27 @@ public class FunctionSignatures extends ArrayList<FunctionSignature> {
 	public static FunctionSignatures nullSignatures = new FunctionSignatures(0, FunctionSignature.nullInstance());
 
 	public static FunctionSignatures signaturesOf(Object key) {
-		if(signaturesForKey.containsKey(key)) {
-			return signaturesForKey.get(key);
-		}
-		return nullSignatures;
+		FunctionSignatures signatures = (key instanceof Punctuator) ?
+				signaturesForOperator.get(key) :
+				signaturesForKey.get(key);
+		
+		return (signatures != null) ? signatures : nullSignatures;
 	}
 	
 	public static FunctionSignature signature(Object key, List<Type> types) {
 		FunctionSignatures signatures = FunctionSignatures.signaturesOf(key);
 		return signatures.acceptingSignature(types);
 	}
+	
+	// only called from the static block.
+	private static void register(FunctionSignatures signatures) {
+		if(signatures.key instanceof Punctuator) {
+			signaturesForOperator.put((Punctuator)signatures.key, signatures);
+		}
+		else {
+			signaturesForKey.put(signatures.key, signatures);
+		}
+	}
 
 	/////////////////////////////////////////////////////////////////////////////////
 	// Put the signatures for operators in the following static block.
@@ -70,91 +134,91 @@ public class FunctionSignatures extends ArrayList<FunctionSignature> {
 		// here's one example to get you started with FunctionSignatures: the signatures for addition.		
 		// for this to work, you should statically import PrimitiveType.*
 
-		new FunctionSignatures(Punctuator.ADD,
+		register(new FunctionSignatures(Punctuator.ADD,
 		    new FunctionSignature(ASMOpcode.Add, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.INTEGER),
 		    new FunctionSignature(ASMOpcode.FAdd, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.FLOAT),
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.STRING, PrimitiveType.STRING)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.SUBTRACT,
+		register(new FunctionSignatures(Punctuator.SUBTRACT,
 		    new FunctionSignature(ASMOpcode.Subtract, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.INTEGER),
 		    new FunctionSignature(ASMOpcode.FSubtract, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.FLOAT)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.DIVIDE,
+		register(new FunctionSignatures(Punctuator.DIVIDE,
 		    new FunctionSignature(ASMOpcode.Divide, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.INTEGER),
 		    new FunctionSignature(ASMOpcode.FDivide, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.FLOAT)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.MULTIPLY,
+		register(new FunctionSignatures(Punctuator.MULTIPLY,
 		    new FunctionSignature(ASMOpcode.Multiply, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.INTEGER),
 		    new FunctionSignature(ASMOpcode.FMultiply, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.FLOAT)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.GREATER,
+		register(new FunctionSignatures(Punctuator.GREATER,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN)
-		);
+		));
 
-		new FunctionSignatures(Punctuator.GREATER_OR_EQUAL,
+		register(new FunctionSignatures(Punctuator.GREATER_OR_EQUAL,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.EQUAL,
+		register(new FunctionSignatures(Punctuator.EQUAL,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.STRING, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.NOT_EQUAL,
+		register(new FunctionSignatures(Punctuator.NOT_EQUAL,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.STRING, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.LESSER,
+		register(new FunctionSignatures(Punctuator.LESSER,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN)
-		);
+		));
 		
-		new FunctionSignatures(Punctuator.LESSER_OR_EQUAL,
+		register(new FunctionSignatures(Punctuator.LESSER_OR_EQUAL,
 		    new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.BOOLEAN),
 		    new FunctionSignature(1, PrimitiveType.CHARACTER, PrimitiveType.CHARACTER, PrimitiveType.BOOLEAN)
-		);
+		));
 		
 		// boolean expressions
-		new FunctionSignatures(Punctuator.AND, // &&
+		register(new FunctionSignatures(Punctuator.AND, // &&
 		    new FunctionSignature(1, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN)
-		); 
+		)); 
 		
-		new FunctionSignatures(Punctuator.OR, // ||
+		register(new FunctionSignatures(Punctuator.OR, // ||
 		    new FunctionSignature(1, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN)
-		); 
+		)); 
 		
-		new FunctionSignatures(Punctuator.NOT, // !
+		register(new FunctionSignatures(Punctuator.NOT, // !
 		    new FunctionSignature(1, PrimitiveType.BOOLEAN, PrimitiveType.BOOLEAN)
-		); 
+		)); 
 		
-		new FunctionSignatures(Punctuator.REFCOUNT, // !
+		register(new FunctionSignatures(Punctuator.REFCOUNT, // !
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.INTEGER)
-		); 
+		)); 
 		
-		new FunctionSignatures(Punctuator.RECORD_NUMBER, // !
+		register(new FunctionSignatures(Punctuator.RECORD_NUMBER, // !
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.INTEGER)
-		); 
+		)); 
 		
-		new FunctionSignatures(Punctuator.ADDRESS_OF, // !
+		register(new FunctionSignatures(Punctuator.ADDRESS_OF, // !
 		    new FunctionSignature(1, PrimitiveType.STRING, PrimitiveType.INTEGER)
-		); 
+		)); 
 		
 		// First, we use the operator itself (in this case the Punctuator ADD) as the key.
 		// Then, we give that key two signatures: one an (INT x INT -> INT) and the other
@@ -174,5 +238,8 @@ public class FunctionSignatures extends ArrayList<FunctionSignature> {
 		// I will not use an ASMOpcode for the whichVariant.  In these cases I typically use
 		// a small object with one method (the "Command" design pattern) that generates the
 		// required code.
+		
+		signaturesForOperator = Collections.unmodifiableMap(signaturesForOperator);
+		signaturesForKey = Collections.unmodifiableMap(signaturesForKey);
 	}
 }
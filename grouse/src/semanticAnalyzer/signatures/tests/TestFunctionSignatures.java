@@ -0,0 +1,78 @@
+package semanticAnalyzer.signatures.tests;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Punctuator;
+import semanticAnalyzer.signatures.FunctionSignature;
+import semanticAnalyzer.signatures.FunctionSignatures;
+import semanticAnalyzer.types.PrimitiveType;
+import semanticAnalyzer.types.TupleType;
+import semanticAnalyzer.types.Type;
+import semanticAnalyzer.types.TypeTable;
+import utilities.CompilationContext;
+
+public class TestFunctionSignatures extends TestCase {
+	// the table gives the signature that trying each one in turn would.
+	public void testIndexMatchesSequentialSearch() {
+		for (Punctuator operator : Punctuator.values()) {
+			FunctionSignatures signatures = FunctionSignatures.signaturesOf(operator);
+			
+			for (PrimitiveType first : PrimitiveType.values()) {
+				assertSame(operator + " " + first,
+						signatures.acceptingSignature(Arrays.<Type>asList(first)),
+						signatures.acceptingSignature(first));
+				
+				for (PrimitiveType second : PrimitiveType.values()) {
+					assertSame(operator + " " + first + " " + second,
+							signatures.acceptingSignature(Arrays.<Type>asList(first, second)),
+							signatures.acceptingSignature(first, second));
+				}
+			}
+		}
+	}
+	
+	public void testOperatorSignatures() {
+		FunctionSignatures add = FunctionSignatures.signaturesOf(Punctuator.ADD);
+		
+		assertEquals(PrimitiveType.FLOAT, add.acceptingSignature(PrimitiveType.FLOAT, PrimitiveType.FLOAT).resultType());
+		assertEquals(PrimitiveType.INTEGER, add.acceptingSignature(PrimitiveType.ERROR, PrimitiveType.INTEGER).resultType());
+		assertTrue(add.acceptingSignature(PrimitiveType.INTEGER, PrimitiveType.FLOAT).isNull());
+		assertTrue(add.acceptingSignature(PrimitiveType.INTEGER).isNull());
+		assertTrue(FunctionSignatures.signaturesOf(Punctuator.TERMINATOR).acceptingSignature(PrimitiveType.INTEGER).isNull());
+	}
+	
+	// types outside the table, and signatures added after it was filled, are still matched.
+	public void testUnindexedLookups() {
+		new CompilationContext().run(() -> {
+			TupleType tuple = TypeTable.getInstance().tupleOf(PrimitiveType.INTEGER);
+			FunctionSignature integerSignature = new FunctionSignature(1, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN);
+			FunctionSignature pairSignature = new FunctionSignature(2, PrimitiveType.INTEGER, PrimitiveType.INTEGER, PrimitiveType.BOOLEAN);
+			FunctionSignatures signatures = new FunctionSignatures("test signatures", integerSignature, pairSignature);
+			
+			assertSame(integerSignature, signatures.acceptingSignature(PrimitiveType.INTEGER));
+			assertSame(pairSignature, signatures.acceptingSignature(PrimitiveType.INTEGER, PrimitiveType.INTEGER));
+			assertTrue(signatures.acceptingSignature(tuple).isNull());
+			assertTrue(signatures.acceptingSignature(PrimitiveType.FLOAT).isNull());
+			assertTrue(signatures.acceptingSignature(PrimitiveType.INTEGER, tuple).isNull());
+			assertTrue(signatures.acceptingSignature(PrimitiveType.FLOAT, PrimitiveType.FLOAT).isNull());
+			
+			FunctionSignature tupleSignature = new FunctionSignature(3, tuple, PrimitiveType.INTEGER);
+			FunctionSignature floatSignature = new FunctionSignature(4, PrimitiveType.FLOAT, PrimitiveType.INTEGER);
+			FunctionSignature mixedSignature = new FunctionSignature(5, PrimitiveType.INTEGER, tuple, PrimitiveType.BOOLEAN);
+			FunctionSignature floatPairSignature = new FunctionSignature(6, PrimitiveType.FLOAT, PrimitiveType.FLOAT, PrimitiveType.INTEGER);
+			signatures.add(tupleSignature);
+			signatures.add(floatSignature);
+			signatures.add(mixedSignature);
+			signatures.add(floatPairSignature);
+			
+			assertSame(integerSignature, signatures.acceptingSignature(PrimitiveType.INTEGER));
+			assertSame(tupleSignature, signatures.acceptingSignature(tuple));
+			assertSame(floatSignature, signatures.acceptingSignature(PrimitiveType.FLOAT));
+			assertSame(pairSignature, signatures.acceptingSignature(PrimitiveType.INTEGER, PrimitiveType.INTEGER));
+			assertSame(mixedSignature, signatures.acceptingSignature(PrimitiveType.INTEGER, tuple));
+			assertSame(floatPairSignature, signatures.acceptingSignature(PrimitiveType.FLOAT, PrimitiveType.FLOAT));
+			assertSame(FunctionSignatures.nullSignatures, FunctionSignatures.signaturesOf("test signatures"));
+		});
+	}
+}
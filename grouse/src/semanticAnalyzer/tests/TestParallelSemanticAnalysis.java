@@ -0,0 +1,100 @@
+package semanticAnalyzer.tests;
+
+import static parser.tests.ParserFixtures.parse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+import parseTree.ParseNode;
+import semanticAnalyzer.SemanticAnalyzer;
+import utilities.CompilationContext;
+
+public class TestParallelSemanticAnalysis extends TestCase {
+	private static final int FUNCTIONS = 40;
+	private static final int WORKERS = 4;
+	
+	// the decorated tree, followed by the messages logged, one per line.
+	private static String analysis(String program, ForkJoinPool pool) {
+		List<String> messages = new ArrayList<String>();
+		Handler handler = new Handler() {
+			public void publish(LogRecord record) {
+				messages.add(record.getMessage());
+			}
+			public void flush() {}
+			public void close() {}
+		};
+		Logger compilerLogger = Logger.getLogger("compiler");
+		compilerLogger.addHandler(handler);
+		
+		try {
+			return new CompilationContext().call(() -> {
+				ParseNode tree = new SemanticAnalyzer(parse(program)).withPool(pool).analyze();
+				
+				return tree + String.join("\n", messages);
+			});
+		}
+		finally {
+			compilerLogger.removeHandler(handler);
+		}
+	}
+	
+	// every third function has a type error, and every fifth uses an undefined name.
+	private static String manyFunctions() {
+		StringBuilder program = new StringBuilder("imm scale := 3;\n");
+		for (int i = 0; i < FUNCTIONS; i++) {
+			program.append("func f" + i + " (int a, float b) -> (int r) {\n");
+			program.append("  imm c := a * scale + " + i + ";\n");
+			program.append("  imm d := b * 2.5;\n");
+			if (i % 3 == 0) {
+				program.append("  imm e := a + true;\n");
+			}
+			if (i % 5 == 0) {
+				program.append("  print undefined" + i + ";\n");
+			}
+			program.append("  print c, d nl;\n");
+			program.append("}\n");
+		}
+		program.append("main {\n  print scale nl;\n}\n");
+		return program.toString();
+	}
+	
+	public void testParallelMatchesSequential() {
+		String program = manyFunctions();
+		ForkJoinPool workers = new ForkJoinPool(WORKERS);
+		ForkJoinPool single = new ForkJoinPool(1);
+		try {
+			String sequential = analysis(program, single);
+			String parallel = analysis(program, workers);
+			
+			assertEquals(sequential, parallel);
+			assertTrue(parallel.contains("used before defined"));
+			assertTrue(parallel.contains("not defined for types"));
+		}
+		finally {
+			workers.shutdown();
+			single.shutdown();
+		}
+	}
+	
+	public void testMessagesInSourceOrder() {
+		ForkJoinPool workers = new ForkJoinPool(WORKERS);
+		try {
+			String result = analysis(manyFunctions(), workers);
+			
+			int previous = -1;
+			for (int i = 0; i < FUNCTIONS; i += 5) {
+				int position = result.indexOf("identifier undefined" + i + " ");
+				assertTrue("undefined" + i, position > previous);
+				previous = position;
+			}
+		}
+		finally {
+			workers.shutdown();
+		}
+	}
+}
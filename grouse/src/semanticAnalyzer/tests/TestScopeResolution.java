@@ -0,0 +1,85 @@
+package semanticAnalyzer.tests;
+
+import static parser.tests.ParserFixtures.analyze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import junit.framework.TestCase;
+import parseTree.DecoratedTreeFormat;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.IdentifierNode;
+import symbolTable.Scope;
+import utilities.CompilationContext;
+
+public class TestScopeResolution extends TestCase {
+	private static final String PROGRAM =
+			"main {\n" +
+			"  imm z := 0;\n" +
+			"  imm a := 1;\n" +
+			"  {\n" +
+			"    imm b := 2;\n" +
+			"    {\n" +
+			"      imm c := b + a;\n" +
+			"      print c;\n" +
+			"    }\n" +
+			"  }\n" +
+			"}\n";
+	
+	// the innermost block: program, main block, outer block, inner block.
+	private static ParseNode innerBlock(ParseNode tree) {
+		return tree.child(0).child(2).child(1);
+	}
+	
+	public void testReferencesAreStampedWithDepthAndSlot() {
+		new CompilationContext().run(() -> {
+			ParseNode block = innerBlock(analyze(PROGRAM));
+			IdentifierNode c = (IdentifierNode) block.child(0).child(0);
+			IdentifierNode b = (IdentifierNode) block.child(0).child(1).child(0);
+			IdentifierNode a = (IdentifierNode) block.child(0).child(1).child(1);
+			
+			assertEquals(3, c.getScopeDepth());
+			assertEquals(0, c.getSlot());
+			assertEquals(2, b.getScopeDepth());
+			assertEquals(0, b.getSlot());
+			assertEquals(1, a.getScopeDepth());
+			assertEquals(1, a.getSlot());
+			
+			Scope scope = block.getScope();
+			for (IdentifierNode identifier : new IdentifierNode[] { a, b, c }) {
+				assertSame(identifier.getBinding(), scope.bindingAt(identifier.getScopeDepth(), identifier.getSlot()));
+				assertSame(scope.enclosingScope(identifier.getScopeDepth()), identifier.getDeclarationScope());
+			}
+		});
+	}
+	
+	public void testUndefinedNamesAreUnresolved() {
+		new CompilationContext().run(() -> {
+			IdentifierNode q = (IdentifierNode) analyze("main {\n  print q;\n}\n").child(0).child(0).child(0);
+			
+			assertFalse(q.isResolved());
+			assertTrue(CompilationContext.current().getNumMessages() > 0);
+		});
+	}
+	
+	public void testResolutionsAreCached() {
+		new CompilationContext().run(() -> {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DecoratedTreeFormat.write(analyze(PROGRAM), "resolution", new DataOutputStream(bytes));
+				ParseNode read = DecoratedTreeFormat.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "resolution");
+				IdentifierNode a = (IdentifierNode) innerBlock(read).child(0).child(1).child(1);
+				
+				assertEquals(1, a.getScopeDepth());
+				assertEquals(1, a.getSlot());
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+}
@@ -1,29 +1,61 @@
 package semanticAnalyzer.types;
 
-import java.util.ArrayList;
-
+/** A tuple of parameter types.  Tuple types are made only by a TypeTable, which makes one
+ *  per list of parameter types, so they are compared by identity.  A tuple value is a
+ *  reference to a record holding its fields in parameter order, without padding; the
+ *  record's size and the offset of each field are worked out once, when the type is made.
+ */
 public class TupleType implements Type {
-	private ArrayList<Type> paramTypes = new ArrayList<Type>();
+	public static final int REFERENCE_SIZE = 4;
+	
+	private final Type[] paramTypes;
+	private final int[] fieldOffsets;
+	private final int recordSize;
 	
-	public void addParameter(Type paramType){
-		paramTypes.add(paramType);
+	TupleType(Type[] paramTypes) {
+		this.paramTypes = paramTypes;
+		this.fieldOffsets = new int[paramTypes.length];
+		
+		int offset = 0;
+		for(int i = 0; i < paramTypes.length; i++) {
+			fieldOffsets[i] = offset;
+			offset += paramTypes[i].getSize();
+		}
+		this.recordSize = offset;
 	}
 	
 	public int getNumberOfParameters(){
-		return paramTypes.size();
+		return paramTypes.length;
 	}
 	
-	public boolean equals(TupleType tuple) { // TODO: equals
-		return false;
+	public Type getParameterType(int index){
+		return paramTypes[index];
 	}
-
+	
+	/** The offset of the field for parameter index from the start of the record, in bytes. */
+	public int getFieldOffset(int index) {
+		return fieldOffsets[index];
+	}
+	
+	/** The size of the record holding a value of this type, in bytes. */
+	public int getRecordSize() {
+		return recordSize;
+	}
+	
 	@Override
 	public int getSize() {
-		return 0;
+		return REFERENCE_SIZE;
 	}
-
+	
 	@Override
-	public String infoString() { // TODO: string
-		return "TupleType[" + "]";
+	public String infoString() {
+		StringBuilder result = new StringBuilder("TupleType[");
+		for(int i = 0; i < paramTypes.length; i++) {
+			if(i > 0) {
+				result.append(", ");
+			}
+			result.append(paramTypes[i].infoString());
+		}
+		return result.append("]").toString();
 	}
 }
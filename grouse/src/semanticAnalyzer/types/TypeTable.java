@@ -0,0 +1,52 @@
+package semanticAnalyzer.types;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import utilities.CompilationContext;
+
+/** Makes the TupleTypes of a compilation, one per list of parameter types, so that two
+ *  tuple types are equal exactly when they are the same object.  Use
+ *  <code>getInstance()</code> to get the table of the current CompilationContext.
+ * <p>
+ *  Parameter types are themselves primitive or made here, so comparing the lists of
+ *  parameter types element by element compares the tuples' whole structure.  The table may
+ *  be used by several threads at once.
+ */
+public class TypeTable {
+	private final Map<List<Type>, TupleType> tuples;
+	
+	public TypeTable() {
+		tuples = new ConcurrentHashMap<List<Type>, TupleType>();
+	}
+	
+	public static TypeTable getInstance() {
+		return CompilationContext.current().getTypeTable();
+	}
+	
+	/** The tuple type with the given parameter types, in order. */
+	public TupleType tupleOf(Type ...parameterTypes) {
+		return tupleOf(Arrays.asList(parameterTypes));
+	}
+	public TupleType tupleOf(List<Type> parameterTypes) {
+		TupleType tuple = tuples.get(parameterTypes);
+		if(tuple != null) {
+			return tuple;
+		}
+		
+		Type[] copy = parameterTypes.toArray(new Type[parameterTypes.size()]);
+		for(Type type: copy) {
+			if(type == null) {
+				throw new IllegalArgumentException("tuple type: null parameter type in " + parameterTypes);
+			}
+		}
+		return tuples.computeIfAbsent(Arrays.asList(copy), (key) -> new TupleType(copy));
+	}
+	
+	/** The number of distinct tuple types made so far. */
+	public int size() {
+		return tuples.size();
+	}
+}
@@ -0,0 +1,82 @@
+package semanticAnalyzer.types.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import semanticAnalyzer.types.PrimitiveType;
+import semanticAnalyzer.types.TupleType;
+import semanticAnalyzer.types.Type;
+import semanticAnalyzer.types.TypeTable;
+import utilities.CompilationContext;
+
+public class TestTypeTable extends TestCase {
+	public void testStructurallyEqualTuplesAreIdentical() {
+		new CompilationContext().run(() -> {
+			TypeTable table = TypeTable.getInstance();
+			List<Type> parameterTypes = new ArrayList<Type>();
+			parameterTypes.add(PrimitiveType.INTEGER);
+			parameterTypes.add(PrimitiveType.FLOAT);
+			
+			TupleType pair = table.tupleOf(parameterTypes);
+			parameterTypes.add(PrimitiveType.CHARACTER);
+			
+			assertSame(pair, table.tupleOf(PrimitiveType.INTEGER, PrimitiveType.FLOAT));
+			assertEquals(2, pair.getNumberOfParameters());
+			assertNotSame(pair, table.tupleOf(PrimitiveType.FLOAT, PrimitiveType.INTEGER));
+			assertSame(table.tupleOf(pair, pair), table.tupleOf(table.tupleOf(PrimitiveType.INTEGER, PrimitiveType.FLOAT), pair));
+			assertSame(table.tupleOf(), table.tupleOf(new ArrayList<Type>()));
+			assertEquals(4, table.size());
+		});
+	}
+	
+	public void testEachCompilationHasItsOwnTable() {
+		TupleType first = new CompilationContext().call(() -> TypeTable.getInstance().tupleOf(PrimitiveType.INTEGER));
+		TupleType second = new CompilationContext().call(() -> TypeTable.getInstance().tupleOf(PrimitiveType.INTEGER));
+		
+		assertNotSame(first, second);
+	}
+	
+	// fields are laid out in order, each right after the one before.
+	public void testFieldOffsetsAndRecordSize() {
+		new CompilationContext().run(() -> {
+			TypeTable table = TypeTable.getInstance();
+			TupleType inner = table.tupleOf(PrimitiveType.CHARACTER, PrimitiveType.FLOAT);
+			TupleType tuple = table.tupleOf(PrimitiveType.INTEGER, inner, PrimitiveType.BOOLEAN, PrimitiveType.FLOAT);
+			
+			assertEquals(0, tuple.getFieldOffset(0));
+			assertEquals(PrimitiveType.INTEGER.getSize(), tuple.getFieldOffset(1));
+			assertEquals(PrimitiveType.INTEGER.getSize() + TupleType.REFERENCE_SIZE, tuple.getFieldOffset(2));
+			assertEquals(tuple.getFieldOffset(2) + PrimitiveType.BOOLEAN.getSize(), tuple.getFieldOffset(3));
+			assertEquals(tuple.getFieldOffset(3) + PrimitiveType.FLOAT.getSize(), tuple.getRecordSize());
+			assertEquals(PrimitiveType.CHARACTER.getSize() + PrimitiveType.FLOAT.getSize(), inner.getRecordSize());
+			assertEquals(TupleType.REFERENCE_SIZE, tuple.getSize());
+			assertEquals(0, table.tupleOf().getRecordSize());
+		});
+	}
+	
+	public void testInfoStringListsParameterTypes() {
+		new CompilationContext().run(() -> {
+			TypeTable table = TypeTable.getInstance();
+			TupleType pair = table.tupleOf(PrimitiveType.INTEGER, PrimitiveType.FLOAT);
+			
+			assertEquals("TupleType[]", table.tupleOf().infoString());
+			assertEquals("TupleType[" + PrimitiveType.INTEGER.infoString() + ", " + PrimitiveType.FLOAT.infoString() + "]",
+					pair.infoString());
+			assertEquals("TupleType[" + pair.infoString() + ", " + PrimitiveType.BOOLEAN.infoString() + "]",
+					table.tupleOf(pair, PrimitiveType.BOOLEAN).infoString());
+		});
+	}
+	
+	public void testNullParameterTypeIsRejected() {
+		new CompilationContext().run(() -> {
+			try {
+				TypeTable.getInstance().tupleOf(PrimitiveType.INTEGER, null);
+				fail("expected an IllegalArgumentException");
+			}
+			catch (IllegalArgumentException e) {
+				assertEquals(0, TypeTable.getInstance().size());
+			}
+		});
+	}
+}
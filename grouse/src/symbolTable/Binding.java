@@ -62,7 +62,7 @@ public class Binding {
 	}
 	
 	private static class NullBinding extends Binding {
-		private static NullBinding instance = null;
+		private static NullBinding instance = new NullBinding();
 		
 		private NullBinding() {
 			super(PrimitiveType.ERROR,
@@ -73,10 +73,6 @@ public class Binding {
 		}
 		
 		public static NullBinding getInstance() {
-			if (instance == null) {
-				instance = new NullBinding();
-			}
-			
 			return instance;
 		}
 	}
@@ -5,7 +5,7 @@ import asmCodeGenerator.runtime.RunTime;
 
 public class MemoryLocation {
 	public static final String GLOBAL_VARIABLE_BLOCK = RunTime.GLOBAL_MEMORY_BLOCK;
-	public static final String FRAME_POINTER = "Frame pointer not yet implemented in RunTime.";
+	public static final String FRAME_POINTER = RunTime.FRAME_POINTER;
 	
 	private MemoryAccessMethod accessor;
 	private String baseAddress;
@@ -45,14 +45,12 @@ public class MemoryLocation {
 	}
 	private static class NullMemoryLocation extends MemoryLocation {
 		private static final int NULL_OFFSET = 0;
-		private static NullMemoryLocation instance=null;
+		private static NullMemoryLocation instance = new NullMemoryLocation();
 		
 		private NullMemoryLocation() {
 			super(MemoryAccessMethod.NULL_ACCESS, "", NULL_OFFSET);
 		}
 		public static NullMemoryLocation getInstance() {
-			if(instance==null)
-				instance = new NullMemoryLocation();
 			return instance;
 		}
 	}
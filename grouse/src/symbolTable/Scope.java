@@ -1,10 +1,12 @@
 package symbolTable;
 
+import asmCodeGenerator.runtime.RunTime;
 import inputHandler.TextLocation;
 import logging.GrouseLogger;
 import parseTree.nodeTypes.IdentifierNode;
 import semanticAnalyzer.types.Type;
 import tokens.Token;
+import utilities.CompilationContext;
 import utilities.Debug;
 
 public class Scope {
@@ -13,6 +15,7 @@ public class Scope {
 	private Scope baseScope;
 	private MemoryAllocator allocator;
 	private SymbolTable symbolTable;
+	private int depth;		// 0 for a program scope, one more for each scope inside it; -1 for the null scope
 	
 	//////////////////////////////////////////////////////////////////////
 	// FACTORIES
@@ -26,12 +29,32 @@ public class Scope {
 		return new Scope(allocator, this);
 	}
 	
+	// a function's parameters and locals live in its frame, below the frame's linkage, not in
+	// the enclosing scope's memory.
+	public Scope createProcedureScope() {
+		return new Scope(procedureScopeAllocator(), this);
+	}
+	
+	// a scope read back from a cached tree: all that is kept of it is how much memory it used.
+	public static Scope createRestoredScope(int allocatedSize) {
+		Scope scope = new Scope(programScopeAllocator(), nullInstance());
+		scope.allocator.allocate(allocatedSize);
+		return scope;
+	}
+	
 	private static MemoryAllocator programScopeAllocator() {
 		return new PositiveMemoryAllocator(
 				MemoryAccessMethod.DIRECT_ACCESS_BASE, 
 				MemoryLocation.GLOBAL_VARIABLE_BLOCK);
 	}
 	
+	private static MemoryAllocator procedureScopeAllocator() {
+		return new NegativeMemoryAllocator(
+				MemoryAccessMethod.INDIRECT_ACCESS_BASE, 
+				MemoryLocation.FRAME_POINTER,
+				-RunTime.FRAME_LINKAGE_SIZE);
+	}
+	
 	//////////////////////////////////////////////////////////////////////
 	// PRIVATE CONSTRUCTOR
 	//////////////////////////////////////////////////////////////////////
@@ -39,6 +62,7 @@ public class Scope {
 	private Scope(MemoryAllocator allocator, Scope baseScope) {
 		super();
 		this.baseScope = (baseScope == null) ? this : baseScope;
+		this.depth = (baseScope == null) ? -1 : baseScope.depth + 1;
 		this.symbolTable = new SymbolTable();
 		this.allocator = allocator;
 		allocator.saveState();
@@ -60,6 +84,43 @@ public class Scope {
 		return symbolTable;
 	}
 	
+	public int getDepth() {
+		return depth;
+	}
+	
+	///////////////////////////////////////////////////////////////////////
+	// RESOLUTION
+	// A binding is found by its scope's depth and its slot, the index of its
+	// entry in that scope's symbol table.  Scopes link to the scope enclosing
+	// them, so finding a name costs a step per enclosing scope rather than per
+	// enclosing parse node.
+	///////////////////////////////////////////////////////////////////////
+	
+	// the innermost scope, starting at this one, that binds nameId; the null scope if none does.
+	public Scope scopeBinding(int nameId) {
+		Scope scope = this;
+		while (scope.depth >= 0 && !scope.symbolTable.containsKey(nameId)) {
+			scope = scope.baseScope;
+		}
+		return scope;
+	}
+	
+	// the scope at the given depth that encloses (or is) this one.
+	public Scope enclosingScope(int depth) {
+		if (depth < 0 || depth > this.depth) {
+			throw new IllegalArgumentException("no enclosing scope at depth " + depth + " of a scope at depth " + this.depth);
+		}
+		Scope scope = this;
+		while (scope.depth > depth) {
+			scope = scope.baseScope;
+		}
+		return scope;
+	}
+	
+	public Binding bindingAt(int depth, int slot) {
+		return enclosingScope(depth).symbolTable.bindingAt(slot);
+	}
+	
 	///////////////////////////////////////////////////////////////////////
 	// MEMORY ALLOCATION
 	///////////////////////////////////////////////////////////////////////
@@ -99,7 +160,7 @@ public class Scope {
 		lexeme = token.getLexeme();
 		binding = allocateNewBinding(type, token.getLocation(), lexeme, extra);
 		
-		symbolTable.install(lexeme, binding);
+		symbolTable.install(identifierNode.getNameId(), binding);
 		
 		return binding;
 	}
@@ -127,13 +188,15 @@ public class Scope {
 	// NULL SCOPE OBJECT - LAZY SINGLETON (Lazy Holder) IMPLEMENTATION PATTERN
 	////////////////////////////////////////////////////////////////////////////////////
 	
+	// one null scope per CompilationContext: it collects the bindings of unscoped identifiers
 	public static Scope nullInstance() {
-		return NullScope.instance;
+		return CompilationContext.current().getNullScope();
+	}
+	public static Scope createNullScope() {
+		return new NullScope();
 	}
 	
 	private static class NullScope extends Scope {
-		private static NullScope instance = new NullScope();
-
 		private NullScope() {
 			super(	new PositiveMemoryAllocator(MemoryAccessMethod.NULL_ACCESS, "", 0),
 					null);
@@ -1,19 +1,44 @@
 package symbolTable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import logging.GrouseLogger;
 
+import tokens.IdentifierToken;
+import tokens.NameTable;
 import tokens.Token;
 
+/** The bindings of one scope, keyed on NameTable ids.
+ * <p>
+ *  Entries are kept in install order, in parallel arrays of name ids and bindings.  Most
+ *  blocks bind only a few names, so a table of up to LINEAR_ENTRIES entries is searched by
+ *  scanning the ids; past that, an open-addressing table of entry indices, probed linearly,
+ *  is built to find the entry of an id.  A table shares empty arrays until its first install.
+ *  String identifiers are accepted too, and are translated through the NameTable.
+ */
 public class SymbolTable {
-	private Map<String, Binding> table;
+	private static final int STARTING_CAPACITY = 4;
+	private static final int LINEAR_ENTRIES = 8;
+	private static final int[] NO_NAMES = new int[0];
+	private static final Binding[] NO_BINDINGS = new Binding[0];
+	
+	private int[] entryNames;
+	private Binding[] entryBindings;
+	private int count;
+	private int[] slots;		// entry index + 1, or 0 for an empty slot; null while entries are scanned
+	private int mask;
 	
 	public SymbolTable() {
-		table = new HashMap<String, Binding>();
+		entryNames = NO_NAMES;
+		entryBindings = NO_BINDINGS;
+		slots = null;
+		mask = 0;
+		count = 0;
 	}
 	
 	////////////////////////////////////////////////////////////////
@@ -21,13 +46,48 @@ public class SymbolTable {
 	////////////////////////////////////////////////////////////////
 	
 	public Binding install(String identifier, Binding binding) {
-		table.put(identifier, binding);
+		return install(NameTable.getInstance().intern(identifier), binding);
+	}
+	public Binding install(int nameId, Binding binding) {
+		int entry = find(nameId);
+		if (entry >= 0) {
+			entryBindings[entry] = binding;
+			return binding;
+		}
+		
+		if (count == entryNames.length) {
+			grow();
+		}
+		entry = count++;
+		entryNames[entry] = nameId;
+		entryBindings[entry] = binding;
+		if (slots != null) {
+			place(entry);
+		}
+		else if (count > LINEAR_ENTRIES) {
+			index();
+		}
 		
 		return binding;
 	}
 	
 	public Binding lookup(String identifier) {
-		return table.getOrDefault(identifier, Binding.nullInstance());
+		return lookup(NameTable.getInstance().idOf(identifier));
+	}
+	public Binding lookup(int nameId) {
+		int entry = find(nameId);
+		return (entry >= 0) ? entryBindings[entry] : Binding.nullInstance();
+	}
+	
+	// the slot of nameId: the index of its entry, which never changes once installed; -1 if it is not installed.
+	public int slotOf(int nameId) {
+		return find(nameId);
+	}
+	public Binding bindingAt(int slot) {
+		if (slot < 0 || slot >= count) {
+			throw new IllegalArgumentException("no binding in slot " + slot + " of a table of " + count);
+		}
+		return entryBindings[slot];
 	}
 	
 	///////////////////////////////////////////////////////////////////////
@@ -35,15 +95,82 @@ public class SymbolTable {
 	///////////////////////////////////////////////////////////////////////
 	
 	public boolean containsKey(String identifier) {
-		return table.containsKey(identifier);
+		return containsKey(NameTable.getInstance().idOf(identifier));
+	}
+	public boolean containsKey(int nameId) {
+		return find(nameId) >= 0;
 	}
 	
 	public Set<String> keySet() {
-		return table.keySet();
+		Set<String> result = new LinkedHashSet<String>();
+		for (int entry = 0; entry < count; entry++) {
+			result.add(NameTable.getInstance().nameOf(entryNames[entry]));
+		}
+		return result;
 	}
 	
 	public Collection<Binding> values() {
-		return table.values();
+		List<Binding> result = new ArrayList<Binding>(count);
+		for (int entry = 0; entry < count; entry++) {
+			result.add(entryBindings[entry]);
+		}
+		return result;
+	}
+	
+	///////////////////////////////////////////////////////////////////////
+	// SCANNING AND OPEN ADDRESSING
+	///////////////////////////////////////////////////////////////////////
+	
+	// returns the entry index of nameId, or -1 if it is not installed.
+	private int find(int nameId) {
+		if (nameId == NameTable.NO_NAME) {
+			return -1;
+		}
+		if (slots == null) {
+			for (int entry = 0; entry < count; entry++) {
+				if (entryNames[entry] == nameId) {
+					return entry;
+				}
+			}
+			return -1;
+		}
+		for (int slot = slotFor(nameId); slots[slot] != 0; slot = (slot + 1) & mask) {
+			int entry = slots[slot] - 1;
+			if (entryNames[entry] == nameId) {
+				return entry;
+			}
+		}
+		return -1;
+	}
+	private void place(int entry) {
+		int slot = slotFor(entryNames[entry]);
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = entry + 1;
+	}
+	private int slotFor(int nameId) {
+		int h = nameId * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	private void grow() {
+		int capacity = Math.max(STARTING_CAPACITY, entryNames.length * 2);
+		entryNames = Arrays.copyOf(entryNames, capacity);
+		entryBindings = Arrays.copyOf(entryBindings, capacity);
+		if (slots != null) {
+			index();
+		}
+	}
+	
+	// entries fill at most half the slots
+	private void index() {
+		slots = new int[entryNames.length * 2];
+		mask = slots.length - 1;
+		
+		for (int entry = 0; entry < count; entry++) {
+			place(entry);
+		}
 	}
 	
 	///////////////////////////////////////////////////////////////////////
@@ -51,11 +178,18 @@ public class SymbolTable {
 	///////////////////////////////////////////////////////////////////////
 	
 	public void errorIfAlreadyDefined(Token token) {
-		if (containsKey(token.getLexeme())) {		
+		if (containsKey(nameIdOf(token))) {		
 			multipleDefinitionError(token);
 		}
 	}
 	
+	private static int nameIdOf(Token token) {
+		if (token instanceof IdentifierToken) {
+			return ((IdentifierToken)token).getNameId();
+		}
+		return NameTable.getInstance().idOf(token.getLexeme());
+	}
+	
 	protected static void multipleDefinitionError(Token token) {
 		GrouseLogger log = GrouseLogger.getLogger("compiler.symbolTable");
 		
@@ -69,9 +203,9 @@ public class SymbolTable {
 	
 	public String toString() {
 		StringBuffer result = new StringBuffer("    symbol table: \n");
-		table.entrySet().forEach((entry) -> {
-			result.append("        " + entry + "\n");
-		});
+		for (int entry = 0; entry < count; entry++) {
+			result.append("        " + NameTable.getInstance().nameOf(entryNames[entry]) + "=" + entryBindings[entry] + "\n");
+		}
 		return result.toString();
 	}
 }
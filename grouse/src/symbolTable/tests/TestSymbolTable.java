@@ -0,0 +1,65 @@
+package symbolTable.tests;
+
+import inputHandler.TextLocation;
+import junit.framework.TestCase;
+import semanticAnalyzer.types.PrimitiveType;
+import symbolTable.Binding;
+import symbolTable.MemoryLocation;
+import symbolTable.SymbolTable;
+import utilities.CompilationContext;
+
+public class TestSymbolTable extends TestCase {
+	private static final int MANY = 1000;
+	private static final int NAMES = 24;
+	
+	private static Binding binding(String lexeme) {
+		return new Binding(PrimitiveType.INTEGER, TextLocation.nullInstance(), MemoryLocation.nullInstance(), lexeme, "imm");
+	}
+	
+	public void testEmptyTable() {
+		new CompilationContext().run(() -> {
+			SymbolTable table = new SymbolTable();
+			
+			assertFalse(table.containsKey("x"));
+			assertSame(Binding.nullInstance(), table.lookup("x"));
+			assertEquals(-1, table.slotOf(7));
+			assertTrue(table.keySet().isEmpty());
+		});
+	}
+	
+	// every name keeps the slot it was installed in as the table grows.
+	public void testGrowingTables() {
+		new CompilationContext().run(() -> {
+			SymbolTable table = new SymbolTable();
+			Binding[] bindings = new Binding[MANY];
+			for (int i = 0; i < MANY; i++) {
+				bindings[i] = table.install("name" + i, binding("name" + i));
+				
+				if (Integer.bitCount(i) == 1 || i == MANY - 1) {
+					for (int j = 0; j <= i; j++) {
+						assertSame(bindings[j], table.lookup("name" + j));
+						assertSame(bindings[j], table.bindingAt(j));
+					}
+					assertFalse(table.containsKey("name" + (i + 1)));
+				}
+			}
+			assertEquals(MANY, table.values().size());
+			assertEquals("name0", table.keySet().iterator().next());
+		});
+	}
+	
+	public void testInstallingAgainReplacesTheBinding() {
+		new CompilationContext().run(() -> {
+			SymbolTable table = new SymbolTable();
+			for (int i = 0; i < NAMES; i++) {
+				table.install("name" + i, binding("name" + i));
+			}
+			Binding replacement = binding("name5");
+			table.install("name5", replacement);
+			
+			assertSame(replacement, table.lookup("name5"));
+			assertSame(replacement, table.bindingAt(5));
+			assertEquals(NAMES, table.values().size());
+		});
+	}
+}
@@ -3,14 +3,25 @@ package tokens;
 import inputHandler.TextLocation;
 
 public class IdentifierToken extends TokenImp {
-	protected IdentifierToken(TextLocation location, String lexeme) {
-		super (location, lexeme.intern());
+	private int nameId;
+	
+	protected IdentifierToken(TextLocation location, int nameId) {
+		super (location, NameTable.getInstance().nameOf(nameId));
+		this.nameId = nameId;
 	}
 	
 	public static IdentifierToken make(TextLocation location, String lexeme) {
-		IdentifierToken result = new IdentifierToken(location, lexeme);
+		return make(location, NameTable.getInstance().intern(lexeme));
+	}
+	public static IdentifierToken make(TextLocation location, int nameId) {
+		IdentifierToken result = new IdentifierToken(location, nameId);
 		return result;
 	}
+	
+	/** Get the NameTable id of this identifier's name. */
+	public int getNameId() {
+		return nameId;
+	}
 
 	@Override
 	protected String rawString() {
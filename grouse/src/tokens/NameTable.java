@@ -0,0 +1,164 @@
+package tokens;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import utilities.CompilationContext;
+
+/** Interns lexemes (identifier names and string literals) as small integer ids, shared by
+ *  the whole front end.  Use <code>getInstance()</code> to get the table of the current
+ *  CompilationContext.
+ * <p>
+ *  Ids are handed out densely from 0 in order of first appearance, and the name of an id is
+ *  the same String object every time, so a name that occurs many times in a program is
+ *  stored once.  Names can be interned straight from a range of the source buffer; a String
+ *  is only made for a name's first occurrence.
+ * <p>
+ *  The table may be used by several threads at once (the workers of a ParallelLexer, say)
+ *  without a lock: ids are kept in a ConcurrentHashMap keyed on the names' characters, and
+ *  a new name takes the next id from an atomic counter.  Names are stored by id in chunks
+ *  that are never moved, so nameOf reads without locking; an id can only be known to a
+ *  thread after the name was stored for it.  The directory of chunks starts small, and a
+ *  chunk is added by replacing the whole directory with a copy, by compare-and-set.
+ */
+public class NameTable {
+	public static final int NO_NAME = -1;
+	private static final int STARTING_CAPACITY = 1024;
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int STARTING_CHUNKS = 4;
+	
+	private final ConcurrentHashMap<Name, Integer> ids;
+	private final AtomicReference<String[][]> chunks;	// names by id, CHUNK_SIZE at a time
+	private final AtomicInteger count;
+	
+	public NameTable() {
+		ids = new ConcurrentHashMap<Name, Integer>(STARTING_CAPACITY);
+		chunks = new AtomicReference<String[][]>(new String[STARTING_CHUNKS][]);
+		count = new AtomicInteger();
+	}
+	
+	public static NameTable getInstance() {
+		return CompilationContext.current().getNameTable();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// queries
+	
+	/** Get the name of an id.  The String returned is interned (as by String.intern()). */
+	public String nameOf(int id) {
+		return chunks.get()[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)];
+	}
+	
+	/** Get the id of a name, or NO_NAME if it was never interned. */
+	public int idOf(String name) {
+		Integer id = ids.get(new Name(name, 0, name.length()));
+		return (id == null) ? NO_NAME : id;
+	}
+	
+	public int size() {
+		return count.get();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// interning
+	
+	public int intern(String name) {
+		return intern(name, 0, name.length());
+	}
+	
+	/** Intern the name chars[start, end), making a String for it only if it is new. */
+	public int intern(CharSequence chars, int start, int end) {
+		Name probe = new Name(chars, start, end);
+		Integer id = ids.get(probe);
+		
+		if(id == null) {
+			id = ids.computeIfAbsent(probe.stored(), this::add);
+		}
+		return id;
+	}
+	
+	// called once per name, by the thread that first interns it.
+	private Integer add(Name name) {
+		int id = count.getAndIncrement();
+		
+		chunkFor(id)[id & (CHUNK_SIZE - 1)] = (String)name.chars;
+		return id;
+	}
+	private String[] chunkFor(int id) {
+		int index = id >>> CHUNK_BITS;
+		
+		while(true) {
+			String[][] directory = chunks.get();
+			if(index < directory.length && directory[index] != null) {
+				return directory[index];
+			}
+			int length = directory.length;
+			while(length <= index) {
+				length *= 2;
+			}
+			String[][] added = Arrays.copyOf(directory, length);
+			added[index] = new String[CHUNK_SIZE];
+			chunks.compareAndSet(directory, added);
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// keys: a range of characters, hashed and compared by content.  Keys in the map
+	// hold the whole interned String; probes hold a range of the caller's characters.
+	
+	private static final class Name {
+		private final CharSequence chars;
+		private final int start;
+		private final int end;
+		private final int hash;
+		
+		Name(CharSequence chars, int start, int end) {
+			this.chars = chars;
+			this.start = start;
+			this.end = end;
+			this.hash = hash(chars, start, end);
+		}
+		private Name(String name, int hash) {
+			this.chars = name;
+			this.start = 0;
+			this.end = name.length();
+			this.hash = hash;
+		}
+		
+		Name stored() {
+			return new Name(chars.subSequence(start, end).toString().intern(), hash);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		@Override
+		public boolean equals(Object object) {
+			if(!(object instanceof Name)) {
+				return false;
+			}
+			Name other = (Name)object;
+			if(other.hash != hash || other.end - other.start != end - start) {
+				return false;
+			}
+			for(int i = 0; i < end - start; i++) {
+				if(chars.charAt(start + i) != other.chars.charAt(other.start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		private static int hash(CharSequence chars, int start, int end) {
+			int h = 0;
+			for(int i = start; i < end; i++) {
+				h = 31 * h + chars.charAt(i);
+			}
+			return h ^ (h >>> 16);
+		}
+	}
+}
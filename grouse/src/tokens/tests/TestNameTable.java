@@ -0,0 +1,80 @@
+package tokens.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tokens.NameTable;
+
+import junit.framework.TestCase;
+
+
+public class TestNameTable extends TestCase {
+	
+	public void testInterning() {
+		NameTable names = new NameTable();
+		
+		int x = names.intern("x");
+		int y = names.intern("y");
+		
+		assertEquals(0, x);
+		assertEquals(1, y);
+		assertEquals(x, names.intern("x"));
+		assertEquals(y, names.intern("let y = 3", 4, 5));
+		assertEquals(2, names.size());
+		assertSame("y", names.nameOf(y));
+	}
+	
+	public void testIdOf() {
+		NameTable names = new NameTable();
+		
+		int id = names.intern("count~2");
+		
+		assertEquals(id, names.idOf("count~2"));
+		assertEquals(NameTable.NO_NAME, names.idOf("count"));
+		assertEquals(1, names.size());
+	}
+	
+	public void testGrowth() {
+		NameTable names = new NameTable();
+		
+		for(int i = 0; i < 5000; i++) {
+			assertEquals(i, names.intern("name" + i));
+		}
+		for(int i = 0; i < 5000; i++) {
+			assertEquals(i, names.idOf("name" + i));
+			assertEquals("name" + i, names.nameOf(i));
+		}
+	}
+	
+	// threads interning the same names in different orders, past the first chunks, agree on the ids, which stay dense.
+	public void testConcurrentInterning() throws InterruptedException {
+		NameTable names = new NameTable();
+		int[][] ids = new int[4][6000];
+		List<Thread> threads = new ArrayList<Thread>();
+		
+		for(int t = 0; t < ids.length; t++) {
+			int[] threadIds = ids[t];
+			boolean reversed = (t % 2 == 1);
+			threads.add(new Thread(() -> {
+				for(int j = 0; j < threadIds.length; j++) {
+					int i = reversed ? threadIds.length - 1 - j : j;
+					threadIds[i] = names.intern("name" + i);
+				}
+			}));
+		}
+		for(Thread thread: threads) {
+			thread.start();
+		}
+		for(Thread thread: threads) {
+			thread.join();
+		}
+		
+		assertEquals(6000, names.size());
+		for(int i = 0; i < 6000; i++) {
+			for(int t = 1; t < ids.length; t++) {
+				assertEquals(ids[0][i], ids[t][i]);
+			}
+			assertEquals("name" + i, names.nameOf(ids[0][i]));
+		}
+	}
+}
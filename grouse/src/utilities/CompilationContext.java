@@ -0,0 +1,132 @@
+package utilities;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import asmCodeGenerator.Labeller;
+import lexicalAnalyzer.LexicalAnalyzer;
+import logging.GrouseLogger;
+import semanticAnalyzer.types.TypeTable;
+import symbolTable.Scope;
+import tokens.NameTable;
+
+/** The state that belongs to one compilation: its NameTable and TypeTable, the lexer
+ *  implementation it uses, the labellers of the code generator and the runtime, its loggers
+ *  and error count, and its null scope.  Separate
+ *  compilations with separate contexts can run at the same time in one JVM.
+ * <p>
+ *  Each thread has a current context, which is where the static accessors
+ *  (GrouseLogger.getLogger, NameTable.getInstance, Scope.nullInstance, ...) find their state.
+ *  It is the default context unless <code>run</code> or <code>call</code> binds another one.
+ *  The lexer, parser, semantic analyzer and code generator take the current context when they
+ *  are made, work in it, and bind it on any thread they hand work to.
+ */
+public class CompilationContext {
+	private static final CompilationContext defaultContext = new CompilationContext();
+	private static final ThreadLocal<CompilationContext> currentContext = new ThreadLocal<CompilationContext>();
+	
+	private final NameTable nameTable;
+	private final TypeTable typeTable;
+	private volatile LexicalAnalyzer.Implementation lexerImplementation;
+	private final Labeller labeller;
+	private final Labeller runTimeLabeller;
+	private final Map<String, GrouseLogger> loggers;
+	private final AtomicInteger numMessages;
+	private volatile int maxMessagesBeforeQuit;
+	private Scope nullScope;
+	
+	public CompilationContext() {
+		nameTable = new NameTable();
+		typeTable = new TypeTable();
+		lexerImplementation = LexicalAnalyzer.Implementation.HAND_WRITTEN;
+		labeller = new Labeller();
+		runTimeLabeller = new Labeller();
+		loggers = new ConcurrentHashMap<String, GrouseLogger>();
+		numMessages = new AtomicInteger(0);
+		maxMessagesBeforeQuit = Integer.MAX_VALUE;
+		nullScope = null;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// the current context
+	
+	public static CompilationContext current() {
+		CompilationContext context = currentContext.get();
+		return (context == null) ? defaultContext : context;
+	}
+	
+	/** Do work with this as the current context of the calling thread. */
+	public void run(Runnable work) {
+		call(() -> {
+			work.run();
+			return null;
+		});
+	}
+	public <T> T call(Supplier<T> work) {
+		CompilationContext saved = currentContext.get();
+		currentContext.set(this);
+		try {
+			return work.get();
+		}
+		finally {
+			if (saved == null) {
+				currentContext.remove();
+			} else {
+				currentContext.set(saved);
+			}
+		}
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// per-compilation state
+	
+	public NameTable getNameTable() {
+		return nameTable;
+	}
+	public TypeTable getTypeTable() {
+		return typeTable;
+	}
+	/** The implementation LexicalAnalyzer.make constructs when none is given. */
+	public LexicalAnalyzer.Implementation getLexerImplementation() {
+		return lexerImplementation;
+	}
+	public void setLexerImplementation(LexicalAnalyzer.Implementation choice) {
+		lexerImplementation = choice;
+	}
+	/** The labeller for labels in generated code. */
+	public Labeller getLabeller() {
+		return labeller;
+	}
+	/** The labeller for labels in the memory manager's runtime code. */
+	public Labeller getRunTimeLabeller() {
+		return runTimeLabeller;
+	}
+	public synchronized Scope getNullScope() {
+		if (nullScope == null) {
+			nullScope = Scope.createNullScope();
+		}
+		return nullScope;
+	}
+	
+	//////////////////////////////////////////////////////////////////////////////
+	// logging
+	
+	public GrouseLogger getLogger(String loggerName) {
+		return loggers.computeIfAbsent(loggerName, (name) -> new GrouseLogger(name, this));
+	}
+	public boolean hasErrors() {
+		return numMessages.get() != 0;
+	}
+	public int getNumMessages() {
+		return numMessages.get();
+	}
+	/** Count a logged message.  Returns true if it reaches the maximum number of messages. */
+	public boolean countMessage() {
+		return numMessages.incrementAndGet() >= maxMessagesBeforeQuit;
+	}
+	public void setMaximumErrorMessages(int numMessages) {
+		maxMessagesBeforeQuit = numMessages;
+	}
+}